@@ -0,0 +1,212 @@
+package com.dnagda.eliteG;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * A shell command checked when it is built and kept as an argument array.
+ *
+ * Running a Cmd needs no parsing or validation, and no shell splits its arguments again, so
+ * a setting value or layer name with spaces stays one argument. Commands are immutable and
+ * can be reused in batches or written to a long-lived shell with {@link #toShellLine()}.
+ */
+public final class Cmd {
+
+    private static final Pattern PACKAGE_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*(\\.[A-Za-z0-9_]+)+");
+    private static final Pattern SETTING_KEY = Pattern.compile("[A-Za-z0-9_.:\\-]+");
+    private static final Pattern PROPERTY_NAME = Pattern.compile("[A-Za-z0-9_.\\-]+");
+    private static final Pattern PERMISSION_NAME = Pattern.compile("[A-Za-z0-9_.]+");
+    private static final Pattern DUMPSYS_ARGUMENT = Pattern.compile("[^\\x00-\\x1f]+");
+    private static final int MAX_DENSITY = 1000;
+
+    private final String[] argv;
+    private final String text;
+    private final boolean readOnly;
+
+    // Arguments must already be validated
+    Cmd(String... argv) {
+        this.argv = argv;
+        this.text = String.join(" ", argv);
+        this.readOnly = isReadOnly(argv);
+    }
+
+    public static Cmd wmSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid resolution dimensions: " + width + "x" + height);
+        }
+        return new Cmd("wm", "size", width + "x" + height);
+    }
+
+    public static Cmd wmSizeReset() {
+        return new Cmd("wm", "size", "reset");
+    }
+
+    /**
+     * Print the physical and override display size
+     */
+    public static Cmd wmSizeQuery() {
+        return new Cmd("wm", "size");
+    }
+
+    public static Cmd wmDensity(int density) {
+        if (density <= 0 || density > MAX_DENSITY) {
+            throw new IllegalArgumentException("Invalid density value: " + density);
+        }
+        return new Cmd("wm", "density", String.valueOf(density));
+    }
+
+    public static Cmd wmDensityReset() {
+        return new Cmd("wm", "density", "reset");
+    }
+
+    /**
+     * Print the physical and override display density
+     */
+    public static Cmd wmDensityQuery() {
+        return new Cmd("wm", "density");
+    }
+
+    public static Cmd settingsGet(String namespace, String key) {
+        return new Cmd("settings", "get", checkNamespace(namespace), checkSettingKey(key));
+    }
+
+    public static Cmd settingsPut(String namespace, String key, String value) {
+        if (value == null || value.isEmpty() || value.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        return new Cmd("settings", "put", checkNamespace(namespace), checkSettingKey(key), value);
+    }
+
+    public static Cmd settingsDelete(String namespace, String key) {
+        return new Cmd("settings", "delete", checkNamespace(namespace), checkSettingKey(key));
+    }
+
+    public static Cmd forceStop(String packageName) {
+        return new Cmd("am", "force-stop", checkPackageName(packageName));
+    }
+
+    public static Cmd killAll() {
+        return new Cmd("am", "kill-all");
+    }
+
+    public static Cmd pmGrant(String packageName, String permission) {
+        if (permission == null || !PERMISSION_NAME.matcher(permission).matches()) {
+            throw new IllegalArgumentException("Invalid permission: " + permission);
+        }
+        return new Cmd("pm", "grant", checkPackageName(packageName), permission);
+    }
+
+    public static Cmd getprop(String property) {
+        if (property == null || !PROPERTY_NAME.matcher(property).matches()) {
+            throw new IllegalArgumentException("Invalid property: " + property);
+        }
+        return new Cmd("getprop", property);
+    }
+
+    /**
+     * Dump a system service, e.g. {@code dumpsys("gfxinfo", packageName, "reset")}
+     */
+    public static Cmd dumpsys(String service, String... arguments) {
+        String[] argv = new String[arguments.length + 2];
+        argv[0] = "dumpsys";
+        argv[1] = checkDumpsysArgument(service);
+        for (int i = 0; i < arguments.length; i++) {
+            argv[i + 2] = checkDumpsysArgument(arguments[i]);
+        }
+        return new Cmd(argv);
+    }
+
+    /**
+     * The argument array, first element the program. Callers must not modify it.
+     */
+    String[] getArgv() {
+        return argv;
+    }
+
+    /**
+     * Whether the command only reads state, so identical concurrent runs can share one result
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * The command as one line for a long-lived shell, each argument single-quoted
+     */
+    public String toShellLine() {
+        StringBuilder line = new StringBuilder(text.length() + argv.length * 2);
+        for (String argument : argv) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append('\'').append(argument.replace("'", "'\\''")).append('\'');
+        }
+        return line.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Cmd && Arrays.equals(argv, ((Cmd) o).argv);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(argv);
+    }
+
+    /**
+     * The arguments joined by spaces, for logging
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static boolean isReadOnly(String[] argv) {
+        switch (argv[0]) {
+            case "getprop":
+                return true;
+            case "wm":
+                return argv.length == 2; // Query without a new value
+            case "settings":
+                return argv.length > 1 && "get".equals(argv[1]);
+            case "dumpsys":
+                for (String argument : argv) {
+                    if ("reset".equals(argument)) {
+                        return false; // e.g. gfxinfo reset clears the frame stats
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String checkNamespace(String namespace) {
+        if (!"global".equals(namespace) && !"secure".equals(namespace) && !"system".equals(namespace)) {
+            throw new IllegalArgumentException("Invalid settings namespace: " + namespace);
+        }
+        return namespace;
+    }
+
+    private static String checkSettingKey(String key) {
+        if (key == null || !SETTING_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid setting key: " + key);
+        }
+        return key;
+    }
+
+    private static String checkPackageName(String packageName) {
+        if (packageName == null || !PACKAGE_NAME.matcher(packageName).matches()) {
+            throw new IllegalArgumentException("Invalid package name: " + packageName);
+        }
+        return packageName;
+    }
+
+    private static String checkDumpsysArgument(String argument) {
+        if (argument == null || !DUMPSYS_ARGUMENT.matcher(argument).matches()) {
+            throw new IllegalArgumentException("Invalid dumpsys argument: " + argument);
+        }
+        return argument;
+    }
+}
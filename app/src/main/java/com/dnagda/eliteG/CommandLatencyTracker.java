@@ -0,0 +1,97 @@
+package com.dnagda.eliteG;
+
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learns how long each kind of command takes and derives its timeout from that: the p99 of
+ * recent runs times {@link #TIMEOUT_FACTOR}, between {@link Constants#ADB_COMMAND_MIN_TIMEOUT_MS}
+ * and {@link Constants#ADB_COMMAND_MAX_TIMEOUT_MS}. Until enough runs were seen the default
+ * {@link Constants#ADB_COMMAND_TIMEOUT_MS} applies.
+ *
+ * A hung "settings put" is then given up on after a fraction of a second, while a "dumpsys
+ * meminfo" that times out counts as a run of at least the timeout, so its next timeout grows
+ * instead of cutting it off again.
+ */
+final class CommandLatencyTracker {
+    private static final String TAG = "CommandLatency";
+
+    static final int WINDOW = 64;
+    static final int MIN_SAMPLES = 8;
+    static final int TIMEOUT_FACTOR = 3;
+    static final String METRIC_TIMEOUTS = "command_timeouts";
+
+    private static final class Window {
+        final long[] samples = new long[WINDOW];
+        int next;
+        int size;
+
+        synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % WINDOW;
+            size = Math.min(size + 1, WINDOW);
+        }
+
+        synchronized long percentile(int percent) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percent / 100.0 * size) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Timeout for the next run of a command
+     */
+    long getTimeoutMs(Cmd command) {
+        Window window = windows.get(getType(command));
+        if (window == null || window.size() < MIN_SAMPLES) {
+            return Constants.ADB_COMMAND_TIMEOUT_MS;
+        }
+        long timeout = window.percentile(99) * TIMEOUT_FACTOR;
+        return Math.max(Constants.ADB_COMMAND_MIN_TIMEOUT_MS, Math.min(Constants.ADB_COMMAND_MAX_TIMEOUT_MS, timeout));
+    }
+
+    /**
+     * Record how long a finished run took
+     */
+    void record(Cmd command, long latencyMs) {
+        String type = getType(command);
+        windows.computeIfAbsent(type, key -> new Window()).add(latencyMs);
+        PerformanceMonitor.recordMetric("command_latency." + type, latencyMs);
+    }
+
+    /**
+     * Record a run that was given up on after {@code timeoutMs}
+     */
+    void recordTimeout(Cmd command, long timeoutMs) {
+        String type = getType(command);
+        // All we know is that it takes at least this long
+        windows.computeIfAbsent(type, key -> new Window()).add(timeoutMs);
+        PerformanceMonitor.recordMetric(METRIC_TIMEOUTS, 1);
+        PerformanceMonitor.recordMetric(METRIC_TIMEOUTS + "." + type, timeoutMs);
+        Logger.w(TAG, command + " timed out after " + timeoutMs + "ms");
+    }
+
+    /**
+     * Commands of one type share a latency distribution, e.g. "settings put", "wm size"
+     * or "dumpsys meminfo query". Every property read is a "getprop query". Reads are kept
+     * apart from writes, so a fast "wm size" query can't shrink the timeout of a resize.
+     */
+    static String getType(Cmd command) {
+        String[] argv = command.getArgv();
+        String type = argv.length > 1 && !"getprop".equals(argv[0]) ? argv[0] + " " + argv[1] : argv[0];
+        return command.isReadOnly() ? type + " query" : type;
+    }
+}
@@ -0,0 +1,176 @@
+package com.dnagda.eliteG;
+
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A set of commands with ordering constraints. Commands that don't depend on each other run
+ * at the same time; a command runs only after every command it depends on succeeded, and is
+ * cancelled if one of them failed or was cancelled.
+ *
+ * A command can only depend on commands added before it, so a plan never has a cycle.
+ */
+public final class CommandPlan {
+    private static final String TAG = "CommandPlan";
+
+    static final String METRIC_PLAN_TIME = "command_plan.total_ms";
+
+    public enum Status { SUCCEEDED, FAILED, CANCELLED }
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * A command in the plan, used to declare what runs after it
+     */
+    public static final class Node {
+        final int index;
+        final String name;
+        final Cmd command;
+        final Node[] after;
+
+        private Node(int index, String name, Cmd command, Node[] after) {
+            this.index = index;
+            this.name = name;
+            this.command = command;
+            this.after = after;
+        }
+    }
+
+    /**
+     * Outcome of one command. Times are relative to the start of the plan; a cancelled
+     * command has no result and zero times.
+     */
+    public static final class NodeReport {
+        public final String name;
+        public final Status status;
+        public final ExecuteADBCommands.CommandResult result;
+        public final long startMs;
+        public final long durationMs;
+
+        NodeReport(String name, Status status, ExecuteADBCommands.CommandResult result, long startMs, long durationMs) {
+            this.name = name;
+            this.status = status;
+            this.result = result;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + status + (status == Status.CANCELLED ? "" : " @" + startMs + "+" + durationMs + "ms");
+        }
+    }
+
+    /**
+     * Outcome of every command, in the order they were added
+     */
+    public static final class Report {
+        public final List<NodeReport> nodes;
+        public final long totalMs;
+
+        Report(List<NodeReport> nodes, long totalMs) {
+            this.nodes = Collections.unmodifiableList(nodes);
+            this.totalMs = totalMs;
+        }
+
+        public boolean isSuccess() {
+            for (NodeReport node : nodes) {
+                if (node.status != Status.SUCCEEDED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public NodeReport get(String name) {
+            for (NodeReport node : nodes) {
+                if (node.name.equals(name)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return nodes + " in " + totalMs + "ms";
+        }
+    }
+
+    /**
+     * Add a command that runs after all of {@code after} succeeded
+     */
+    public Node add(String name, Cmd command, Node... after) {
+        for (Node dependency : after) {
+            if (dependency.index >= nodes.size() || nodes.get(dependency.index) != dependency) {
+                throw new IllegalArgumentException(name + " depends on a command not in this plan");
+            }
+        }
+        Node node = new Node(nodes.size(), name, command, after.clone());
+        nodes.add(node);
+        return node;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Run the plan in the critical command lane and wait for every command to finish or be cancelled.
+     * Must not be called on the main thread.
+     */
+    public Report execute() {
+        return execute(ExecuteADBCommands::executeWithResult, ExecuteADBCommands.getExecutor(CommandScheduler.Lane.CRITICAL));
+    }
+
+    Report execute(Function<Cmd, ExecuteADBCommands.CommandResult> runner, Executor executor) {
+        long planStart = SystemClock.elapsedRealtime();
+        List<CompletableFuture<NodeReport>> futures = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            CompletableFuture<?>[] dependencies = new CompletableFuture<?>[node.after.length];
+            for (int i = 0; i < node.after.length; i++) {
+                dependencies[i] = futures.get(node.after[i].index);
+            }
+            CompletableFuture<NodeReport> future = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+                for (CompletableFuture<?> dependency : dependencies) {
+                    if (((NodeReport) dependency.join()).status != Status.SUCCEEDED) {
+                        return new NodeReport(node.name, Status.CANCELLED, null, 0, 0);
+                    }
+                }
+                long start = SystemClock.elapsedRealtime();
+                ExecuteADBCommands.CommandResult result;
+                try {
+                    result = runner.apply(node.command);
+                } catch (RuntimeException e) {
+                    result = new ExecuteADBCommands.CommandResult(false, -1, "", String.valueOf(e.getMessage()));
+                }
+                long end = SystemClock.elapsedRealtime();
+                return new NodeReport(node.name, result.success ? Status.SUCCEEDED : Status.FAILED,
+                        result, start - planStart, end - start);
+            }, executor);
+            futures.add(future);
+        }
+
+        List<NodeReport> reports = new ArrayList<>(futures.size());
+        for (CompletableFuture<NodeReport> future : futures) {
+            reports.add(future.join());
+        }
+        Report report = new Report(reports, SystemClock.elapsedRealtime() - planStart);
+        PerformanceMonitor.recordMetric(METRIC_PLAN_TIME, report.totalMs);
+        if (report.isSuccess()) {
+            Logger.d(TAG, "Plan done: " + report);
+        } else {
+            Logger.w(TAG, "Plan failed: " + report);
+        }
+        return report;
+    }
+}
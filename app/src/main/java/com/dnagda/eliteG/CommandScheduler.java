@@ -0,0 +1,169 @@
+package com.dnagda.eliteG;
+
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs command work in priority lanes on a small shared set of threads. Whenever a thread is
+ * free, queued critical work starts before queued background work, and background work can
+ * never hold more than {@link Lane#BACKGROUND}'s share of the threads, so a burst of
+ * diagnostics can't delay a launch or a restore.
+ *
+ * How long each task waited for a thread is recorded per lane.
+ */
+public final class CommandScheduler {
+    private static final String TAG = "CommandScheduler";
+
+    static final int MAX_THREADS = 4;
+    private static final long SLOW_WAIT_MS = 100;
+
+    /**
+     * Lanes in priority order, with how many of their tasks may run at once
+     */
+    public enum Lane {
+        /** Work the user is waiting for: launch-path display changes, restore */
+        CRITICAL(MAX_THREADS),
+        /** Permission checks, device info, dumpsys */
+        BACKGROUND(2);
+
+        final int maxRunning;
+        final String waitMetric;
+
+        Lane(int maxRunning) {
+            this.maxRunning = maxRunning;
+            this.waitMetric = "command_scheduler." + name().toLowerCase(Locale.ROOT) + ".wait_ms";
+        }
+    }
+
+    private static final class Task {
+        final Lane lane;
+        final Runnable runnable;
+        final long queuedAt;
+
+        Task(Lane lane, Runnable runnable, long queuedAt) {
+            this.lane = lane;
+            this.runnable = runnable;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final Executor threads;
+    private final LongSupplier clock;
+    private final Object lock = new Object();
+    private final List<ArrayDeque<Task>> queues = new ArrayList<>();
+    private final int[] running = new int[Lane.values().length];
+    private int totalRunning;
+    private boolean shutdown;
+
+    CommandScheduler() {
+        this(Executors.newFixedThreadPool(MAX_THREADS, r -> {
+            Thread thread = new Thread(r, "ADB-Command-" + System.currentTimeMillis());
+            thread.setDaemon(true);
+            return thread;
+        }), SystemClock::elapsedRealtime);
+    }
+
+    CommandScheduler(Executor threads, LongSupplier clock) {
+        this.threads = threads;
+        this.clock = clock;
+        for (int i = 0; i < Lane.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Executor that queues work in the given lane
+     */
+    Executor lane(Lane lane) {
+        return runnable -> submit(lane, runnable);
+    }
+
+    void submit(Lane lane, Runnable runnable) {
+        synchronized (lock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Command scheduler is shut down");
+            }
+            queues.get(lane.ordinal()).addLast(new Task(lane, runnable, clock.getAsLong()));
+            dispatch();
+        }
+    }
+
+    /**
+     * Number of tasks in a lane waiting for a thread
+     */
+    int getQueued(Lane lane) {
+        synchronized (lock) {
+            return queues.get(lane.ordinal()).size();
+        }
+    }
+
+    /**
+     * Drop queued work and stop the threads, waiting up to {@code timeoutMs} for running work
+     */
+    void shutdown(long timeoutMs) throws InterruptedException {
+        int dropped = 0;
+        synchronized (lock) {
+            shutdown = true;
+            for (ArrayDeque<Task> queue : queues) {
+                dropped += queue.size();
+                queue.clear();
+            }
+        }
+        if (dropped > 0) {
+            Logger.w(TAG, "Dropped " + dropped + " queued commands on shutdown");
+        }
+        if (threads instanceof ExecutorService) {
+            ExecutorService service = (ExecutorService) threads;
+            service.shutdown();
+            if (!service.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                Logger.w(TAG, "Commands still running after shutdown, interrupting");
+                service.shutdownNow();
+            }
+        }
+    }
+
+    // Start as many queued tasks as the limits allow, highest lane first. Holds lock.
+    private void dispatch() {
+        for (Lane lane : Lane.values()) {
+            ArrayDeque<Task> queue = queues.get(lane.ordinal());
+            while (!queue.isEmpty() && totalRunning < MAX_THREADS && running[lane.ordinal()] < lane.maxRunning) {
+                Task task = queue.pollFirst();
+                running[lane.ordinal()]++;
+                totalRunning++;
+                threads.execute(() -> run(task));
+            }
+        }
+    }
+
+    private void run(Task task) {
+        long waited = clock.getAsLong() - task.queuedAt;
+        PerformanceMonitor.recordMetric(task.lane.waitMetric, waited);
+        if (waited > SLOW_WAIT_MS) {
+            Logger.w(TAG, task.lane + " command waited " + waited + "ms for a thread");
+        }
+        try {
+            task.runnable.run();
+        } finally {
+            synchronized (lock) {
+                running[task.lane.ordinal()]--;
+                totalRunning--;
+                if (!shutdown) {
+                    dispatch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.dnagda.eliteG;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.hardware.display.DisplayManager;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.util.DisplayMetrics;
+import android.view.Display;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known value of every system setting and display override EliteG reads or writes, so
+ * a write of the value the device already has can be skipped instead of starting a process
+ * (and, for display changes, reconfiguring every app).
+ *
+ * Values are learned from command output and successful writes. Changes made by anyone else
+ * are picked up through a settings ContentObserver and a display listener; a value that
+ * can't be confirmed is forgotten, which only means the next write runs.
+ */
+final class DeviceStateModel {
+    private static final String TAG = "DeviceStateModel";
+
+    static final String METRIC_HITS = "device_state.hits";
+    static final String METRIC_MISSES = "device_state.misses";
+    static final String METRIC_SKIPPED = "device_state.skipped_writes";
+
+    static final String KEY_WM_SIZE = "wm size";
+    static final String KEY_WM_DENSITY = "wm density";
+    static final String RESET_VALUE = "reset";
+    private static final String UNSET_VALUE = "null"; // What "settings get" prints for a missing key
+    private static final String OVERRIDE_SIZE = "Override size:";
+    private static final String OVERRIDE_DENSITY = "Override density:";
+
+    private final Map<String, String> known = new ConcurrentHashMap<>();
+    private boolean observing;
+
+    /**
+     * Whether a write would leave the device as it is. Counts hits, misses and skipped writes.
+     */
+    boolean isRedundant(Cmd write) {
+        String[] argv = write.getArgv();
+        String key = getKey(argv);
+        String value = getWrittenValue(argv);
+        if (key == null || value == null) {
+            return false;
+        }
+        String current = known.get(key);
+        if (current == null) {
+            PerformanceMonitor.recordMetric(METRIC_MISSES, 1);
+            return false;
+        }
+        PerformanceMonitor.recordMetric(METRIC_HITS, 1);
+        if (!current.equals(value)) {
+            return false;
+        }
+        PerformanceMonitor.recordMetric(METRIC_SKIPPED, 1);
+        Logger.d(TAG, "Skipping " + write + ", already " + current);
+        return true;
+    }
+
+    /**
+     * Learn from a command that ran: the value a read printed or a write set.
+     * A failed write leaves the value unknown.
+     */
+    void onResult(Cmd command, ExecuteADBCommands.CommandResult result) {
+        String[] argv = command.getArgv();
+        String key = getKey(argv);
+        if (key == null) {
+            return;
+        }
+        String value = command.isReadOnly()
+                ? (result.success ? getReadValue(argv, result.output) : null)
+                : (result.success ? getWrittenValue(argv) : null);
+        if (value != null) {
+            known.put(key, value);
+        } else {
+            known.remove(key);
+        }
+    }
+
+    void clear() {
+        known.clear();
+    }
+
+    /**
+     * Follow changes made outside EliteG. Registers once; later calls return at once.
+     * May be called on any thread, display changes are delivered on the main thread.
+     */
+    synchronized void observe(Context context) {
+        if (observing) {
+            return;
+        }
+        observing = true;
+        ContentResolver resolver = context.getContentResolver();
+        ContentObserver observer = new ContentObserver(null) {
+            @Override
+            public void onChange(boolean selfChange, Uri uri) {
+                onSettingChanged(resolver, uri);
+            }
+        };
+        resolver.registerContentObserver(Settings.Global.CONTENT_URI, true, observer);
+        resolver.registerContentObserver(Settings.Secure.CONTENT_URI, true, observer);
+        resolver.registerContentObserver(Settings.System.CONTENT_URI, true, observer);
+
+        DisplayManager displayManager = (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+        if (displayManager != null) {
+            displayManager.registerDisplayListener(new DisplayManager.DisplayListener() {
+                @Override
+                public void onDisplayAdded(int displayId) {
+                }
+
+                @Override
+                public void onDisplayRemoved(int displayId) {
+                }
+
+                @Override
+                public void onDisplayChanged(int displayId) {
+                    if (displayId == Display.DEFAULT_DISPLAY) {
+                        onDisplayChangedTo(displayManager.getDisplay(displayId));
+                    }
+                }
+            }, new Handler(Looper.getMainLooper()));
+        }
+    }
+
+    private void onSettingChanged(ContentResolver resolver, Uri uri) {
+        List<String> segments = uri != null ? uri.getPathSegments() : null;
+        if (segments == null || segments.size() < 2) {
+            // Can't tell which setting changed
+            known.keySet().removeIf(key -> key.startsWith("settings "));
+            return;
+        }
+        String namespace = segments.get(0);
+        String name = segments.get(1);
+        String key = "settings " + namespace + " " + name;
+        if (!known.containsKey(key)) {
+            return;
+        }
+        String value;
+        switch (namespace) {
+            case "global":
+                value = Settings.Global.getString(resolver, name);
+                break;
+            case "secure":
+                value = Settings.Secure.getString(resolver, name);
+                break;
+            case "system":
+                value = Settings.System.getString(resolver, name);
+                break;
+            default:
+                known.remove(key);
+                return;
+        }
+        known.put(key, value != null ? value : UNSET_VALUE);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void onDisplayChangedTo(Display display) {
+        if (display == null) {
+            known.remove(KEY_WM_SIZE);
+            known.remove(KEY_WM_DENSITY);
+            return;
+        }
+        DisplayMetrics metrics = new DisplayMetrics();
+        display.getRealMetrics(metrics);
+        // Our own changes show up here too; keep what still matches the display
+        if (!matchesSize(known.get(KEY_WM_SIZE), metrics.widthPixels, metrics.heightPixels)) {
+            known.remove(KEY_WM_SIZE);
+        }
+        if (!String.valueOf(metrics.densityDpi).equals(known.get(KEY_WM_DENSITY))) {
+            known.remove(KEY_WM_DENSITY);
+        }
+    }
+
+    /**
+     * Whether a "WIDTHxHEIGHT" override is what the display shows, in either orientation
+     */
+    static boolean matchesSize(String size, int width, int height) {
+        if (size == null) {
+            return false;
+        }
+        int separator = size.indexOf('x');
+        if (separator <= 0) {
+            return false; // Reset: the physical size is not known here
+        }
+        try {
+            int knownWidth = Integer.parseInt(size.substring(0, separator));
+            int knownHeight = Integer.parseInt(size.substring(separator + 1));
+            return Math.min(knownWidth, knownHeight) == Math.min(width, height)
+                    && Math.max(knownWidth, knownHeight) == Math.max(width, height);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Model key of the setting or display property a command reads or writes, or null
+     */
+    static String getKey(String[] argv) {
+        if ("settings".equals(argv[0]) && argv.length >= 4) {
+            return "settings " + argv[2] + " " + argv[3];
+        }
+        if ("wm".equals(argv[0]) && argv.length >= 2) {
+            if ("size".equals(argv[1])) {
+                return KEY_WM_SIZE;
+            }
+            if ("density".equals(argv[1])) {
+                return KEY_WM_DENSITY;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Value a write leaves behind, in the form a read reports it, or null for other commands
+     */
+    static String getWrittenValue(String[] argv) {
+        if ("settings".equals(argv[0])) {
+            if ("put".equals(argv[1]) && argv.length >= 5) {
+                return argv[4];
+            }
+            return "delete".equals(argv[1]) ? UNSET_VALUE : null;
+        }
+        if ("wm".equals(argv[0]) && argv.length >= 3) {
+            return argv[2];
+        }
+        return null;
+    }
+
+    /**
+     * Value a read printed, in the form a write sets it
+     */
+    static String getReadValue(String[] argv, String output) {
+        if ("settings".equals(argv[0])) {
+            return output.trim();
+        }
+        String prefix = KEY_WM_SIZE.equals(getKey(argv)) ? OVERRIDE_SIZE : OVERRIDE_DENSITY;
+        for (String line : output.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length()).trim();
+            }
+        }
+        return RESET_VALUE; // No override
+    }
+}
@@ -4,6 +4,9 @@ import android.app.Application;
 import android.content.Context;
 import android.os.StrictMode;
 
+import com.dnagda.eliteG.session.SessionAgent;
+import com.dnagda.eliteG.startup.StartupTiming;
+import com.dnagda.eliteG.utils.CacheManager;
 import com.dnagda.eliteG.utils.CrashHandler;
 import com.dnagda.eliteG.utils.Logger;
 import com.dnagda.eliteG.utils.PerformanceMonitor;
@@ -20,18 +23,27 @@ public class EliteGApplication extends Application {
     public void onCreate() {
         super.onCreate();
         Logger.d(TAG, "EliteG Application starting...");
+
+        // Both processes run commands; the observers are registered by the first one
+        ExecuteADBCommands.trackDeviceState(this);
+        
+        // The :agent process only hosts SessionAgentService, keep it lean.
+        // InitializationProvider only runs in the main process, so install the crash handler here.
+        if (SessionAgent.isAgentProcess()) {
+            CrashHandler.install(this);
+            Logger.d(TAG, "Session agent process started");
+            return;
+        }
         
-        // Install global crash handler
-        CrashHandler.install(this);
+        // The crash handler is installed by CrashHandlerInitializer before this point;
+        // performance checks are deferred until after the first frame (DeferredInitializers)
         
         // Enable StrictMode in debug builds for development
         if (BuildConfig.DEBUG) {
             enableStrictMode();
         }
         
-        // Initialize performance monitoring
-        initializePerformanceMonitoring();
-        
+        StartupTiming.milestone("application_created");
         Logger.d(TAG, "EliteG Application initialized successfully");
     }
     
@@ -59,27 +71,6 @@ public class EliteGApplication extends Application {
         Logger.d(TAG, "StrictMode enabled for debugging");
     }
     
-    /**
-     * Initialize performance monitoring
-     */
-    private void initializePerformanceMonitoring() {
-        // Log memory usage at startup
-        Logger.logMemoryUsage("Application startup");
-        
-        // Check device performance capabilities
-        boolean isPerformanceAdequate = PerformanceMonitor.isDevicePerformanceAdequate(this);
-        Logger.d(TAG, "Device performance adequate: " + isPerformanceAdequate);
-        
-        // Start frame rate monitoring if supported
-        PerformanceMonitor.startFrameRateMonitoring();
-        
-        // Check if we're recovering from a crash
-        int crashCount = CrashHandler.getCrashCount(this);
-        if (crashCount > 0) {
-            Logger.w(TAG, "App recovered from " + crashCount + " recent crashes");
-        }
-    }
-    
     @Override
     protected void attachBaseContext(Context base) {
         super.attachBaseContext(base);
@@ -105,8 +96,9 @@ public class EliteGApplication extends Application {
         Logger.w(TAG, "Low memory warning received");
         Logger.logMemoryUsage("Low memory warning");
         
-        // Force garbage collection
-        System.gc();
+        // Release every cache tier
+        long freed = CacheManager.onLowMemory();
+        Logger.w(TAG, "Released " + freed / 1024 + " kB of caches");
     }
     
     @Override
@@ -114,6 +106,10 @@ public class EliteGApplication extends Application {
         super.onTrimMemory(level);
         Logger.d(TAG, "Memory trim requested, level: " + level);
         
+        // Release cache tiers before the system reclaims memory from the game
+        long freed = CacheManager.onTrimMemory(level);
+        Logger.d(TAG, "Released " + freed / 1024 + " kB of caches at level " + level);
+        
         switch (level) {
             case TRIM_MEMORY_RUNNING_MODERATE:
             case TRIM_MEMORY_RUNNING_LOW:
@@ -122,12 +118,12 @@ public class EliteGApplication extends Application {
                 break;
             case TRIM_MEMORY_UI_HIDDEN:
                 Logger.d(TAG, "UI hidden, app in background");
+                PerformanceMonitor.recordProcessRss(this, PerformanceMonitor.PROCESS_UI);
                 break;
             case TRIM_MEMORY_BACKGROUND:
             case TRIM_MEMORY_MODERATE:
             case TRIM_MEMORY_COMPLETE:
                 Logger.w(TAG, "App in background with memory pressure");
-                // Clear non-essential caches here if any
                 break;
         }
     }
@@ -1,12 +1,16 @@
 package com.dnagda.eliteG;
 
+import com.dnagda.eliteG.session.SessionJournal;
+import com.dnagda.eliteG.utils.CacheManager;
 import com.dnagda.eliteG.utils.Constants;
 import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.ThreadUtils;
 
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.widget.Toast;
 
@@ -20,9 +24,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 /**
@@ -33,9 +39,9 @@ import java.util.regex.Pattern;
 public class ExecuteADBCommands {
     private static final String TAG = "ADBCommands";
     
-    // Thread pool for background ADB operations with proper synchronization
-    private static volatile ExecutorService EXECUTOR;
-    private static final Object EXECUTOR_LOCK = new Object();
+    // Priority lanes for background ADB operations with proper synchronization
+    private static volatile CommandScheduler SCHEDULER;
+    private static final Object SCHEDULER_LOCK = new Object();
     
     // Security: Allowed ADB command prefixes
     private static final Set<String> ALLOWED_COMMANDS = new HashSet<>(Arrays.asList(
@@ -45,6 +51,69 @@ public class ExecuteADBCommands {
     // Pattern for command sanitization
     private static final Pattern DANGEROUS_CHARS = Pattern.compile("[;&|`$<>]");
 
+    // Shares results of identical read-only commands
+    private static final ShellQueryCache QUERY_CACHE = new ShellQueryCache();
+
+    // Last known settings and display values, used to skip writes that change nothing
+    private static final DeviceStateModel DEVICE_STATE = new DeviceStateModel();
+    // Application context, set by trackDeviceState()
+    private static volatile Context deviceStateContext;
+
+    // Observed latency per command type, used to size timeouts
+    private static final CommandLatencyTracker LATENCY = new CommandLatencyTracker();
+
+    private static final CommandResult CANCELLED = new CommandResult(false, -1, "", "Command cancelled");
+
+    /**
+     * The process of a submitted command, destroyed when its future is cancelled
+     */
+    static final class ProcessHandle {
+        private Process process;
+        private Runnable onCancel;
+        private boolean cancelled;
+
+        synchronized boolean attach(Process started) {
+            process = started;
+            return !cancelled;
+        }
+
+        /**
+         * Run {@code action} on cancellation instead of waiting for a process of this handle,
+         * e.g. when sharing another caller's run. False if already cancelled.
+         */
+        synchronized boolean whenCancelled(Runnable action) {
+            if (cancelled) {
+                return false;
+            }
+            onCancel = action;
+            return true;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        void cancel() {
+            Process running;
+            Runnable action;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                running = process;
+                action = onCancel;
+                onCancel = null;
+            }
+            if (running != null) {
+                running.destroyForcibly();
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
     // Prevent instantiation
     private ExecuteADBCommands() {
         throw new AssertionError("ExecuteADBCommands class should not be instantiated");
@@ -59,45 +128,32 @@ public class ExecuteADBCommands {
     }
     
     /**
-     * Get or create executor with thread safety
-     */
-    private static ExecutorService getExecutor() {
-        if (EXECUTOR == null) {
-            synchronized (EXECUTOR_LOCK) {
-                if (EXECUTOR == null) {
-                    EXECUTOR = Executors.newCachedThreadPool(r -> {
-                        Thread thread = new Thread(r, "ADB-Command-" + System.currentTimeMillis());
-                        thread.setDaemon(true);
-                        return thread;
-                    });
+     * Get or create the scheduler lane with thread safety
+     */
+    static Executor getExecutor(CommandScheduler.Lane lane) {
+        if (SCHEDULER == null) {
+            synchronized (SCHEDULER_LOCK) {
+                if (SCHEDULER == null) {
+                    SCHEDULER = new CommandScheduler();
                 }
             }
         }
-        return EXECUTOR;
+        return SCHEDULER.lane(lane);
     }
 
     /**
      * Cleanup resources when app is destroyed with enhanced thread safety
      */
     public static void cleanup() {
-        synchronized (EXECUTOR_LOCK) {
-            if (EXECUTOR != null && !EXECUTOR.isShutdown()) {
-                EXECUTOR.shutdown();
+        synchronized (SCHEDULER_LOCK) {
+            if (SCHEDULER != null) {
                 try {
-                    if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
-                        Logger.w(TAG, "Executor did not terminate gracefully, forcing shutdown");
-                        EXECUTOR.shutdownNow();
-                        
-                        if (!EXECUTOR.awaitTermination(2, TimeUnit.SECONDS)) {
-                            Logger.e(TAG, "Executor did not terminate after forced shutdown");
-                        }
-                    }
+                    SCHEDULER.shutdown(5000);
                 } catch (InterruptedException e) {
-                    Logger.w(TAG, "Interrupted while shutting down executor", e);
-                    EXECUTOR.shutdownNow();
+                    Logger.w(TAG, "Interrupted while shutting down command scheduler", e);
                     Thread.currentThread().interrupt();
                 } finally {
-                    EXECUTOR = null;
+                    SCHEDULER = null;
                 }
             }
         }
@@ -120,6 +176,17 @@ public class ExecuteADBCommands {
         }
     }
 
+    /**
+     * Validate a free-form command and split it into a typed one, or return null if it is unsafe
+     */
+    private static Cmd parse(String command) {
+        if (!isValidCommand(command)) {
+            Logger.e(TAG, "Invalid or unsafe command: " + command);
+            return null;
+        }
+        return new Cmd(command.trim().split("\\s+"));
+    }
+
     /**
      * Validate and sanitize ADB command for security with comprehensive validation
      */
@@ -203,16 +270,6 @@ public class ExecuteADBCommands {
         }
     }
     
-    /**
-     * Sanitize command input
-     */
-    private static String sanitizeCommand(String command) {
-        if (command == null) {
-            return "";
-        }
-        // Remove dangerous characters and trim
-        return DANGEROUS_CHARS.matcher(command.trim()).replaceAll("");
-    }
     // --- End of WriteSettings functionality ---
 
     
@@ -222,7 +279,7 @@ public class ExecuteADBCommands {
     @Deprecated
     public static boolean hasADBPermissions() {
         try {
-            CommandResult result = executeWithResult("dumpsys package " + Constants.APP_PACKAGE_NAME);
+            CommandResult result = executeWithResult(Cmd.dumpsys("package", Constants.APP_PACKAGE_NAME));
             return result.success && result.output.contains("WRITE_SECURE_SETTINGS") 
                 && result.output.contains("granted=true");
         } catch (Exception e) {
@@ -232,27 +289,20 @@ public class ExecuteADBCommands {
     }
     
     /**
-     * Async version of hasADBPermissions
+     * Async version of hasADBPermissions, reporting on the main thread
      */
     public static void hasADBPermissionsAsync(ADBCallback callback) {
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                CommandResult result = executeWithResult(Constants.ADB_COMMAND_SETTINGS_GET);
-                return result;
-            } catch (Exception e) {
-                Logger.e(TAG, "Error checking ADB permissions", e);
-                return new CommandResult(false, -1, "", e.getMessage());
-            }
-        }, EXECUTOR).thenAccept(result -> {
-            if (result.success && result.exitCode == Constants.ERROR_CODE_SUCCESS) {
-                callback.onSuccess(result);
-            } else {
-                callback.onError("ADB permissions not granted");
-            }
-        }).exceptionally(throwable -> {
-            callback.onError("Error checking ADB permissions: " + throwable.getMessage());
-            return null;
-        });
+        onMainThread(submit(Cmd.settingsGet("secure", "android_id"), CommandScheduler.Lane.BACKGROUND))
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        Logger.e(TAG, "Error checking ADB permissions", throwable);
+                        callback.onError("Error checking ADB permissions: " + throwable.getMessage());
+                    } else if (result.success && result.exitCode == Constants.ERROR_CODE_SUCCESS) {
+                        callback.onSuccess(result);
+                    } else {
+                        callback.onError("ADB permissions not granted");
+                    }
+                });
     }
 
     /**
@@ -292,11 +342,68 @@ public class ExecuteADBCommands {
      * Execute multiple ADB commands asynchronously
      */
     public static void executeAsync(List<String> commands, ADBCallback callback) {
+        List<Cmd> parsed = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            Cmd cmd = parse(command);
+            if (cmd == null) {
+                callback.onError("Invalid or unsafe command: " + command);
+                return;
+            }
+            parsed.add(cmd);
+        }
+        executeAllAsync(parsed, callback);
+    }
+
+    /**
+     * Execute a typed command
+     */
+    public static boolean execute(Cmd command) {
+        return executeAll(Collections.singletonList(command));
+    }
+
+    /**
+     * Execute typed commands in order, continuing after a failure
+     */
+    public static boolean executeAll(List<Cmd> commands) {
+        boolean overallSuccess = true;
+        
+        for (Cmd command : commands) {
+            CommandResult result = executeWithResult(command);
+            if (!result.success) {
+                overallSuccess = false;
+                Logger.e(TAG, "Command failed: " + command + " | Exit code: " + result.exitCode + " | Error: " + result.error);
+            } else {
+                Logger.d(TAG, "Command succeeded: " + command);
+            }
+        }
+        
+        return overallSuccess;
+    }
+
+    /**
+     * Execute a typed command asynchronously
+     */
+    public static void executeAsync(Cmd command, ADBCallback callback) {
+        executeAllAsync(Collections.singletonList(command), callback);
+    }
+
+    /**
+     * Execute typed commands in order asynchronously. Batches that only read run in the
+     * background lane; anything that changes the device runs in the critical lane.
+     */
+    public static void executeAllAsync(List<Cmd> commands, ADBCallback callback) {
+        executeAllAsync(commands, getLane(commands), callback);
+    }
+
+    /**
+     * Execute typed commands in order asynchronously in the given scheduler lane
+     */
+    public static void executeAllAsync(List<Cmd> commands, CommandScheduler.Lane lane, ADBCallback callback) {
         CompletableFuture.supplyAsync(() -> {
             boolean overallSuccess = true;
             StringBuilder errorMessages = new StringBuilder();
             CommandResult lastResult = null;
-            for (String command : commands) {
+            for (Cmd command : commands) {
                 CommandResult result = executeWithResult(command);
                 lastResult = result;
                 if (!result.success) {
@@ -313,7 +420,7 @@ public class ExecuteADBCommands {
             } else {
                 return new CommandResult(false, -1, "", errorMessages.toString());
             }
-        }, EXECUTOR).thenAccept(result -> {
+        }, getExecutor(lane)).thenAccept(result -> {
             if (result.success) {
                 callback.onSuccess(result);
             } else {
@@ -325,31 +432,211 @@ public class ExecuteADBCommands {
         });
     }
 
+    private static CommandScheduler.Lane getLane(List<Cmd> commands) {
+        for (Cmd command : commands) {
+            if (!command.isReadOnly()) {
+                return CommandScheduler.Lane.CRITICAL;
+            }
+        }
+        return CommandScheduler.Lane.BACKGROUND;
+    }
+
+    /**
+     * Run a command in the background. Read-only commands use the background lane, others the
+     * critical lane. Cancelling the future skips the command if it hasn't started and destroys
+     * its process if it has. A read shared with identical queries keeps running until all of
+     * their futures are cancelled.
+     */
+    public static CompletableFuture<CommandResult> submit(Cmd command) {
+        return submit(command, command.isReadOnly() ? CommandScheduler.Lane.BACKGROUND : CommandScheduler.Lane.CRITICAL);
+    }
+
+    /**
+     * Run a command in the given scheduler lane, see {@link #submit(Cmd)}
+     */
+    public static CompletableFuture<CommandResult> submit(Cmd command, CommandScheduler.Lane lane) {
+        return submit(command, getExecutor(lane), ExecuteADBCommands::executeWithResult);
+    }
+
+    /**
+     * Run a command with {@code runner} on {@code executor}, see {@link #submit(Cmd)}
+     */
+    static CompletableFuture<CommandResult> submit(Cmd command, Executor executor,
+                                                   BiFunction<Cmd, ProcessHandle, CommandResult> runner) {
+        ProcessHandle handle = new ProcessHandle();
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                handle.cancel();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // Cancelled while queued
+                }
+                try {
+                    future.complete(runner.apply(command, handle));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run commands at the same time. Completes with their results in the given order once all
+     * of them finished; cancelling it cancels every command. Use a {@link CommandPlan} when
+     * commands must run in order.
+     */
+    public static CompletableFuture<List<CommandResult>> submitAll(List<Cmd> commands) {
+        return submitAll(commands, ExecuteADBCommands::submit);
+    }
+
+    /**
+     * Run commands at the same time with {@code submitter}, see {@link #submitAll(List)}
+     */
+    static CompletableFuture<List<CommandResult>> submitAll(List<Cmd> commands,
+                                                            Function<Cmd, CompletableFuture<CommandResult>> submitter) {
+        List<CompletableFuture<CommandResult>> futures = new ArrayList<>(commands.size());
+        for (Cmd command : commands) {
+            futures.add(submitter.apply(command));
+        }
+        CompletableFuture<List<CommandResult>> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<CommandResult> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<CommandResult> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+        all.whenComplete((results, throwable) -> {
+            if (all.isCancelled()) {
+                for (CompletableFuture<CommandResult> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return all;
+    }
+
+    /**
+     * The outcome of {@code future}, completed on the main thread so dependent stages can
+     * touch views and LiveData. Cancelling the returned future cancels {@code future}.
+     */
+    public static <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future) {
+        CompletableFuture<T> delivered = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> ThreadUtils.executeOnMainThread(() -> {
+            if (throwable != null) {
+                delivered.completeExceptionally(throwable);
+            } else {
+                delivered.complete(result);
+            }
+        }));
+        delivered.whenComplete((result, throwable) -> {
+            if (delivered.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return delivered;
+    }
+
     /**
      * Execute a command and return detailed result
      */
     public static CommandResult executeWithResult(String command) {
-        // Validate and sanitize command
-        if (!isValidCommand(command)) {
-            String error = "Invalid or unsafe command: " + command;
-            Logger.e(TAG, error);
-            return new CommandResult(false, -1, "", error);
+        Cmd cmd = parse(command);
+        if (cmd == null) {
+            return new CommandResult(false, -1, "", "Invalid or unsafe command: " + command);
         }
-        
-        String sanitizedCommand = sanitizeCommand(command);
-        Logger.logAdbCommand(sanitizedCommand);
+        return executeWithResult(cmd);
+    }
+
+    /**
+     * Execute a typed command and return detailed result. Read-only commands go through
+     * the query cache; a write of the value the device already has succeeds without running,
+     * and other commands drop the cached results they may change.
+     */
+    public static CommandResult executeWithResult(Cmd command) {
+        return executeWithResult(command, null);
+    }
+
+    private static CommandResult executeWithResult(Cmd command, ProcessHandle handle) {
+        boolean trackState = observeDeviceState();
+        if (command.isReadOnly()) {
+            CommandResult result = QUERY_CACHE.query(command, handle, ExecuteADBCommands::run);
+            if (trackState) {
+                DEVICE_STATE.onResult(command, result);
+            }
+            return result;
+        }
+        if (trackState && DEVICE_STATE.isRedundant(command)) {
+            return new CommandResult(true, 0, "", "");
+        }
+        CommandResult result = run(command, handle);
+        QUERY_CACHE.invalidate(command);
+        if (trackState) {
+            DEVICE_STATE.onResult(command, result);
+        }
+        return result;
+    }
+
+    /**
+     * Let commands keep the known device state and skip redundant writes. Only stores the
+     * context: the observers that keep the state in sync with changes made outside EliteG
+     * are registered by the first command, so a process that runs none pays nothing.
+     */
+    public static void trackDeviceState(Context context) {
+        deviceStateContext = context.getApplicationContext();
+    }
+
+    /**
+     * Register the device state observers on first use. The state is only used once they
+     * are registered, so it never misses a change made outside EliteG.
+     */
+    private static boolean observeDeviceState() {
+        Context context = deviceStateContext;
+        if (context == null) {
+            return false;
+        }
+        DEVICE_STATE.observe(context);
+        return true;
+    }
+
+    /**
+     * Run a command in a new process. The command was validated when it was built,
+     * so it runs as is without going through a shell. It is given up on after a timeout
+     * learned from earlier runs of the same kind of command.
+     */
+    private static CommandResult run(Cmd command, ProcessHandle handle) {
+        String commandText = command.toString();
+        Logger.logAdbCommand(commandText);
         
         Process process = null;
+        long timeoutMs = LATENCY.getTimeoutMs(command);
         try {
-            process = Runtime.getRuntime().exec(sanitizedCommand);
+            long start = SystemClock.elapsedRealtime();
+            process = Runtime.getRuntime().exec(command.getArgv());
+            if (handle != null && !handle.attach(process)) {
+                return CANCELLED;
+            }
             
             // Set timeout for command execution
-            boolean finished = process.waitFor(Constants.ADB_COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            boolean finished = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
             
+            if (handle != null && handle.isCancelled()) {
+                Logger.d(TAG, "Command cancelled: " + commandText);
+                return CANCELLED;
+            }
             if (!finished) {
-                Logger.e(TAG, "Command timed out: " + sanitizedCommand);
-                return new CommandResult(false, -1, "", "Command timed out");
+                LATENCY.recordTimeout(command, timeoutMs);
+                Logger.e(TAG, "Command timed out: " + commandText);
+                return new CommandResult(false, -1, "", "Command timed out after " + timeoutMs + "ms");
             }
+            LATENCY.record(command, SystemClock.elapsedRealtime() - start);
             
             // Read output streams with proper resource management
             String output = readStream(process.getInputStream());
@@ -357,19 +644,19 @@ public class ExecuteADBCommands {
             int exitCode = process.exitValue();
             
             boolean success = exitCode == Constants.ERROR_CODE_SUCCESS;
-            Logger.logAdbResult(sanitizedCommand, exitCode, output);
+            Logger.logAdbResult(commandText, exitCode, output);
             
             return new CommandResult(success, exitCode, output, error);
             
         } catch (IOException e) {
-            Logger.e(TAG, "IOException executing command: " + sanitizedCommand, e);
+            Logger.e(TAG, "IOException executing command: " + commandText, e);
             return new CommandResult(false, -1, "", e.getMessage());
         } catch (InterruptedException e) {
-            Logger.e(TAG, "InterruptedException executing command: " + sanitizedCommand, e);
+            Logger.e(TAG, "InterruptedException executing command: " + commandText, e);
             Thread.currentThread().interrupt();
             return new CommandResult(false, -1, "", e.getMessage());
         } catch (SecurityException e) {
-            Logger.e(TAG, "SecurityException executing command: " + sanitizedCommand, e);
+            Logger.e(TAG, "SecurityException executing command: " + commandText, e);
             return new CommandResult(false, -1, "", "Security error: " + e.getMessage());
         } finally {
             // Properly cleanup process resources
@@ -422,8 +709,7 @@ public class ExecuteADBCommands {
             Logger.e(TAG, "Invalid resolution dimensions: " + width + "x" + height);
             return false;
         }
-        String command = Constants.ADB_COMMAND_WM_SIZE + " " + width + "x" + height;
-        return execute(command);
+        return execute(Cmd.wmSize(width, height));
     }
     
     /**
@@ -434,22 +720,43 @@ public class ExecuteADBCommands {
             callback.onError("Invalid resolution dimensions: " + width + "x" + height);
             return;
         }
-        String command = Constants.ADB_COMMAND_WM_SIZE + " " + width + "x" + height;
-        executeAsync(command, callback);
+        executeAsync(Cmd.wmSize(width, height), callback);
+    }
+
+    /**
+     * Change display size and density together. When scaling down the density changes first,
+     * when scaling up the size does, so the UI is never drawn at a tiny size with a huge
+     * density; the second change is skipped if the first one failed.
+     */
+    public static boolean changeDisplay(int width, int height, int density, boolean scaleDown) {
+        CommandPlan plan = new CommandPlan();
+        try {
+            if (scaleDown) {
+                CommandPlan.Node densityChange = plan.add("density", Cmd.wmDensity(density));
+                plan.add("size", Cmd.wmSize(width, height), densityChange);
+            } else {
+                CommandPlan.Node sizeChange = plan.add("size", Cmd.wmSize(width, height));
+                plan.add("density", Cmd.wmDensity(density), sizeChange);
+            }
+        } catch (IllegalArgumentException e) {
+            Logger.e(TAG, e.getMessage());
+            return false;
+        }
+        return plan.execute().isSuccess();
     }
 
     /**
      * Reset resolution to default
      */
     public static boolean resetResolution() {
-        return execute(Constants.ADB_COMMAND_WM_SIZE_RESET);
+        return execute(Cmd.wmSizeReset());
     }
     
     /**
      * Reset resolution to default asynchronously
      */
     public static void resetResolutionAsync(ADBCallback callback) {
-        executeAsync(Constants.ADB_COMMAND_WM_SIZE_RESET, callback);
+        executeAsync(Cmd.wmSizeReset(), callback);
     }
 
     /**
@@ -460,8 +767,7 @@ public class ExecuteADBCommands {
             Logger.e(TAG, "Invalid density value: " + density);
             return false;
         }
-        String command = Constants.ADB_COMMAND_WM_DENSITY + " " + density;
-        return execute(command);
+        return execute(Cmd.wmDensity(density));
     }
     
     /**
@@ -472,89 +778,88 @@ public class ExecuteADBCommands {
             callback.onError("Invalid density value: " + density);
             return;
         }
-        String command = Constants.ADB_COMMAND_WM_DENSITY + " " + density;
-        executeAsync(command, callback);
+        executeAsync(Cmd.wmDensity(density), callback);
     }
 
     /**
      * Reset density to default
      */
     public static boolean resetDensity() {
-        return execute(Constants.ADB_COMMAND_WM_DENSITY_RESET);
+        return execute(Cmd.wmDensityReset());
     }
     
     /**
      * Reset density to default asynchronously
      */
     public static void resetDensityAsync(ADBCallback callback) {
-        executeAsync(Constants.ADB_COMMAND_WM_DENSITY_RESET, callback);
+        executeAsync(Cmd.wmDensityReset(), callback);
     }
 
     /**
      * Change font scale
      */
     public static boolean changeFontScale(float scale) {
-        String command = Constants.ADB_COMMAND_FONT_SCALE + scale;
-        return execute(command);
+        return execute(Cmd.settingsPut("system", "font_scale", String.valueOf(scale)));
     }
 
     /**
      * Kill all background apps
      */
     public static boolean killBackgroundApps() {
-        return execute(Constants.ADB_COMMAND_KILL_ALL);
+        return execute(Cmd.killAll());
     }
 
     /**
      * Force stop a specific app
      */
     public static boolean forceStopApp(String packageName) {
-        String command = Constants.ADB_COMMAND_FORCE_STOP + packageName;
-        return execute(command);
+        try {
+            return execute(Cmd.forceStop(packageName));
+        } catch (IllegalArgumentException e) {
+            Logger.e(TAG, e.getMessage());
+            return false;
+        }
     }
 
     /**
-     * Apply performance optimizations
+     * Apply performance optimizations, journaling the previous values so
+     * {@link #restorePerformanceSettings(Context)} can put them back
      */
-    public static boolean applyPerformanceOptimizations() {
-        List<String> commands = new ArrayList<>();
+    public static boolean applyPerformanceOptimizations(Context context) {
+        List<SessionJournal.Setting> settings = new ArrayList<>();
         
         // Reduce animations for better performance
-        commands.add(Constants.SETTING_WINDOW_ANIMATION_SCALE + Constants.ANIMATION_SCALE_DISABLED);
-        commands.add(Constants.SETTING_TRANSITION_ANIMATION_SCALE + Constants.ANIMATION_SCALE_DISABLED);
-        commands.add(Constants.SETTING_ANIMATOR_DURATION_SCALE + Constants.ANIMATION_SCALE_DISABLED);
+        String animationScale = String.valueOf(Constants.ANIMATION_SCALE_DISABLED);
+        settings.add(globalSetting(Constants.SETTING_WINDOW_ANIMATION_SCALE, animationScale));
+        settings.add(globalSetting(Constants.SETTING_TRANSITION_ANIMATION_SCALE, animationScale));
+        settings.add(globalSetting(Constants.SETTING_ANIMATOR_DURATION_SCALE, animationScale));
         
         // Optimize memory management
-        commands.add(Constants.SETTING_LOW_POWER_MODE + "0");
+        settings.add(globalSetting(Constants.SETTING_LOW_POWER_MODE, "0"));
         
         // Disable background app refresh for better performance
-        commands.add(Constants.SETTING_BACKGROUND_APP_REFRESH + "1");
+        settings.add(globalSetting(Constants.SETTING_BACKGROUND_APP_REFRESH, "1"));
         
-        return execute(commands);
+        return SessionJournal.apply(context, settings);
     }
 
     /**
-     * Reset performance optimizations to default
+     * Put back the settings changed by {@link #applyPerformanceOptimizations(Context)}
+     * to the values they had before, skipping any that already have them
      */
-    public static boolean resetPerformanceOptimizations() {
-        List<String> commands = new ArrayList<>();
-        
-        // Reset animations to default
-        commands.add(Constants.SETTING_WINDOW_ANIMATION_SCALE + Constants.ANIMATION_SCALE_DEFAULT);
-        commands.add(Constants.SETTING_TRANSITION_ANIMATION_SCALE + Constants.ANIMATION_SCALE_DEFAULT);
-        commands.add(Constants.SETTING_ANIMATOR_DURATION_SCALE + Constants.ANIMATION_SCALE_DEFAULT);
-        
-        // Reset other settings
-        commands.add(Constants.SETTING_BACKGROUND_APP_REFRESH + "0");
-        
-        return execute(commands);
+    public static boolean restorePerformanceSettings(Context context) {
+        return SessionJournal.restore(context);
+    }
+
+    private static SessionJournal.Setting globalSetting(String key, String value) {
+        return new SessionJournal.Setting("global", key, value);
     }
 
     /**
      * Get current resolution as string
      */
     public static String getCurrentResolution() {
-        CommandResult result = executeWithResult(Constants.ADB_COMMAND_WM_SIZE);
+        CommandResult result = executeWithResult(Cmd.wmSizeQuery());
         if (result.success && result.output.contains("Physical size:")) {
             // Use regex split for all platforms
             String[] lines = result.output.split("\\r?\\n");
@@ -572,7 +877,7 @@ public class ExecuteADBCommands {
      * Get current density as string
      */
     public static String getCurrentDensity() {
-        CommandResult result = executeWithResult(Constants.ADB_COMMAND_WM_DENSITY);
+        CommandResult result = executeWithResult(Cmd.wmDensityQuery());
         if (result.success && result.output.contains("Physical density:")) {
             String[] lines = result.output.split("\\r?\\n");
             for (String line : lines) {
@@ -597,7 +902,7 @@ public class ExecuteADBCommands {
      * Get device information
      */
     public static String getDeviceInfo() {
-        CommandResult result = executeWithResult("getprop ro.build.version.release");
+        CommandResult result = executeWithResult(Cmd.getprop("ro.build.version.release"));
         return result.success ? result.output : "Unknown";
     }
 
@@ -606,7 +911,7 @@ public class ExecuteADBCommands {
      */
     public static boolean hasPermission(String permission) {
         // Avoid using | grep, use Java filtering
-        CommandResult result = executeWithResult("dumpsys package " + Constants.APP_PACKAGE_NAME);
+        CommandResult result = executeWithResult(Cmd.dumpsys("package", Constants.APP_PACKAGE_NAME));
         return result.success && result.output.contains(permission) && result.output.contains("granted=true");
     }
 
@@ -648,13 +953,13 @@ public class ExecuteADBCommands {
             CommandResult result = executeWithResult(cmd);
             Logger.d(TAG, "Root permission grant result: " + result.output);
         } else {
-            String cmd = "pm grant " + context.getPackageName() + " android.permission.WRITE_SETTINGS";
-            executeWithResult(cmd);
+            executeWithResult(Cmd.pmGrant(context.getPackageName(), "android.permission.WRITE_SETTINGS"));
         }
     }
 
     // Fix 8: Register shutdown hook for graceful shutdown
     static {
         Runtime.getRuntime().addShutdownHook(new Thread(ExecuteADBCommands::cleanup));
+        CacheManager.register("shell_queries", CacheManager.PRIORITY_LOW, QUERY_CACHE::trim);
     }
 }
\ No newline at end of file
@@ -7,14 +7,17 @@ import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 
+import com.dnagda.eliteG.session.SessionAgent;
 import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.IconCache;
 import com.dnagda.eliteG.utils.Logger;
-import com.dnagda.eliteG.utils.PerformanceUtils;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+import com.dnagda.eliteG.utils.ThreadUtils;
 import com.dnagda.eliteG.utils.UIUtils;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -54,7 +57,7 @@ public class GameAppManager {
 
                 int iconSize = UIUtils.getOptimalIconSize(context);
                 WrappedDrawable wrappedIcon = new WrappedDrawable(
-                    packageInfo.applicationInfo.loadIcon(packageManager), 
+                    loadIcon(packageManager, packageInfo.applicationInfo), 
                     0, 0, iconSize, iconSize
                 );
 
@@ -83,7 +86,7 @@ public class GameAppManager {
             
             int iconSize = UIUtils.getOptimalIconSize(context);
             WrappedDrawable wrappedIcon = new WrappedDrawable(
-                packageManager.getApplicationIcon(appInfo), 
+                loadIcon(packageManager, appInfo), 
                 0, 0, iconSize, iconSize
             );
             String name = packageManager.getApplicationLabel(appInfo).toString();
@@ -97,6 +100,66 @@ public class GameAppManager {
         return null;
     }
 
+    /**
+     * Check whether a package is confirmed to be gone. A failed lookup for any other reason
+     * (e.g. a binder error while the system is busy) does not count as uninstalled.
+     */
+    public static boolean isUninstalled(Context context, String packageName) {
+        try {
+            context.getPackageManager().getApplicationInfo(packageName, 0);
+            return false;
+        } catch (PackageManager.NameNotFoundException e) {
+            return true;
+        } catch (Exception e) {
+            Logger.w(TAG, "Could not check whether " + packageName + " is installed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Get a game app with its name only, for long lists that load icons as items are shown
+     * (see {@link #getIcon}). Returns null if the package can't be read.
+     */
+    public static GameApp getGameAppWithoutIcon(Context context, String packageName) {
+        PackageManager packageManager = context.getPackageManager();
+        try {
+            ApplicationInfo appInfo = packageManager.getApplicationInfo(packageName, 0);
+            return new GameApp(packageManager.getApplicationLabel(appInfo).toString(), null, packageName);
+        } catch (PackageManager.NameNotFoundException e) {
+            Logger.w(TAG, "Package not found: " + packageName);
+        } catch (Exception e) {
+            Logger.e(TAG, "Error getting game app: " + packageName, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get the icon of a game sized for the game list, or null if it can't be loaded. Does I/O.
+     */
+    public static Drawable getIcon(Context context, String packageName) {
+        PackageManager packageManager = context.getPackageManager();
+        try {
+            ApplicationInfo appInfo = packageManager.getApplicationInfo(packageName, 0);
+            int iconSize = UIUtils.getOptimalIconSize(context);
+            return new WrappedDrawable(loadIcon(packageManager, appInfo), 0, 0, iconSize, iconSize);
+        } catch (Exception e) {
+            Logger.w(TAG, "Could not load icon of " + packageName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Load an app icon, reusing the cached bitmap when available
+     */
+    private static Drawable loadIcon(PackageManager packageManager, ApplicationInfo appInfo) {
+        Drawable icon = IconCache.get(appInfo.packageName);
+        if (icon == null) {
+            icon = appInfo.loadIcon(packageManager);
+            IconCache.put(appInfo.packageName, icon);
+        }
+        return icon;
+    }
+
     /**
      * Check if package is a system package
      */
@@ -216,11 +279,13 @@ public class GameAppManager {
     }
 
     /**
-     * Activate performance optimizations
+     * Activate performance optimizations. Journals and runs shell commands, do not call on
+     * the main thread.
      */
-    private static void activatePerformanceOptimizations(MainActivity context) {
+    private static void activatePerformanceOptimizations(Context context) {
         Logger.d(TAG, "Activating performance optimizations");
-        boolean success = ExecuteADBCommands.applyPerformanceOptimizations();
+        // Journals the current values before changing anything
+        boolean success = ExecuteADBCommands.applyPerformanceOptimizations(context);
         
         if (success) {
             Logger.d(TAG, "Performance optimizations applied successfully");
@@ -230,11 +295,14 @@ public class GameAppManager {
     }
 
     /**
-     * Restore original performance settings
+     * Restore original performance settings. Runs shell commands, do not call on the main thread.
      */
-    public static void restoreOriginalPerformanceSettings(MainActivity context) {
+    public static void restoreOriginalPerformanceSettings(Context context) {
         Logger.d(TAG, "Restoring original performance settings");
-        boolean success = ExecuteADBCommands.resetPerformanceOptimizations();
+        SessionAgent.end(context);
+        
+        // Writes back only the journaled settings that still differ
+        boolean success = ExecuteADBCommands.restorePerformanceSettings(context);
         
         if (success) {
             Logger.d(TAG, "Performance settings restored successfully");
@@ -244,70 +312,68 @@ public class GameAppManager {
     }
 
     /**
-     * Launch game app with optimizations
+     * Launch game app with optimizations. The display change and the optimizations run shell
+     * commands on an I/O thread; the game is started on the main thread once they are done.
      */
     public static void launchGameApp(MainActivity context, String packageName) {
         Logger.d(TAG, "Launching game app: " + packageName);
         
-        try {
-            SettingsManager settingsManager = context.settingsManager;
-            int resolutionScale = context.getResolutionScale();
+        SettingsManager settingsManager = context.settingsManager;
+        int resolutionScale = context.getResolutionScale();
 
-            // Save the resolution scale for this session
-            settingsManager.setLastResolutionScale(resolutionScale);
+        // Save the resolution scale for this session
+        settingsManager.setLastResolutionScale(resolutionScale);
 
-            // Apply resolution changes
-            int newWidth = PerformanceUtils.calculateNewWidth(
-                settingsManager.getOriginalWidth(), 
-                context.coefficients[0], 
-                resolutionScale
-            );
-            int newHeight = PerformanceUtils.calculateNewHeight(
-                settingsManager.getOriginalHeight(), 
-                context.coefficients[1], 
-                resolutionScale
-            );
+        // Apply the aligned size of this slider step
+        int newWidth = context.resolutionLadder.getWidth(resolutionScale);
+        int newHeight = context.resolutionLadder.getHeight(resolutionScale);
+        boolean killApps = settingsManager.isMurderer();
+        boolean optimize = settingsManager.isLMKActivated();
+        Context appContext = context.getApplicationContext();
 
+        ThreadUtils.executeIoTask(() -> {
             Logger.d(TAG, "Applying resolution: " + newWidth + "x" + newHeight);
             boolean resolutionSuccess = settingsManager.setScreenDimension(newHeight, newWidth);
-            
-            if (!resolutionSuccess) {
-                Logger.w(TAG, "Failed to apply resolution changes");
-                UIUtils.showToast(context, "Failed to apply resolution changes");
-            }
 
             // Apply performance optimizations
-            if (settingsManager.isMurderer()) {
+            if (killApps) {
                 murderApps(context);
             }
-
-            if (settingsManager.isLMKActivated()) {
-                activatePerformanceOptimizations(context);
+            if (optimize) {
+                activatePerformanceOptimizations(appContext);
             }
 
-            // Create temp file to indicate DPI change
-            File tempFile = new File(context.getApplicationInfo().dataDir + "/" + Constants.TEMP_FILE_NAME);
-            try {
-                tempFile.createNewFile();
-            } catch (Exception e) {
-                Logger.w(TAG, "Could not create temp file", e);
-            }
+            ThreadUtils.executeOnMainThread(() -> {
+                if (!resolutionSuccess) {
+                    Logger.w(TAG, "Failed to apply resolution changes");
+                    UIUtils.showToast(context, "Failed to apply resolution changes");
+                }
+                startGame(context, packageName, resolutionScale);
+            });
+        });
+    }
 
-            // Launch the game
+    /**
+     * Start the game and its session, then finish EliteG
+     */
+    private static void startGame(MainActivity context, String packageName, int resolutionScale) {
+        try {
             Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(packageName);
             if (launchIntent != null) {
                 launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                // Marks the DPI change and starts recording in the :agent process
+                SessionAgent.begin(context, packageName, resolutionScale);
                 context.startActivity(launchIntent);
                 
                 Logger.d(TAG, "Game launched successfully: " + packageName);
                 
                 // Finish the booster app to free memory for the game
+                PerformanceMonitor.recordProcessRss(context, PerformanceMonitor.PROCESS_UI);
                 context.finish();
             } else {
                 Logger.e(TAG, "Could not find launch intent for: " + packageName);
                 UIUtils.showToast(context, "Could not launch game");
             }
-            
         } catch (Exception e) {
             Logger.e(TAG, "Error launching game app: " + packageName, e);
             UIUtils.showToast(context, "Error launching game");
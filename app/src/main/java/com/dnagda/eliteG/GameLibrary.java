@@ -0,0 +1,291 @@
+package com.dnagda.eliteG;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Every game the user has added, without a size limit, ranked by how often and how recently
+ * it was launched. The home screen shows the top {@link Constants#MAX_RECENT_GAMES}.
+ *
+ * Each launch adds a weight that halves every {@link #HALF_LIFE_MS}. The score is the log of
+ * the summed weights relative to a fixed epoch, so comparing two scores gives the same answer
+ * at any point in time and stored scores never need to be decayed. That lets an index on the
+ * score answer top-k queries in O(log n + k).
+ *
+ * Adding or removing a game also stores a new {@link Constants#PREF_LIBRARY_CHANGED} token in
+ * the shared {@link SettingsStore}, so either process can tell cheaply whether the set of
+ * games changed without querying it.
+ */
+public final class GameLibrary {
+    private static final String TAG = "GameLibrary";
+
+    static final String DATABASE_NAME = "game_library.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_GAMES = "games";
+    private static final String COLUMN_PACKAGE = "package_name";
+    private static final String COLUMN_SCORE = "score";
+    private static final String COLUMN_LAUNCHES = "launch_count";
+    private static final String COLUMN_LAST_LAUNCH = "last_launch";
+    private static final String RANK_ORDER = COLUMN_SCORE + " DESC, " + COLUMN_PACKAGE;
+
+    static final long HALF_LIFE_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final double LOG_DECAY_PER_MS = Math.log(2) / HALF_LIFE_MS;
+    // Smallest step that still orders two scores; far above the rounding error of a score
+    private static final double RANK_STEP = 1e-9;
+
+    private static GameLibrary instance;
+
+    private final Context context;
+    private final Helper helper;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "EliteG-Library");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private GameLibrary(Context context) {
+        this.context = context;
+        helper = new Helper(context);
+    }
+
+    public static synchronized GameLibrary getInstance(Context context) {
+        if (instance == null) {
+            instance = new GameLibrary(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Run a library update in the background; updates run one at a time in submission order
+     */
+    public void execute(Runnable task) {
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Logger.e(TAG, "Library update failed", e);
+            }
+        });
+    }
+
+    /**
+     * Add a game if it is not in the library yet, counted as launched now
+     */
+    public void add(String packageName) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PACKAGE, packageName);
+        values.put(COLUMN_SCORE, addLaunch(Double.NEGATIVE_INFINITY, now));
+        values.put(COLUMN_LAUNCHES, 0);
+        values.put(COLUMN_LAST_LAUNCH, now);
+        if (db.insertWithOnConflict(TABLE_GAMES, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1) {
+            markChanged();
+        }
+    }
+
+    public void remove(String packageName) {
+        if (helper.getWritableDatabase().delete(TABLE_GAMES, COLUMN_PACKAGE + " = ?", new String[]{packageName}) > 0) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Count a launch of the game, adding it to the library if needed
+     */
+    public void recordLaunch(String packageName) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        boolean added;
+        db.beginTransaction();
+        try {
+            double score = Double.NEGATIVE_INFINITY;
+            int launches = 0;
+            try (Cursor cursor = db.query(TABLE_GAMES, new String[]{COLUMN_SCORE, COLUMN_LAUNCHES},
+                    COLUMN_PACKAGE + " = ?", new String[]{packageName}, null, null, null)) {
+                if (cursor.moveToFirst()) {
+                    score = cursor.getDouble(0);
+                    launches = cursor.getInt(1);
+                }
+            }
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_PACKAGE, packageName);
+            values.put(COLUMN_SCORE, addLaunch(score, now));
+            values.put(COLUMN_LAUNCHES, launches + 1);
+            values.put(COLUMN_LAST_LAUNCH, now);
+            db.insertWithOnConflict(TABLE_GAMES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+            added = score == Double.NEGATIVE_INFINITY;
+        } finally {
+            db.endTransaction();
+        }
+        if (added) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Give {@code packageName} the rank of {@code replaced} and move {@code replaced} down to
+     * where {@code packageName} was, so the top-k set changes by exactly these two games.
+     * With no {@code replaced}, raise {@code packageName} just into the top {@code k}.
+     */
+    public void takeRank(String packageName, String replaced, int k) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Double score = getScore(db, packageName);
+            if (score == null) {
+                return;
+            }
+            Double target = replaced != null ? getScore(db, replaced) : getScoreAtRank(db, k - 1);
+            if (target != null && target >= score) {
+                setScore(db, packageName, target + RANK_STEP);
+                if (replaced != null) {
+                    setScore(db, replaced, score);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Highest ranked games first
+     */
+    public List<String> getRanked(int offset, int limit) {
+        List<String> packages = new ArrayList<>();
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_GAMES, new String[]{COLUMN_PACKAGE},
+                null, null, null, null, RANK_ORDER, offset + "," + limit)) {
+            while (cursor.moveToNext()) {
+                packages.add(cursor.getString(0));
+            }
+        }
+        return packages;
+    }
+
+    public List<String> getTop(int k) {
+        return getRanked(0, k);
+    }
+
+    public List<String> getAllPackages() {
+        return getRanked(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Token that differs after a game was added or removed in either process. Only checks
+     * whether the settings file changed, so it is cheap enough to call on every poll.
+     */
+    public long getChangeToken() {
+        return SettingsStore.getInstance(context).refresh().getLong(Constants.PREF_LIBRARY_CHANGED, 0);
+    }
+
+    private void markChanged() {
+        // A fresh value rather than a count, so two processes changing it at once can't
+        // both write the same number
+        SettingsStore.getInstance(context).edit().putLong(Constants.PREF_LIBRARY_CHANGED, System.nanoTime()).apply();
+    }
+
+    /**
+     * Add one launch at {@code timeMs} to a score, computed as log(exp(a) + exp(b))
+     * without overflowing
+     */
+    static double addLaunch(double score, long timeMs) {
+        double launch = timeMs * LOG_DECAY_PER_MS;
+        if (score == Double.NEGATIVE_INFINITY) {
+            return launch;
+        }
+        double high = Math.max(score, launch);
+        double low = Math.min(score, launch);
+        return high + Math.log1p(Math.exp(low - high));
+    }
+
+    /**
+     * Number of launches behind a score, each weighted by its age at {@code nowMs}
+     */
+    static double getDecayedLaunches(double score, long nowMs) {
+        return Math.exp(score - nowMs * LOG_DECAY_PER_MS);
+    }
+
+    private static Double getScore(SQLiteDatabase db, String packageName) {
+        try (Cursor cursor = db.query(TABLE_GAMES, new String[]{COLUMN_SCORE},
+                COLUMN_PACKAGE + " = ?", new String[]{packageName}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getDouble(0) : null;
+        }
+    }
+
+    private static Double getScoreAtRank(SQLiteDatabase db, int rank) {
+        try (Cursor cursor = db.query(TABLE_GAMES, new String[]{COLUMN_SCORE},
+                null, null, null, null, RANK_ORDER, rank + ",1")) {
+            return cursor.moveToFirst() ? cursor.getDouble(0) : null;
+        }
+    }
+
+    private static void setScore(SQLiteDatabase db, String packageName, double score) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_SCORE, score);
+        db.update(TABLE_GAMES, values, COLUMN_PACKAGE + " = ?", new String[]{packageName});
+    }
+
+    private static final class Helper extends SQLiteOpenHelper {
+        private final Context context;
+
+        Helper(Context context) {
+            super(context, DATABASE_NAME, null, DATABASE_VERSION);
+            this.context = context;
+            // Read from both the UI and :agent processes
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE_GAMES + " ("
+                    + COLUMN_PACKAGE + " TEXT PRIMARY KEY, "
+                    + COLUMN_SCORE + " REAL NOT NULL, "
+                    + COLUMN_LAUNCHES + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_LAST_LAUNCH + " INTEGER NOT NULL DEFAULT 0)");
+            db.execSQL("CREATE INDEX games_rank ON " + TABLE_GAMES
+                    + " (" + COLUMN_SCORE + " DESC, " + COLUMN_PACKAGE + ")");
+            importRecentSlots(db);
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Only one version so far
+        }
+
+        /**
+         * Seed the library from the fixed recent slots, keeping their order
+         */
+        private void importRecentSlots(SQLiteDatabase db) {
+            SettingsStore settings = SettingsStore.getInstance(context);
+            long now = System.currentTimeMillis();
+            int imported = 0;
+            for (int i = 1; i <= Constants.MAX_RECENT_GAMES; i++) {
+                String packageName = settings.getString(i + Constants.PREF_GAME_SUFFIX, "");
+                if (packageName == null || packageName.isEmpty()) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put(COLUMN_PACKAGE, packageName);
+                values.put(COLUMN_SCORE, addLaunch(Double.NEGATIVE_INFINITY, now) - i * RANK_STEP);
+                values.put(COLUMN_LAST_LAUNCH, now);
+                db.insertWithOnConflict(TABLE_GAMES, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+                imported++;
+            }
+            Logger.d(TAG, "Imported " + imported + " games from the recent slots");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.dnagda.eliteG;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.utils.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Compact binary snapshot of the home screen: recent slot labels and icons, the last scale
+ * and the formatted resolution strings. Read with one sequential read at startup so the
+ * first frame is populated before any PackageManager or SharedPreferences access.
+ *
+ * Layout: magic, version, scale, native text, tweaked text, slot count, then per slot a
+ * presence flag followed by package name, label and PNG icon bytes (length-prefixed).
+ */
+public final class HomeSnapshot {
+    private static final String TAG = "HomeSnapshot";
+
+    static final String FILE_NAME = "home_snapshot.bin";
+    static final int MAGIC = 0x45474853; // "EGHS"
+    static final int VERSION = 1;
+    // Larger files are not a snapshot written by this class
+    private static final int MAX_FILE_BYTES = 2 * 1024 * 1024;
+
+    public final int lastScale;
+    public final String nativeResolution;
+    public final String tweakedResolution;
+    public final Slot[] slots;
+
+    /**
+     * One recent game slot; empty slots are null in {@link #slots}
+     */
+    public static final class Slot {
+        public final String packageName;
+        public final String label;
+        public final byte[] iconPng;
+
+        public Slot(String packageName, String label, byte[] iconPng) {
+            this.packageName = packageName;
+            this.label = label;
+            this.iconPng = iconPng != null ? iconPng : new byte[0];
+        }
+    }
+
+    public HomeSnapshot(int lastScale, String nativeResolution, String tweakedResolution, Slot[] slots) {
+        this.lastScale = lastScale;
+        this.nativeResolution = nativeResolution != null ? nativeResolution : "";
+        this.tweakedResolution = tweakedResolution != null ? tweakedResolution : "";
+        this.slots = slots;
+    }
+
+    /**
+     * Load the snapshot, or null if there is none or it was written by another version
+     */
+    public static HomeSnapshot load(Context context) {
+        File file = getFile(context);
+        long length = file.length();
+        if (length <= 0 || length > MAX_FILE_BYTES) {
+            return null;
+        }
+        byte[] data = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    return null;
+                }
+                read += n;
+            }
+            return decode(data);
+        } catch (IOException e) {
+            Logger.w(TAG, "Discarding unreadable home snapshot", e);
+            return null;
+        }
+    }
+
+    /**
+     * Atomically replace the snapshot file. Does disk I/O, do not call on the main thread.
+     */
+    public static boolean save(Context context, HomeSnapshot snapshot) {
+        File file = getFile(context);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(snapshot.encode());
+            out.getFD().sync();
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not write home snapshot", e);
+            return false;
+        }
+        if (!temp.renameTo(file)) {
+            Logger.e(TAG, "Could not replace home snapshot");
+            return false;
+        }
+        return true;
+    }
+
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(lastScale);
+        out.writeUTF(nativeResolution);
+        out.writeUTF(tweakedResolution);
+        out.writeInt(slots.length);
+        for (Slot slot : slots) {
+            out.writeBoolean(slot != null);
+            if (slot != null) {
+                out.writeUTF(slot.packageName);
+                out.writeUTF(slot.label);
+                out.writeInt(slot.iconPng.length);
+                out.write(slot.iconPng);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse a snapshot, or return null if the magic or version does not match
+     */
+    static HomeSnapshot decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return null;
+        }
+        int lastScale = in.readInt();
+        String nativeResolution = in.readUTF();
+        String tweakedResolution = in.readUTF();
+        int slotCount = in.readInt();
+        if (slotCount < 0 || slotCount > 64) {
+            throw new IOException("Bad slot count " + slotCount);
+        }
+        Slot[] slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            if (!in.readBoolean()) {
+                continue;
+            }
+            String packageName = in.readUTF();
+            String label = in.readUTF();
+            int iconLength = in.readInt();
+            if (iconLength < 0 || iconLength > in.available()) {
+                throw new IOException("Bad icon length " + iconLength);
+            }
+            byte[] icon = new byte[iconLength];
+            in.readFully(icon);
+            slots[i] = new Slot(packageName, label, icon);
+        }
+        return new HomeSnapshot(lastScale, nativeResolution, tweakedResolution, slots);
+    }
+
+    private static File getFile(Context context) {
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+}
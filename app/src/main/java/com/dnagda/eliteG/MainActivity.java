@@ -7,15 +7,20 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.transition.TransitionManager;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.ImageButton;
@@ -34,21 +39,34 @@ import androidx.constraintlayout.widget.ConstraintSet;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
+import com.dnagda.eliteG.session.FpsGainStats;
+import com.dnagda.eliteG.session.FpsGainTracker;
+import com.dnagda.eliteG.session.SessionAgent;
+import com.dnagda.eliteG.session.SessionJournal;
+import com.dnagda.eliteG.startup.DeferredInitializers;
+import com.dnagda.eliteG.startup.StartupTiming;
 import com.dnagda.eliteG.utils.AccessibilityUtils;
+import com.dnagda.eliteG.utils.CacheManager;
 import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.IconCache;
 import com.dnagda.eliteG.utils.Logger;
 import com.dnagda.eliteG.utils.PerformanceMonitor;
 import com.dnagda.eliteG.utils.PerformanceUtils;
+import com.dnagda.eliteG.utils.PermissionUtils;
+import com.dnagda.eliteG.utils.ResolutionLadder;
 import com.dnagda.eliteG.utils.ThreadUtils;
 import com.dnagda.eliteG.utils.UIUtils;
 import com.dnagda.eliteG.SettingsManager;
 import com.dnagda.eliteG.GameApp;
 import com.dnagda.eliteG.GameAppManager;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.function.Consumer;
 import android.widget.EditText;
 
 /**
@@ -58,8 +76,15 @@ import android.widget.EditText;
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
     private static final int STORAGE_PERMISSION_CODE = 100;
+    private static final String GAME_LIST_CACHE = "game_list";
+    // Library games resolved per tap on "load more"
+    private static final int LIBRARY_PAGE_SIZE = 20;
+    private static final String METRIC_FIRST_FRAME = "startup.first_frame_ms";
+    // Coalesces the snapshot writes of several slot updates into one
+    private static final long SNAPSHOT_SAVE_DELAY_MS = 500;
     // UI Components
     private TextView fpsPercentageText;
+    private TextView fpsLabelText;
     private TextView tweakedResolutionText;
     private SeekBar resolutionSeekBar;
     private ProgressBar circularProgressBar;
@@ -69,12 +94,14 @@ public class MainActivity extends AppCompatActivity {
     public SettingsManager settingsManager;
     private boolean settingsShown = false;
     private int lastProgress = 0;
+    private FpsGainStats lastGameStats; // Loaded in the background on resume
     
     // Performance calculations
-    public float[] coefficients = new float[2]; // Width, Height coefficients
+    public ResolutionLadder resolutionLadder; // Size of every slider step
+    private String[] tweakedResolutionLabels; // Preformatted label of every slider step
     
     // Options
-    private CheckBox[] optionCheckboxes = new CheckBox[3];
+    private CheckBox[] optionCheckboxes = new CheckBox[5];
     
     // Layout management
     private ConstraintSet layoutSettingsHidden = new ConstraintSet();
@@ -85,43 +112,44 @@ public class MainActivity extends AppCompatActivity {
     private GameApp[] recentGameApps = new GameApp[Constants.MAX_RECENT_GAMES];
     private TextView[] recentGameTitles = new TextView[Constants.MAX_RECENT_GAMES];
     private ImageButton[] recentGameIcons = new ImageButton[Constants.MAX_RECENT_GAMES];
+    
+    // Loaded by StartupPreloader while the splash screen was shown, null if not available
+    private GameApp[] preloadedRecentGames;
+    private Boolean preloadedAdbPermissions;
+    // Rebinds only the slot that changed when a game is added or removed
+    private final RecentGameSlots.Listener recentSlotListener = (index, packageName, version) ->
+            ThreadUtils.executeOnMainThread(() -> loadRecentGameSlot(index));
+    private boolean homeSnapshotApplied;
+    private boolean homeSnapshotSavePending;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         Logger.d(TAG, "MainActivity onCreate started");
+        long onCreateStart = SystemClock.elapsedRealtime();
+        
+        StartupPreloader.Result preload = StartupPreloader.takeResult();
+        if (preload != null) {
+            preloadedRecentGames = preload.recentGames;
+            preloadedAdbPermissions = preload.hasAdbPermissions;
+        }
         
         // Start performance monitoring
         try (PerformanceMonitor.OperationTimer timer = PerformanceMonitor.time("MainActivity.onCreate")) {
             setContentView(R.layout.activity_main);
+            reportFirstFrame(onCreateStart);
             
-            // Initialize core components
-            initializeCore();
-
-            // Check for resolution reset
-            checkResolutionReset();
-
-            // Initialize UI components
-            initializeUI();
-
-            // Initialize permissions and log device info
-            initializePermissions();
-
-            // Check permissions and first launch
-            checkPermissionsAndFirstLaunch();
-            
-            // Initialize options and recent games
-            initializeOptions();
-            initializeRecentGames();
-            
-            // Setup event listeners
-            setupEventListeners();
-            
-            // Storage permission check (only for older Android versions)
-            checkStoragePermissions(); 
+            // Populate the home screen from the last snapshot before touching settings or packages
+            applyHomeSnapshot();
+            if (homeSnapshotApplied) {
+                // The first frame shows the snapshot; settings are loaded and bound after it
+                initializeAfterSnapshot();
+                return;
+            }
             
-            // --- Centralized robust permission check ---
-            checkPermissions();
+            // Initialize core components
+            initializeCore(new SettingsManager(this));
+            initializeHome();
             Logger.d(TAG, "MainActivity onCreate completed successfully");
         } catch (Exception e) {
             Logger.e(TAG, "Error in onCreate", e);
@@ -132,14 +160,99 @@ public class MainActivity extends AppCompatActivity {
     }
     
     /**
-     * Initialize core components
+     * Load the settings in the background while the snapshot is on screen, then bind them.
+     * The result is posted to the main thread, so it runs after the first frame and after
+     * onResume, whose settings work is done here instead.
      */
-    private void initializeCore() {
-        settingsManager = new SettingsManager(this);
-        gameList = GameAppManager.getGameApps(this, true); // Initialize gameList
-        // Compute performance coefficients
-        coefficients[0] = PerformanceUtils.calculateWidthCoefficient(settingsManager.getOriginalWidth());
-        coefficients[1] = PerformanceUtils.calculateHeightCoefficient(settingsManager.getOriginalHeight());
+    private void initializeAfterSnapshot() {
+        ThreadUtils.executeIoTask(() -> {
+            SettingsManager loaded = new SettingsManager(this);
+            ThreadUtils.executeOnMainThread(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                try {
+                    initializeCore(loaded);
+                    initializeHome();
+                    // Refresh the slots shown from the snapshot, as onResume would have
+                    loadRecentGamesUI();
+                    settingsManager.syncRecentGames();
+                    Logger.d(TAG, "Settings bound after the first frame");
+                } catch (Exception e) {
+                    Logger.e(TAG, "Error initializing settings", e);
+                    UIUtils.showToast(this, "Error initializing app");
+                    finish();
+                }
+            });
+        });
+    }
+    
+    /**
+     * Bind the settings to the home screen and start the permission checks
+     */
+    private void initializeHome() {
+        // Check for resolution reset
+        checkResolutionReset();
+
+        // Initialize UI components
+        initializeUI();
+
+        // Initialize permissions and log device info
+        initializePermissions();
+
+        // Initialize options and recent games
+        initializeOptions();
+        initializeRecentGames();
+        
+        // Setup event listeners
+        setupEventListeners();
+        
+        // Probe ADB permissions in the background, then enable options and check first launch
+        probeADBPermissions();
+        
+        // Storage permission check (only for older Android versions)
+        checkStoragePermissions(); 
+        
+        // --- Centralized robust permission check ---
+        checkPermissions();
+    }
+    
+    /**
+     * Drop the scanned package list; called on the main thread by onTrimMemory
+     * @return estimated bytes freed
+     */
+    private long trimGameList() {
+        if (gameList == null) {
+            return 0;
+        }
+        long freed = 0;
+        for (GameApp gameApp : gameList) {
+            // Cached icons share their bitmap with IconCache, which reports it when trimmed
+            if (!IconCache.contains(gameApp.getPackageName())) {
+                freed += IconCache.estimateBytes(gameApp.getIcon());
+            }
+        }
+        gameList = new ArrayList<>();
+        return freed;
+    }
+    
+    /**
+     * Initialize core components from the loaded settings
+     */
+    private void initializeCore(SettingsManager loaded) {
+        settingsManager = loaded;
+        settingsManager.getRecentGameSlots().addListener(recentSlotListener);
+        // gameList is scanned in the background by showAddGame whenever it is shown
+        CacheManager.register(GAME_LIST_CACHE, CacheManager.PRIORITY_LOW, this, MainActivity::trimGameList);
+        // Compute every slider step once so ticks are array lookups
+        resolutionLadder = ResolutionLadder.forDisplay(settingsManager.getOriginalWidth(),
+                settingsManager.getOriginalHeight(), settingsManager.getOriginalDensity());
+        String tweaked = getString(R.string.resolution_tweaked) + "\n";
+        String progressive = getString(R.string.progressive);
+        tweakedResolutionLabels = new String[Constants.MAX_RESOLUTION_SCALE + 1];
+        for (int scale = 0; scale <= Constants.MAX_RESOLUTION_SCALE; scale++) {
+            tweakedResolutionLabels[scale] = tweaked + resolutionLadder.getLabel(scale) + progressive;
+        }
         
         Logger.d(TAG, "Core components initialized");
     }
@@ -148,10 +261,10 @@ public class MainActivity extends AppCompatActivity {
      * Check if resolution needs to be reset
      */
     private void checkResolutionReset() {
-        File tempFile = new File(getApplicationInfo().dataDir + "/" + Constants.TEMP_FILE_NAME);
-        if (tempFile.exists()) {
-            boolean deleted = tempFile.delete();
-            Logger.d(TAG, "Temp file " + (deleted ? "deleted" : "failed to delete"));
+        if (SessionJournal.isSessionOpen(this)) {
+            // Back in EliteG, so the boosted game session is over
+            SessionAgent.end(this);
+            Logger.d(TAG, "Game session ended on return");
         } else {
             if (settingsManager.getOriginalWidth() != settingsManager.getCurrentWidth()) {
                 showResetPopup();
@@ -166,6 +279,7 @@ public class MainActivity extends AppCompatActivity {
         try {
             // Find and initialize UI components with comprehensive null checks
             fpsPercentageText = findViewById(R.id.textViewPercentage);
+            fpsLabelText = findViewById(R.id.textViewFPS);
             tweakedResolutionText = findViewById(R.id.textViewTweakedResolution);
             resolutionSeekBar = findViewById(R.id.seekBarRes);
             circularProgressBar = findViewById(R.id.progressBar);
@@ -178,11 +292,7 @@ public class MainActivity extends AppCompatActivity {
                 finish();
                 return;
             }
-            if (fpsPercentageText != null) {
-                int lastScale = settingsManager.getLastResolutionScale();
-                int fpsBoost = PerformanceUtils.calculateFpsBoost(lastScale);
-                fpsPercentageText.setText(UIUtils.formatFpsPercentage(fpsBoost));
-            }
+            updateFpsGainDisplay(settingsManager.getLastResolutionScale());
             TextView nativeResolution = findViewById(R.id.textViewNativeResolution);
             if (nativeResolution != null) {
                 nativeResolution.setText(String.format("%s\n%s%s", 
@@ -211,11 +321,56 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    /**
+     * Record the time from onCreate until the first frame is about to be drawn
+     */
+    private void reportFirstFrame(long onCreateStart) {
+        final View decorView = getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                long elapsed = SystemClock.elapsedRealtime() - onCreateStart;
+                PerformanceMonitor.recordMetric(METRIC_FIRST_FRAME, elapsed);
+                Logger.d(TAG, "First frame " + elapsed + "ms after onCreate");
+                StartupTiming.milestone("first_frame");
+                // Non-critical startup work waits until the UI is visible
+                DeferredInitializers.start(MainActivity.this);
+                return true;
+            }
+        });
+    }
+    
+    /**
+     * Check ADB permissions, reusing the splash screen probe when available.
+     * The shell probe runs on a background thread.
+     */
+    private void probeADBPermissions() {
+        if (preloadedAdbPermissions != null) {
+            onADBPermissionsKnown(preloadedAdbPermissions);
+            return;
+        }
+        ThreadUtils.executeIoTask(() -> {
+            boolean granted = ExecuteADBCommands.hasADBPermissions();
+            ThreadUtils.executeOnMainThread(() -> {
+                if (!isFinishing() && !isDestroyed()) {
+                    onADBPermissionsKnown(granted);
+                }
+            });
+        });
+    }
+    
+    private void onADBPermissionsKnown(boolean granted) {
+        Logger.d(TAG, "ADB permissions granted: " + granted);
+        setOptionsOnClickListener(granted);
+        checkPermissionsAndFirstLaunch(granted);
+    }
+    
     /**
      * Check permissions and handle first launch
      */
-    private void checkPermissionsAndFirstLaunch() {
-        if (!settingsManager.hasADBPermissions()) {
+    private void checkPermissionsAndFirstLaunch(boolean hasADBPermissions) {
+        if (!hasADBPermissions) {
             showNoPermissionsPopup();
             return;
         }
@@ -224,19 +379,67 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    /**
+     * Load the FPS statistics of the last played game in the background, then refresh the display.
+     * Recorded by the agent process, so reloaded on every resume.
+     */
+    private void loadFpsGainStats() {
+        Context appContext = getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            FpsGainStats stats = FpsGainTracker.loadLastGameStats(appContext);
+            ThreadUtils.executeOnMainThread(() -> {
+                lastGameStats = stats;
+                if (!isDestroyed()) {
+                    updateFpsGainDisplay(lastProgress);
+                }
+            });
+        });
+    }
+    
+    /**
+     * Show the measured FPS gain of the last played game, falling back to the estimate
+     */
+    private void updateFpsGainDisplay(int scale) {
+        if (fpsPercentageText == null) {
+            return;
+        }
+        
+        FpsGainStats stats = lastGameStats;
+        FpsGainStats.Gain gain = stats != null ? stats.getGain(scale) : null;
+        if (gain != null) {
+            fpsPercentageText.setText(UIUtils.formatFpsPercentage(gain.percent));
+            if (fpsLabelText != null) {
+                fpsLabelText.setText(getString(R.string.fps_measured, gain.marginPercent,
+                        getString(getConfidenceLabel(gain.confidence))));
+                fpsLabelText.setContentDescription(getString(R.string.content_desc_fps_measured,
+                        gain.percent, getString(getConfidenceLabel(gain.confidence))));
+            }
+        } else {
+            int fpsBoost = PerformanceUtils.calculateFpsBoost(scale);
+            fpsPercentageText.setText(UIUtils.formatFpsPercentage(fpsBoost));
+            if (fpsLabelText != null) {
+                fpsLabelText.setText(R.string.fps_estimated);
+                fpsLabelText.setContentDescription(getString(R.string.content_desc_fps_estimated, fpsBoost));
+            }
+        }
+    }
+    
+    private static int getConfidenceLabel(FpsGainStats.Confidence confidence) {
+        switch (confidence) {
+            case HIGH:
+                return R.string.fps_confidence_high;
+            case MEDIUM:
+                return R.string.fps_confidence_medium;
+            default:
+                return R.string.fps_confidence_low;
+        }
+    }
+    
     /**
      * Update tweaked resolution display
      */
     private void updateTweakedResolutionDisplay(int scale) {
-        int newWidth = PerformanceUtils.calculateNewWidth(
-            settingsManager.getOriginalWidth(), coefficients[0], scale);
-        int newHeight = PerformanceUtils.calculateNewHeight(
-            settingsManager.getOriginalHeight(), coefficients[1], scale);
-        
-        tweakedResolutionText.setText(String.format("%s\n%s%s", 
-            getString(R.string.resolution_tweaked),
-            UIUtils.formatResolution(newWidth, newHeight),
-            getString(R.string.progressive)));
+        tweakedResolutionText.setText(tweakedResolutionLabels[ResolutionLadder.clampScale(scale)]);
     }
 
 
@@ -269,6 +472,7 @@ public class MainActivity extends AppCompatActivity {
                     updateProgressAndDisplay(progress);
                     settingsManager.setLastResolutionScale(progress);
                     Logger.d(TAG, "Resolution scale saved: " + progress);
+                    requestHomeSnapshotSave();
                 }
             });
         }
@@ -277,8 +481,7 @@ public class MainActivity extends AppCompatActivity {
         ImageButton addGameButton = findViewById(R.id.addGameButton);
         addGameButton.setOnClickListener(view -> showAddGame(true, settingsManager.findFirstEmptyRecentGameApp()));
         
-        // Setup options click listeners
-        setOptionsOnClickListener();
+        // Options click listeners are set once ADB permissions are known
         setOptionsClickable(false); // Initially hidden
 
         Button btnOpenADBMode = findViewById(R.id.btnOpenADBMode);
@@ -325,10 +528,7 @@ public class MainActivity extends AppCompatActivity {
         lastProgress = progress;
         
         // Update FPS percentage
-        if (fpsPercentageText != null) {
-            int fpsBoost = PerformanceUtils.calculateFpsBoost(progress);
-            fpsPercentageText.setText(UIUtils.formatFpsPercentage(fpsBoost));
-        }
+        updateFpsGainDisplay(progress);
         
         // Update tweaked resolution display
         updateTweakedResolutionDisplay(progress);
@@ -379,16 +579,7 @@ public class MainActivity extends AppCompatActivity {
         LayoutInflater inflater = getLayoutInflater();
         
         // Add game items
-        for (int i = 0; i < gameList.size(); i++) {
-            View gameItemView = inflater.inflate(R.layout.game_app_item, null);
-            setupGameItem(gameItemView, gameList.get(i), gameListDialog, gameAppIndex);
-            layout.addView(gameItemView);
-            
-            // Add spacing
-            Space space = new Space(this);
-            space.setMinimumHeight(UIUtils.dpToPx(this, 10));
-            layout.addView(space);
-        }
+        addGameItems(layout, layout.getChildCount(), gameList, gameListDialog, gameAppIndex);
         
         // Add "show all apps" option if only showing games
         if (onlyAddGames) {
@@ -396,14 +587,94 @@ public class MainActivity extends AppCompatActivity {
             layout.addView(showAllView);
             showAllView.setOnClickListener(v -> {
                 gameListDialog.dismiss();
-                gameList = GameAppManager.getGameApps(MainActivity.this, false);
-                showGameListPopup(MainActivity.this, false, gameAppIndex);
+                showAddGame(false, gameAppIndex);
             });
         }
         
         gameListDialog.show();
     }
     
+    /**
+     * Show library games that are not on the home screen, one page at a time,
+     * with a way to the games-only package scan for games not launched before
+     */
+    private void showLibraryPopup(List<GameApp> firstPage, int nextOffset, final int gameAppIndex) {
+        Logger.d(TAG, "Showing library popup, " + firstPage.size() + " games");
+        
+        final Dialog libraryDialog = new Dialog(this);
+        libraryDialog.setContentView(R.layout.add_game_layout);
+        
+        int dialogWidth = UIUtils.getDialogWidth(this);
+        int dialogHeight = UIUtils.getDialogHeight(this, firstPage.size() + (nextOffset >= 0 ? 1 : 0), true);
+        libraryDialog.getWindow().setLayout(dialogWidth, dialogHeight);
+        libraryDialog.getWindow().setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+        
+        LinearLayout layout = libraryDialog.findViewById(R.id.gameListLayout);
+        int position = addGameItems(layout, layout.getChildCount(), firstPage, libraryDialog, gameAppIndex);
+        if (nextOffset >= 0) {
+            addLoadMoreItem(layout, position, nextOffset, libraryDialog, gameAppIndex);
+        }
+        
+        View scanView = getLayoutInflater().inflate(R.layout.no_game_app_item, null);
+        layout.addView(scanView);
+        scanView.setOnClickListener(v -> {
+            libraryDialog.dismiss();
+            showGameScan(true, gameAppIndex);
+        });
+        
+        libraryDialog.show();
+    }
+    
+    /**
+     * Add an item that replaces itself with the next page of library games
+     */
+    private void addLoadMoreItem(LinearLayout layout, int position, int offset, Dialog dialog, int gameAppIndex) {
+        View loadMoreView = getLayoutInflater().inflate(R.layout.no_game_app_item, null);
+        TextView text = loadMoreView.findViewById(R.id.textViewDontFindGame);
+        text.setText(R.string.load_more_games);
+        layout.addView(loadMoreView, position);
+        loadMoreView.setOnClickListener(v -> {
+            loadMoreView.setClickable(false);
+            ThreadUtils.executeIoTask(() -> {
+                List<GameApp> page = new ArrayList<>();
+                int nextOffset = loadLibraryGames(offset, page);
+                ThreadUtils.executeOnMainThread(() -> {
+                    if (!dialog.isShowing()) {
+                        return;
+                    }
+                    int at = layout.indexOfChild(loadMoreView);
+                    layout.removeView(loadMoreView);
+                    if (gameList != null) {
+                        gameList.addAll(page);
+                    }
+                    int next = addGameItems(layout, at, page, dialog, gameAppIndex);
+                    if (nextOffset >= 0) {
+                        addLoadMoreItem(layout, next, nextOffset, dialog, gameAppIndex);
+                    }
+                });
+            });
+        });
+    }
+    
+    /**
+     * Insert game items with their spacing at {@code position}
+     * @return position after the inserted items
+     */
+    private int addGameItems(LinearLayout layout, int position, List<GameApp> games, Dialog dialog, int gameAppIndex) {
+        LayoutInflater inflater = getLayoutInflater();
+        for (GameApp gameApp : games) {
+            View gameItemView = inflater.inflate(R.layout.game_app_item, null);
+            setupGameItem(gameItemView, gameApp, dialog, gameAppIndex);
+            layout.addView(gameItemView, position++);
+            
+            // Add spacing
+            Space space = new Space(this);
+            space.setMinimumHeight(UIUtils.dpToPx(this, 10));
+            layout.addView(space, position++);
+        }
+        return position;
+    }
+    
     /**
      * Setup individual game item in the list
      */
@@ -414,7 +685,16 @@ public class MainActivity extends AppCompatActivity {
         
         title.setText(gameApp.getGameName());
         packageName.setText(gameApp.getPackageName());
-        icon.setImageDrawable(gameApp.getIcon());
+        if (gameApp.getIcon() != null) {
+            icon.setImageDrawable(gameApp.getIcon());
+        } else {
+            // Library games are listed by name first, icons follow as they load
+            Context appContext = getApplicationContext();
+            ThreadUtils.executeIoTask(() -> {
+                Drawable drawable = GameAppManager.getIcon(appContext, gameApp.getPackageName());
+                ThreadUtils.executeOnMainThread(() -> icon.setImageDrawable(drawable));
+            });
+        }
         
         // Add content description for accessibility
         itemView.setContentDescription("Select " + gameApp.getGameName() + " to add to recent games slot " + (gameAppIndex + 1));
@@ -435,16 +715,22 @@ public class MainActivity extends AppCompatActivity {
         optionCheckboxes[0] = findViewById(R.id.checkBoxAggressive);
         optionCheckboxes[1] = findViewById(R.id.checkBoxMurderer);
         optionCheckboxes[2] = findViewById(R.id.checkBoxStockDPI);
+        optionCheckboxes[3] = findViewById(R.id.checkBoxAdaptive);
+        optionCheckboxes[4] = findViewById(R.id.checkBoxAutoDetect);
 
         // Load their previous state
         optionCheckboxes[0].setChecked(settingsManager.isLMKActivated());
         optionCheckboxes[1].setChecked(settingsManager.isMurderer());
         optionCheckboxes[2].setChecked(settingsManager.keepStockDPI());
+        optionCheckboxes[3].setChecked(settingsManager.isAdaptiveResolutionEnabled());
+        optionCheckboxes[4].setChecked(SessionAgent.isDetectionEnabled(this));
         
         // Add content descriptions for accessibility
         optionCheckboxes[0].setContentDescription("Kill background apps for better performance");
         optionCheckboxes[1].setContentDescription("Apply performance optimizations");
         optionCheckboxes[2].setContentDescription("Keep original screen density");
+        optionCheckboxes[3].setContentDescription("Adjust resolution to the frame rate while playing");
+        optionCheckboxes[4].setContentDescription("Apply settings to games started from the launcher");
 
         Logger.d(TAG, "Options initialized");
     }
@@ -459,9 +745,9 @@ public class MainActivity extends AppCompatActivity {
         Logger.d(TAG, "Options clickable state set to: " + state);
     }
 
-    private void setOptionsOnClickListener(){
+    private void setOptionsOnClickListener(boolean hasADBPermissions){
         // Elite G uses ADB permissions instead of root
-        if(settingsManager.hasADBPermissions()) {
+        if(hasADBPermissions) {
             optionCheckboxes[0].setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
@@ -475,14 +761,26 @@ public class MainActivity extends AppCompatActivity {
             optionCheckboxes[1].setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    if (optionCheckboxes[1].isChecked()) {
-                        ExecuteADBCommands.applyPerformanceOptimizations();
-                    } else {
-                        ExecuteADBCommands.resetPerformanceOptimizations();
-                    }
+                    boolean checked = optionCheckboxes[1].isChecked();
+                    ThreadUtils.executeIoTask(() -> {
+                        if (checked) {
+                            ExecuteADBCommands.applyPerformanceOptimizations(MainActivity.this);
+                        } else {
+                            ExecuteADBCommands.restorePerformanceSettings(MainActivity.this);
+                        }
+                    });
                     settingsManager.setMurderer(optionCheckboxes[1].isChecked());
                 }
             });
+
+            optionCheckboxes[3].setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    settingsManager.setAdaptiveResolution(optionCheckboxes[3].isChecked(),
+                            settingsManager.getAdaptiveMinScale(), settingsManager.getAdaptiveMaxScale(),
+                            settingsManager.getAdaptiveTargetFps());
+                }
+            });
         }else{
             optionCheckboxes[0].setOnClickListener(new View.OnClickListener() {
                 @Override
@@ -499,6 +797,14 @@ public class MainActivity extends AppCompatActivity {
                     Toast.makeText(MainActivity.this, "ADB permissions required for this feature", Toast.LENGTH_SHORT).show();
                 }
             });
+
+            optionCheckboxes[3].setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    optionCheckboxes[3].setChecked(false);
+                    Toast.makeText(MainActivity.this, "ADB permissions required for this feature", Toast.LENGTH_SHORT).show();
+                }
+            });
         }
 
         optionCheckboxes[2].setOnClickListener(new View.OnClickListener() {
@@ -507,6 +813,19 @@ public class MainActivity extends AppCompatActivity {
                 settingsManager.setKeepStockDPI(optionCheckboxes[2].isChecked());
             }
         });
+
+        // Watching for games needs usage access, not ADB permissions
+        optionCheckboxes[4].setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                boolean checked = optionCheckboxes[4].isChecked();
+                SessionAgent.setDetectionEnabled(MainActivity.this, checked);
+                if (checked && !PermissionUtils.isUsageAccessGranted(MainActivity.this)) {
+                    // Detection starts from onResume once access is granted
+                    startActivity(new Intent(Settings.ACTION_USAGE_ACCESS_SETTINGS));
+                }
+            }
+        });
         
         // Setup reset button if it exists
         ImageButton resetButton = findViewById(R.id.imageButtonReset);
@@ -522,16 +841,7 @@ public class MainActivity extends AppCompatActivity {
     private void resetToOriginalSettings() {
         Logger.d(TAG, "Resetting to original settings");
         
-        try {
-            // Restore original performance settings
-            GameAppManager.restoreOriginalPerformanceSettings(MainActivity.this);
-            
-            // Reset resolution
-            boolean success = settingsManager.setScreenDimension(
-                settingsManager.getOriginalHeight(), 
-                settingsManager.getOriginalWidth()
-            );
-            
+        restoreOriginalSettings(success -> {
             if (success) {
                 // Update UI
                 resolutionSeekBar.setProgress(Constants.DEFAULT_RESOLUTION_SCALE);
@@ -541,23 +851,57 @@ public class MainActivity extends AppCompatActivity {
                 fpsPercentageText.setText(UIUtils.formatFpsPercentage(0));
                 updateTweakedResolutionDisplay(Constants.DEFAULT_RESOLUTION_SCALE);
                 
+                requestHomeSnapshotSave();
                 UIUtils.showToast(this, "Settings reset successfully");
                 Logger.d(TAG, "Settings reset completed");
             } else {
                 UIUtils.showToast(this, "Failed to reset some settings");
                 Logger.e(TAG, "Failed to reset resolution settings");
             }
-        } catch (Exception e) {
-            Logger.e(TAG, "Error resetting settings", e);
-            UIUtils.showToast(this, "Error resetting settings");
-        }
+        });
+    }
+    
+    /**
+     * Restore the journaled performance settings and the original resolution on an I/O
+     * thread, then report on the main thread whether the resolution was reset
+     */
+    private void restoreOriginalSettings(Consumer<Boolean> onDone) {
+        Context appContext = getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            boolean success = false;
+            try {
+                GameAppManager.restoreOriginalPerformanceSettings(appContext);
+                success = settingsManager.setScreenDimension(
+                    settingsManager.getOriginalHeight(), 
+                    settingsManager.getOriginalWidth()
+                );
+            } catch (Exception e) {
+                Logger.e(TAG, "Error resetting settings", e);
+            }
+            boolean reset = success;
+            ThreadUtils.executeOnMainThread(() -> {
+                if (!isDestroyed()) {
+                    onDone.accept(reset);
+                }
+            });
+        });
     }
 
     /**
      * Initialize recent games UI components
      */
     private void initializeRecentGames() {
-        // Link recent games UI components
+        findRecentGameViews();
+        if (!homeSnapshotApplied) {
+            loadRecentGamesUI();
+        }
+        Logger.d(TAG, "Recent games initialized");
+    }
+    
+    /**
+     * Link recent games UI components
+     */
+    private void findRecentGameViews() {
         recentGameTitles[0] = findViewById(R.id.textViewRecentGame1);
         recentGameTitles[1] = findViewById(R.id.textViewRecentGame2);
         recentGameTitles[2] = findViewById(R.id.textViewRecentGame3);
@@ -571,31 +915,166 @@ public class MainActivity extends AppCompatActivity {
         recentGameIcons[3] = findViewById(R.id.imageViewRecentGame4);
         recentGameIcons[4] = findViewById(R.id.imageViewRecentGame5);
         recentGameIcons[5] = findViewById(R.id.imageViewRecentGame6);
-
-        loadRecentGamesUI();
-        Logger.d(TAG, "Recent games initialized");
+    }
+    
+    /**
+     * Show the home screen state saved by {@link #saveHomeSnapshot}, if there is one
+     */
+    private void applyHomeSnapshot() {
+        HomeSnapshot snapshot = HomeSnapshot.load(this);
+        if (snapshot == null) {
+            return;
+        }
+        
+        TextView nativeResolution = findViewById(R.id.textViewNativeResolution);
+        TextView tweakedResolution = findViewById(R.id.textViewTweakedResolution);
+        SeekBar seekBar = findViewById(R.id.seekBarRes);
+        ProgressBar progressBar = findViewById(R.id.progressBar);
+        if (nativeResolution != null) {
+            nativeResolution.setText(snapshot.nativeResolution);
+        }
+        if (tweakedResolution != null) {
+            tweakedResolution.setText(snapshot.tweakedResolution);
+        }
+        if (seekBar != null) {
+            seekBar.setProgress(snapshot.lastScale);
+        }
+        if (progressBar != null) {
+            progressBar.setProgress(snapshot.lastScale);
+        }
+        
+        findRecentGameViews();
+        int slotCount = Math.min(snapshot.slots.length, Constants.MAX_RECENT_GAMES);
+        for (int i = 0; i < slotCount; i++) {
+            HomeSnapshot.Slot slot = snapshot.slots[i];
+            GameApp gameApp = slot == null ? null : new GameApp(slot.label,
+                    UIUtils.pngToDrawable(getResources(), slot.iconPng), slot.packageName);
+            showRecentGame(i, gameApp);
+        }
+        homeSnapshotApplied = true;
+        Logger.d(TAG, "Home screen populated from snapshot");
+    }
+    
+    /**
+     * Save the home screen state shortly after it changed, coalescing bursts of changes
+     */
+    private void requestHomeSnapshotSave() {
+        if (homeSnapshotSavePending) {
+            return;
+        }
+        homeSnapshotSavePending = true;
+        ThreadUtils.executeOnMainThreadDelayed(() -> {
+            homeSnapshotSavePending = false;
+            saveHomeSnapshot();
+        }, SNAPSHOT_SAVE_DELAY_MS);
+    }
+    
+    /**
+     * Capture the visible home screen; icons are rendered here and compressed in the background
+     */
+    private void saveHomeSnapshot() {
+        if (isDestroyed() || recentGameIcons == null || tweakedResolutionText == null) {
+            return;
+        }
+        TextView nativeResolution = findViewById(R.id.textViewNativeResolution);
+        final String nativeText = nativeResolution != null ? nativeResolution.getText().toString() : "";
+        final String tweakedText = tweakedResolutionText.getText().toString();
+        final int scale = lastProgress;
+        final int iconSize = UIUtils.getOptimalIconSize(this);
+        final String[] packages = new String[Constants.MAX_RECENT_GAMES];
+        final String[] labels = new String[Constants.MAX_RECENT_GAMES];
+        final Bitmap[] icons = new Bitmap[Constants.MAX_RECENT_GAMES];
+        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+            GameApp gameApp = recentGameApps[i];
+            if (gameApp != null) {
+                packages[i] = gameApp.getPackageName();
+                labels[i] = gameApp.getGameName();
+                icons[i] = gameApp.getIcon() != null ? UIUtils.drawableToBitmap(gameApp.getIcon(), iconSize) : null;
+            }
+        }
+        
+        final Context appContext = getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            HomeSnapshot.Slot[] slots = new HomeSnapshot.Slot[Constants.MAX_RECENT_GAMES];
+            for (int i = 0; i < slots.length; i++) {
+                if (packages[i] != null) {
+                    slots[i] = new HomeSnapshot.Slot(packages[i], labels[i],
+                            icons[i] != null ? UIUtils.bitmapToPng(icons[i]) : null);
+                }
+            }
+            HomeSnapshot.save(appContext, new HomeSnapshot(scale, nativeText, tweakedText, slots));
+        });
     }
 
     /**
-     * Load and display recent games in UI
+     * Load and display recent games in UI. Uses the splash screen preload on the first call,
+     * otherwise resolves the slots in the background and fills them in as they arrive.
      */
     private void loadRecentGamesUI() {
         Logger.d(TAG, "Loading recent games UI");
         
-        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
-            recentGameApps[i] = settingsManager.getRecentGameApp(i + 1);
-            final int index = i;
-            
-            if (recentGameApps[i] != null) {
-                // Game exists, set up game display
-                setupGameSlot(index, recentGameApps[i]);
-            } else {
-                // Empty slot, set up add game display
-                setupEmptySlot(index);
+        GameApp[] preloaded = preloadedRecentGames;
+        preloadedRecentGames = null; // Later reloads read the current slots
+        if (preloaded != null) {
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                showRecentGame(i, preloaded[i]);
             }
+            requestHomeSnapshotSave();
+            Logger.d(TAG, "Recent games UI loaded from preload");
+            return;
+        }
+        
+        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+            loadRecentGameSlot(i);
+        }
+    }
+    
+    /**
+     * Resolve one slot in the background and bind it, unless the slot changed again meanwhile
+     */
+    private void loadRecentGameSlot(int index) {
+        if (settingsManager == null || recentGameIcons == null) {
+            return;
+        }
+        final RecentGameSlots slots = settingsManager.getRecentGameSlots();
+        final int version = slots.getVersion(index);
+        final String packageName = slots.getPackageName(index);
+        if (packageName.isEmpty()) {
+            showRecentGame(index, null);
+            requestHomeSnapshotSave();
+            return;
         }
         
-        Logger.d(TAG, "Recent games UI loaded");
+        final Context appContext = getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            final GameApp gameApp = GameAppManager.getGameApp(appContext, packageName);
+            if (gameApp == null && GameAppManager.isUninstalled(appContext, packageName)) {
+                // Uninstalled, free the slot and drop the game from the library
+                slots.markMissing(index, version);
+                GameLibrary library = GameLibrary.getInstance(appContext);
+                library.execute(() -> library.remove(packageName));
+            }
+            ThreadUtils.executeOnMainThread(() -> {
+                if (slots.getVersion(index) == version && !isDestroyed() && recentGameIcons != null) {
+                    showRecentGame(index, gameApp);
+                    requestHomeSnapshotSave();
+                }
+            });
+        });
+    }
+    
+    /**
+     * Show a game, or the add game placeholder when {@code gameApp} is null
+     */
+    private void showRecentGame(int index, GameApp gameApp) {
+        recentGameApps[index] = gameApp;
+        if (gameApp != null) {
+            // Game exists, set up game display
+            setupGameSlot(index, gameApp);
+        } else {
+            // Empty slot, set up add game display
+            setupEmptySlot(index);
+        }
     }
     
     /**
@@ -663,17 +1142,13 @@ public class MainActivity extends AppCompatActivity {
                     dialog.dismiss();
                     
                     // Restore original performance settings and resolution
-                    GameAppManager.restoreOriginalPerformanceSettings(MainActivity.this);
-                    boolean success = settingsManager.setScreenDimension(
-                        settingsManager.getOriginalHeight(), 
-                        settingsManager.getOriginalWidth()
-                    );
-                    
-                    if (success) {
-                        UIUtils.showToast(this, "Resolution reset successfully");
-                    } else {
-                        UIUtils.showToast(this, "Failed to reset resolution");
-                    }
+                    restoreOriginalSettings(success -> {
+                        if (success) {
+                            UIUtils.showToast(this, "Resolution reset successfully");
+                        } else {
+                            UIUtils.showToast(this, "Failed to reset resolution");
+                        }
+                    });
                 })
                 .setNegativeButton(R.string.reset_popup_negative_choice, (dialog, which) -> {
                     Logger.d(TAG, "User chose to keep current resolution");
@@ -789,7 +1264,9 @@ public class MainActivity extends AppCompatActivity {
         TextView packageName = child.findViewById(R.id.textViewGameAppPackageName);
         ImageView icon = child.findViewById(R.id.imageViewGameIcon);
 
-        GameApp game = settingsManager.getRecentGameApp(gameAppIndex+1);
+        // Already resolved for the slot, no need to load the icon again
+        GameApp game = gameAppIndex >= 0 && gameAppIndex < Constants.MAX_RECENT_GAMES
+                ? recentGameApps[gameAppIndex] : null;
         if (game == null) {
             Logger.e(TAG, "Game not found at index: " + (gameAppIndex + 1));
             UIUtils.showToast(this, getString(R.string.game_not_found));
@@ -841,18 +1318,77 @@ public class MainActivity extends AppCompatActivity {
      */
     private void showAddGame(boolean onlyAddGames, int gameAppIndex) {
         Logger.d(TAG, "Showing add game dialog, onlyAddGames: " + onlyAddGames + ", index: " + gameAppIndex);
+        if (!onlyAddGames) {
+            showGameScan(false, gameAppIndex);
+            return;
+        }
         
-        try {
-            gameList = GameAppManager.getGameApps(MainActivity.this, onlyAddGames);
-            if (gameList.isEmpty()) {
-                UIUtils.showToast(this, "No games found to add");
-                return;
+        // Library games not on the home screen are offered first, without a package scan
+        ThreadUtils.executeIoTask(() -> {
+            final List<GameApp> firstPage = new ArrayList<>();
+            final int nextOffset = loadLibraryGames(0, firstPage);
+            ThreadUtils.executeOnMainThread(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                if (firstPage.isEmpty() && nextOffset < 0) {
+                    showGameScan(true, gameAppIndex);
+                    return;
+                }
+                gameList = firstPage;
+                showLibraryPopup(firstPage, nextOffset, gameAppIndex);
+            });
+        });
+    }
+    
+    /**
+     * Scan installed packages and show them, only games or all apps
+     */
+    private void showGameScan(boolean onlyAddGames, int gameAppIndex) {
+        // The package scan is slow with many apps installed, keep it off the main thread
+        ThreadUtils.executeIoTask(() -> {
+            final List<GameApp> scanned = GameAppManager.getGameApps(getApplicationContext(), onlyAddGames);
+            ThreadUtils.executeOnMainThread(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                try {
+                    gameList = scanned;
+                    if (gameList.isEmpty()) {
+                        UIUtils.showToast(this, "No games found to add");
+                        return;
+                    }
+                    showGameListPopup(MainActivity.this, onlyAddGames, gameAppIndex);
+                } catch (Exception e) {
+                    Logger.e(TAG, "Error showing add game dialog", e);
+                    UIUtils.showToast(this, "Error loading games");
+                }
+            });
+        });
+    }
+
+    /**
+     * Add the library games ranked from {@code offset} that are not in a recent slot,
+     * with names only; icons are loaded as the items are shown. Does I/O.
+     * @return offset of the next page, or -1 if the library has no more games
+     */
+    private int loadLibraryGames(int offset, List<GameApp> games) {
+        Context appContext = getApplicationContext();
+        RecentGameSlots slots = RecentGameSlots.getInstance(appContext);
+        Set<String> shown = new HashSet<>();
+        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+            shown.add(slots.getPackageName(i));
+        }
+        List<String> ranked = GameLibrary.getInstance(appContext).getRanked(offset, LIBRARY_PAGE_SIZE);
+        for (String packageName : ranked) {
+            if (!shown.contains(packageName)) {
+                GameApp gameApp = GameAppManager.getGameAppWithoutIcon(appContext, packageName);
+                if (gameApp != null) {
+                    games.add(gameApp);
+                }
             }
-            showGameListPopup(MainActivity.this, onlyAddGames, gameAppIndex);
-        } catch (Exception e) {
-            Logger.e(TAG, "Error showing add game dialog", e);
-            UIUtils.showToast(this, "Error loading games");
         }
+        return ranked.size() == LIBRARY_PAGE_SIZE ? offset + LIBRARY_PAGE_SIZE : -1;
     }
 
     /**
@@ -862,8 +1398,8 @@ public class MainActivity extends AppCompatActivity {
         Logger.d(TAG, "Adding game to UI: " + packageName + " at index: " + index);
         
         try {
+            // The slot listener rebinds the changed slot
             settingsManager.addGameApp(packageName, index);
-            loadRecentGamesUI();
             UIUtils.showToast(this, "Game added successfully");
         } catch (Exception e) {
             Logger.e(TAG, "Error adding game to UI", e);
@@ -890,14 +1426,11 @@ public class MainActivity extends AppCompatActivity {
         }
         
         try {
+            // The slot listener rebinds the changed slot
             settingsManager.removeGameApp(index);
             
-            // Refresh UI on main thread
             if (!isFinishing() && !isDestroyed()) {
-                runOnUiThread(() -> {
-                    loadRecentGamesUI();
-                    UIUtils.showToast(this, getString(R.string.game_removed_success));
-                });
+                runOnUiThread(() -> UIUtils.showToast(this, getString(R.string.game_removed_success)));
             }
         } catch (Exception e) {
             Logger.e(TAG, "Error removing game from UI", e);
@@ -981,9 +1514,13 @@ public class MainActivity extends AppCompatActivity {
         Logger.d(TAG, "MainActivity resumed");
         // Always check permission again when resuming (auto-dismiss if granted)
         checkPermissions();
+        loadFpsGainStats();
+        // Boost and restore games started outside EliteG
+        SessionAgent.startDetection(this);
         if (settingsManager != null) {
-            // Refresh recent games in case something changed
+            // Refresh recent games in case something changed, then follow launches counted meanwhile
             loadRecentGamesUI();
+            settingsManager.syncRecentGames();
         }
     }
     
@@ -1009,6 +1546,7 @@ public class MainActivity extends AppCompatActivity {
         try {
             // Clear UI component references
             fpsPercentageText = null;
+            fpsLabelText = null;
             tweakedResolutionText = null;
             resolutionSeekBar = null;
             circularProgressBar = null;
@@ -1044,6 +1582,7 @@ public class MainActivity extends AppCompatActivity {
             }
             
             // Clear game list
+            CacheManager.unregister(GAME_LIST_CACHE);
             if (gameList != null) {
                 gameList.clear();
                 gameList = null;
@@ -1053,12 +1592,14 @@ public class MainActivity extends AppCompatActivity {
             layoutSettingsHidden = null;
             layoutSettingShown = null;
             
-            // Clear coefficients array
-            if (coefficients != null) {
-                coefficients = null;
-            }
+            // Clear precomputed resolution steps
+            resolutionLadder = null;
+            tweakedResolutionLabels = null;
             
             // Settings manager cleanup handled by its own lifecycle
+            if (settingsManager != null) {
+                settingsManager.getRecentGameSlots().removeListener(recentSlotListener);
+            }
             settingsManager = null;
             
             Logger.d(TAG, "Resource cleanup completed");
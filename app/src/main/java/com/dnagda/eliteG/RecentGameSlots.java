@@ -0,0 +1,227 @@
+package com.dnagda.eliteG;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory model of the recent game slots: the package name in each slot plus a version
+ * that is bumped on every change. Emptiness checks never touch the PackageManager, and
+ * listeners are told which single slot changed so only that slot needs to be rebound.
+ * The slots show the top ranked games of the {@link GameLibrary}.
+ */
+public final class RecentGameSlots {
+    private static final String TAG = "RecentGameSlots";
+
+    private static RecentGameSlots instance;
+
+    private final SettingsStore preferences;
+    private final String[] packageNames;
+    private final int[] versions;
+    // Set when a slot's package turned out to be uninstalled, so the slot can be reused
+    private final boolean[] missing;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told about changes to a single slot, on the thread that made the change
+     */
+    public interface Listener {
+        void onSlotChanged(int index, String packageName, int version);
+    }
+
+    RecentGameSlots(SettingsStore preferences, String[] packageNames) {
+        this.preferences = preferences;
+        this.packageNames = new String[Constants.MAX_RECENT_GAMES];
+        this.versions = new int[Constants.MAX_RECENT_GAMES];
+        this.missing = new boolean[Constants.MAX_RECENT_GAMES];
+        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+            String packageName = i < packageNames.length ? packageNames[i] : null;
+            this.packageNames[i] = packageName != null ? packageName : "";
+        }
+    }
+
+    /**
+     * Get the process-wide slot model, reading the slots from the settings on first use
+     */
+    public static synchronized RecentGameSlots getInstance(Context context) {
+        if (instance == null) {
+            SettingsStore preferences = SettingsStore.getInstance(context);
+            String[] packageNames = new String[Constants.MAX_RECENT_GAMES];
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                packageNames[i] = preferences.getString((i + 1) + Constants.PREF_GAME_SUFFIX, "");
+            }
+            instance = new RecentGameSlots(preferences, packageNames);
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Package name in the slot, or an empty string for an empty slot
+     */
+    public synchronized String getPackageName(int index) {
+        return isValidIndex(index) ? packageNames[index] : "";
+    }
+
+    /**
+     * Version of the slot, bumped on every change to it
+     */
+    public synchronized int getVersion(int index) {
+        return isValidIndex(index) ? versions[index] : 0;
+    }
+
+    /**
+     * Whether the slot has no game, or a game that is no longer installed
+     */
+    public synchronized boolean isEmpty(int index) {
+        return !isValidIndex(index) || packageNames[index].isEmpty() || missing[index];
+    }
+
+    /**
+     * Index of the first empty slot, or 0 if all slots are taken
+     */
+    public synchronized int findFirstEmpty() {
+        for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+            if (packageNames[i].isEmpty() || missing[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Put a game in the slot, or clear it with an empty package name
+     */
+    public void set(int index, String packageName) {
+        if (!isValidIndex(index)) {
+            Logger.w(TAG, "Invalid slot index: " + index);
+            return;
+        }
+        String value = packageName != null ? packageName : "";
+        int version;
+        synchronized (this) {
+            version = update(index, value);
+        }
+        if (version >= 0) {
+            persist(new int[]{index});
+            notifySlotChanged(index, value, version);
+        }
+    }
+
+    /**
+     * Show the given top ranked games. Slots already holding one of them keep it, so games
+     * do not move around; the remaining slots take the others in rank order.
+     */
+    public void sync(List<String> topGames) {
+        String[] next = new String[Constants.MAX_RECENT_GAMES];
+        int[] changed = new int[Constants.MAX_RECENT_GAMES];
+        int[] changedVersions = new int[Constants.MAX_RECENT_GAMES];
+        int changedCount = 0;
+        synchronized (this) {
+            Set<String> placed = new HashSet<>();
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                String packageName = packageNames[i];
+                if (!missing[i] && topGames.contains(packageName) && placed.add(packageName)) {
+                    next[i] = packageName;
+                }
+            }
+            int pending = 0;
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                if (next[i] != null) {
+                    continue;
+                }
+                next[i] = "";
+                while (pending < topGames.size()) {
+                    String candidate = topGames.get(pending++);
+                    if (candidate != null && !candidate.isEmpty() && placed.add(candidate)) {
+                        next[i] = candidate;
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                int version = update(i, next[i]);
+                if (version >= 0) {
+                    changed[changedCount] = i;
+                    changedVersions[changedCount] = version;
+                    changedCount++;
+                }
+            }
+        }
+        if (changedCount == 0) {
+            return;
+        }
+        persist(Arrays.copyOf(changed, changedCount));
+        for (int i = 0; i < changedCount; i++) {
+            notifySlotChanged(changed[i], next[changed[i]], changedVersions[i]);
+        }
+        Logger.d(TAG, changedCount + " recent slots changed by ranking");
+    }
+
+    public void clear(int index) {
+        set(index, "");
+    }
+
+    /**
+     * Record that the slot's package could not be resolved. Ignored if the slot changed
+     * since {@code version} was read.
+     */
+    public synchronized void markMissing(int index, int version) {
+        if (isValidIndex(index) && versions[index] == version && !packageNames[index].isEmpty()) {
+            missing[index] = true;
+        }
+    }
+
+    /**
+     * Change a slot under the lock, returning its new version or -1 if nothing changed
+     */
+    private int update(int index, String packageName) {
+        if (packageName.equals(packageNames[index]) && !missing[index]) {
+            return -1;
+        }
+        packageNames[index] = packageName;
+        missing[index] = false;
+        return ++versions[index];
+    }
+
+    private void persist(int[] indexes) {
+        if (preferences == null) {
+            return;
+        }
+        SettingsStore.Editor editor = preferences.edit();
+        for (int index : indexes) {
+            editor.putString((index + 1) + Constants.PREF_GAME_SUFFIX, getPackageName(index));
+        }
+        editor.apply(); // Non-blocking
+    }
+
+    private void notifySlotChanged(int index, String packageName, int version) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onSlotChanged(index, packageName, version);
+            } catch (Exception e) {
+                Logger.e(TAG, "Slot listener failed", e);
+            }
+        }
+    }
+
+    private static boolean isValidIndex(int index) {
+        return index >= 0 && index < Constants.MAX_RECENT_GAMES;
+    }
+}
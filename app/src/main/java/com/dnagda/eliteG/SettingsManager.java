@@ -2,11 +2,11 @@ package com.dnagda.eliteG;
 
 import android.app.Activity;
 import android.content.Context;
-import android.content.SharedPreferences;
 
 import com.dnagda.eliteG.utils.Constants;
 import com.dnagda.eliteG.utils.Logger;
 import com.dnagda.eliteG.utils.PerformanceUtils;
+import com.dnagda.eliteG.utils.SocDatabase;
 import com.dnagda.eliteG.utils.UIUtils;
 
 import java.util.List;
@@ -25,14 +25,16 @@ public class SettingsManager {
     private boolean isRoot;
     
     // Core components
-    private final SharedPreferences preferences;
+    private final SettingsStore preferences;
     private final Context context; // Use Application context to avoid memory leaks
-    private final int[] displayStats = new int[3]; // Width, Height, DPI
+    private final RecentGameSlots recentGameSlots;
+    private final int[] displayStats = new int[3]; // Width, Height, DPI; updated off the main thread
 
     public SettingsManager(Activity activity) {
         // Use Application context to avoid memory leaks
         this.context = activity.getApplicationContext();
-        this.preferences = activity.getSharedPreferences(Constants.SETTINGS_FILE_NAME, Context.MODE_PRIVATE);
+        this.preferences = SettingsStore.getInstance(activity);
+        this.recentGameSlots = RecentGameSlots.getInstance(activity);
         
         // Initialize display stats using the activity context (safe for one-time operation)
         initializeDisplayStats(activity);
@@ -52,7 +54,7 @@ public class SettingsManager {
     }
     
     /**
-     * Load settings from SharedPreferences
+     * Load settings from the settings store
      */
     private void loadSettings() {
         isRoot = false; // Elite G uses ADB instead of root
@@ -64,15 +66,21 @@ public class SettingsManager {
 
     // Getter methods
     public int getCurrentWidth() {
-        return displayStats[0];
+        synchronized (displayStats) {
+            return displayStats[0];
+        }
     }
 
     public int getCurrentHeight() {
-        return displayStats[1];
+        synchronized (displayStats) {
+            return displayStats[1];
+        }
     }
 
     public int getCurrentDensity() {
-        return displayStats[2];
+        synchronized (displayStats) {
+            return displayStats[2];
+        }
     }
 
     public boolean isFirstLaunch() {
@@ -101,13 +109,20 @@ public class SettingsManager {
             Logger.w(TAG, "Invalid game index: " + index);
             return null;
         }
-        String packageName = preferences.getString(index + Constants.PREF_GAME_SUFFIX, "");
-        if (packageName == null || packageName.isEmpty()) {
+        String packageName = recentGameSlots.getPackageName(index - 1);
+        if (packageName.isEmpty()) {
             return null;
         }
         return GameAppManager.getGameApp(context, packageName);
     }
 
+    /**
+     * Slot model backing the recent games, for emptiness checks and per-slot change events
+     */
+    public RecentGameSlots getRecentGameSlots() {
+        return recentGameSlots;
+    }
+
     public boolean isLMKActivated() {
         return aggressiveLowMemoryKiller;
     }
@@ -128,6 +143,25 @@ public class SettingsManager {
         return preferences.getInt(Constants.PREF_LAST_RESOLUTION_SCALE, Constants.DEFAULT_RESOLUTION_SCALE);
     }
 
+    public boolean isAdaptiveResolutionEnabled() {
+        return preferences.getBoolean(Constants.PREF_ADAPTIVE_RESOLUTION, false);
+    }
+
+    public int getAdaptiveMinScale() {
+        return preferences.getInt(Constants.PREF_ADAPTIVE_MIN_SCALE, Constants.DEFAULT_ADAPTIVE_MIN_SCALE);
+    }
+
+    public int getAdaptiveMaxScale() {
+        return preferences.getInt(Constants.PREF_ADAPTIVE_MAX_SCALE, Constants.DEFAULT_ADAPTIVE_MAX_SCALE);
+    }
+
+    /**
+     * Get the frame rate the adaptive controller holds, 0 to follow the game's best rate
+     */
+    public int getAdaptiveTargetFps() {
+        return preferences.getInt(Constants.PREF_ADAPTIVE_TARGET_FPS, 0);
+    }
+
     /**
      * Get recommended resolution scale based on device capabilities
      */
@@ -142,7 +176,7 @@ public class SettingsManager {
     public void initializeFirstLaunch() {
         Logger.d(TAG, "Initializing first launch settings");
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         int width = getCurrentWidth();
         int height = getCurrentHeight();
         int density = getCurrentDensity();
@@ -154,7 +188,9 @@ public class SettingsManager {
         editor.putBoolean(Constants.PREF_FIRST_LAUNCH, false);
         
         // Set recommended resolution scale for first-time users
-        int recommendedScale = getRecommendedResolutionScale();
+        SocDatabase.SocProfile soc = SocDatabase.lookupDevice(context);
+        int recommendedScale = PerformanceUtils.getRecommendedResolutionScale(context, soc, width, height);
+        Logger.d(TAG, "Recommended scale " + recommendedScale + " for SoC " + soc);
         editor.putInt(Constants.PREF_LAST_RESOLUTION_SCALE, recommendedScale);
         
         editor.apply(); // Non-blocking
@@ -162,6 +198,10 @@ public class SettingsManager {
         Logger.d(TAG, "First launch initialization " + (success ? "successful" : "failed"));
     }
 
+    /**
+     * Change the display size and density. Runs shell commands and waits for them,
+     * do not call on the main thread.
+     */
     public boolean setScreenDimension(int height, int width) {
         Logger.d(TAG, "Setting screen dimension to " + width + "x" + height);
         
@@ -174,19 +214,15 @@ public class SettingsManager {
 
         Logger.d(TAG, "Calculated DPI: " + densityDPI);
         
-        boolean success;
-        if (height < getCurrentHeight()) { // Scale Down
-            success = ExecuteADBCommands.changeDensity(densityDPI) && 
-                     ExecuteADBCommands.changeResolution(width, height);
-        } else { // Scale up
-            success = ExecuteADBCommands.changeResolution(width, height) && 
-                     ExecuteADBCommands.changeDensity(densityDPI);
-        }
+        boolean scaleDown = height < getCurrentHeight();
+        boolean success = ExecuteADBCommands.changeDisplay(width, height, densityDPI, scaleDown);
 
         if (success) {
-            displayStats[0] = width;
-            displayStats[1] = height;
-            displayStats[2] = densityDPI;
+            synchronized (displayStats) {
+                displayStats[0] = width;
+                displayStats[1] = height;
+                displayStats[2] = densityDPI;
+            }
             Logger.d(TAG, "Screen dimension updated successfully");
         } else {
             Logger.e(TAG, "Failed to update screen dimension");
@@ -201,9 +237,14 @@ public class SettingsManager {
             return;
         }
         
-        SharedPreferences.Editor editor = preferences.edit();
-        editor.putString((index + 1) + Constants.PREF_GAME_SUFFIX, packageName);
-        editor.apply(); // Non-blocking
+        String replaced = recentGameSlots.getPackageName(index);
+        recentGameSlots.set(index, packageName);
+        // The new game takes the rank of the one it replaced so the next sync keeps it here
+        GameLibrary library = GameLibrary.getInstance(context);
+        library.execute(() -> {
+            library.add(packageName);
+            library.takeRank(packageName, replaced.isEmpty() ? null : replaced, Constants.MAX_RECENT_GAMES);
+        });
         boolean success = true;
         
         Logger.d(TAG, "Game app " + packageName + " " + (success ? "added" : "failed to add") + 
@@ -216,28 +257,39 @@ public class SettingsManager {
             return;
         }
         
-        SharedPreferences.Editor editor = preferences.edit();
-        editor.putString((index + 1) + Constants.PREF_GAME_SUFFIX, "");
-        editor.apply(); // Non-blocking
+        String packageName = recentGameSlots.getPackageName(index);
+        recentGameSlots.clear(index);
+        if (!packageName.isEmpty()) {
+            // The next ranked game moves into the freed slot
+            GameLibrary library = GameLibrary.getInstance(context);
+            library.execute(() -> {
+                library.remove(packageName);
+                recentGameSlots.sync(library.getTop(Constants.MAX_RECENT_GAMES));
+            });
+        }
         boolean success = true;
         
         Logger.d(TAG, "Game app " + (success ? "removed" : "failed to remove") + 
                 " from index " + index);
     }
 
+    /**
+     * Show the top ranked library games in the recent slots, in the background.
+     * Launches are counted by the :agent process, so call this when returning to the app.
+     */
+    public void syncRecentGames() {
+        GameLibrary library = GameLibrary.getInstance(context);
+        library.execute(() -> recentGameSlots.sync(library.getTop(Constants.MAX_RECENT_GAMES)));
+    }
+
     public int findFirstEmptyRecentGameApp() {
-        for (int i = 1; i <= Constants.MAX_RECENT_GAMES; i++) {
-            if (getRecentGameApp(i) == null) {
-                return i - 1;
-            }
-        }
-        return 0; // All slots are full, return first slot
+        return recentGameSlots.findFirstEmpty(); // First slot if all are full
     }
 
     public void setLMK(boolean state) {
         aggressiveLowMemoryKiller = state;
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.putBoolean(Constants.PREF_AGGRESSIVE_LMK, state);
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -249,7 +301,7 @@ public class SettingsManager {
     public void setMurderer(boolean state) {
         killAllOtherApps = state;
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.putBoolean(Constants.PREF_IS_MURDERER, state);
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -261,7 +313,7 @@ public class SettingsManager {
     public void setKeepStockDPI(boolean state) {
         keepStockDpi = state;
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.putBoolean(Constants.PREF_KEEP_STOCK_DPI, state);
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -273,7 +325,7 @@ public class SettingsManager {
     public void setLastResolutionScale(int scale) {
         int validatedScale = PerformanceUtils.validateResolutionScale(scale);
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.putInt(Constants.PREF_LAST_RESOLUTION_SCALE, validatedScale);
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -282,10 +334,25 @@ public class SettingsManager {
                 " to " + validatedScale);
     }
 
+    public void setAdaptiveResolution(boolean enabled, int minScale, int maxScale, int targetFps) {
+        int validatedMin = Math.max(0, Math.min(Constants.MAX_RESOLUTION_SCALE, minScale));
+        int validatedMax = Math.max(validatedMin, Math.min(Constants.MAX_RESOLUTION_SCALE, maxScale));
+
+        SettingsStore.Editor editor = preferences.edit();
+        editor.putBoolean(Constants.PREF_ADAPTIVE_RESOLUTION, enabled);
+        editor.putInt(Constants.PREF_ADAPTIVE_MIN_SCALE, validatedMin);
+        editor.putInt(Constants.PREF_ADAPTIVE_MAX_SCALE, validatedMax);
+        editor.putInt(Constants.PREF_ADAPTIVE_TARGET_FPS, Math.max(0, targetFps));
+        editor.apply(); // Non-blocking
+
+        Logger.d(TAG, "Adaptive resolution " + (enabled ? "enabled" : "disabled") +
+                " within " + validatedMin + ".." + validatedMax);
+    }
+
     public void setRootState(boolean state) {
         isRoot = state;
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.putBoolean(Constants.PREF_IS_ROOT, state);
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -304,7 +371,7 @@ public class SettingsManager {
     public void resetToDefaults() {
         Logger.d(TAG, "Resetting all settings to defaults");
         
-        SharedPreferences.Editor editor = preferences.edit();
+        SettingsStore.Editor editor = preferences.edit();
         editor.clear();
         editor.apply(); // Non-blocking
         boolean success = true;
@@ -329,6 +396,8 @@ public class SettingsManager {
         export.append("Keep Stock DPI: ").append(keepStockDPI()).append("\n");
         export.append("LMK Activated: ").append(isLMKActivated()).append("\n");
         export.append("Murderer Mode: ").append(isMurderer()).append("\n");
+        export.append("Adaptive Resolution: ").append(isAdaptiveResolutionEnabled()).append(" (")
+                .append(getAdaptiveMinScale()).append("..").append(getAdaptiveMaxScale()).append(")\n");
         
         return export.toString();
     }
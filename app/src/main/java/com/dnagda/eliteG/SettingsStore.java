@@ -0,0 +1,534 @@
+package com.dnagda.eliteG;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings backed by a small binary file instead of SharedPreferences XML.
+ *
+ * Reads come from an immutable in-memory snapshot without locking. Edits replace the snapshot
+ * at once and are written behind: edits applied within {@link #WRITE_DELAY_MS} of each other
+ * go to disk as one write. Each write goes to a temporary file that is synced and then
+ * renamed over the old one, so a crash leaves either the old or the new settings.
+ *
+ * The UI and :agent processes share the file. Writes hold a file lock across processes and
+ * replay only this process's edits over the file as it is on disk, so neither process
+ * overwrites the other's settings with an old snapshot.
+ *
+ * Layout: magic, version, entry count, then per entry a type byte, the key and the value.
+ */
+public final class SettingsStore {
+    private static final String TAG = "SettingsStore";
+
+    static final String FILE_NAME = "settings.bin";
+    static final int MAGIC = 0x45475354; // "EGST"
+    static final int VERSION = 1;
+    static final long WRITE_DELAY_MS = 100;
+    static final String METRIC_WRITE_TIME = "settings.write_ms";
+    // Larger files are not a settings file written by this class
+    private static final int MAX_FILE_BYTES = 256 * 1024;
+
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_STRING = 5;
+
+    // Marks a removed key among pending changes
+    private static final Object REMOVED = new Object();
+
+    // One store per file and process
+    private static final Map<String, SettingsStore> instances = new HashMap<>();
+
+    private final File file;
+    private final File lockFile;
+    // Per process, so the two processes never write the same temporary file
+    private final File tempFile;
+    // Guards the snapshot and edit state; held only briefly so apply() never waits on disk
+    private final Object lock = new Object();
+    // Serializes disk access in this process; taken before lock when both are needed
+    private final Object fileLock = new Object();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "EliteG-Settings");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Map<String, Object> snapshot = Collections.emptyMap();
+    // Guarded by lock: edits not written yet
+    private boolean writeScheduled;
+    private int pendingEdits;
+    private Map<String, Object> pendingChanges = new HashMap<>();
+    private boolean pendingClear;
+    // Guarded by fileLock: the file as last read or written by this process
+    private Map<String, Object> diskValues = Collections.emptyMap();
+    private long loadedModified;
+    private long loadedLength;
+
+    SettingsStore(File file) {
+        this.file = file;
+        this.lockFile = new File(file.getPath() + ".lock");
+        this.tempFile = new File(file.getPath() + "." + Process.myPid() + ".tmp");
+    }
+
+    /**
+     * Get the process-wide store, loading it on first use. The first load in a fresh install
+     * or after an update imports the old SharedPreferences settings, which are then cleared.
+     */
+    public static SettingsStore getInstance(Context context) {
+        return getInstance(context, FILE_NAME, Constants.SETTINGS_FILE_NAME);
+    }
+
+    /**
+     * Get the process-wide store kept in {@code fileName}, loading it on first use. Without
+     * a file, the SharedPreferences named {@code legacyPreferences} are imported and cleared.
+     */
+    public static synchronized SettingsStore getInstance(Context context, String fileName, String legacyPreferences) {
+        SettingsStore instance = instances.get(fileName);
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            SettingsStore store = new SettingsStore(new File(appContext.getFilesDir(), fileName));
+            if (!store.reload()) {
+                if (store.file.exists()) {
+                    // Never fall back to the imported settings, they are older than the file
+                    Logger.w(TAG, "Settings file unreadable, starting from defaults");
+                } else {
+                    store.importSharedPreferences(
+                            appContext.getSharedPreferences(legacyPreferences, Context.MODE_PRIVATE));
+                }
+            }
+            instances.put(fileName, store);
+            instance = store;
+        }
+        return instance;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public float getFloat(String key, float defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof Float ? (Float) value : defaultValue;
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = snapshot.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public boolean contains(String key) {
+        return snapshot.containsKey(key);
+    }
+
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Pick up a write made by the other process. Cheap when nothing changed;
+     * edits of this process that are not written yet stay on top.
+     */
+    public SettingsStore refresh() {
+        synchronized (fileLock) {
+            if (isFileChanged()) {
+                reload();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write pending edits now. Does disk I/O, do not call on the main thread.
+     */
+    public boolean flush() {
+        synchronized (fileLock) {
+            Map<String, Object> changes;
+            boolean clear;
+            int edits;
+            synchronized (lock) {
+                writeScheduled = false;
+                if (pendingChanges.isEmpty() && !pendingClear) {
+                    return true;
+                }
+                changes = pendingChanges;
+                clear = pendingClear;
+                edits = pendingEdits;
+                pendingChanges = new HashMap<>();
+                pendingClear = false;
+                pendingEdits = 0;
+            }
+            if (writeChanges(changes, clear, edits)) {
+                return true;
+            }
+            // Keep the changes for the next write, under any made meanwhile
+            synchronized (lock) {
+                if (!pendingClear) {
+                    changes.putAll(pendingChanges);
+                    pendingChanges = changes;
+                    pendingClear = clear;
+                }
+                pendingEdits += edits;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A set of changes that replace the snapshot together when applied
+     */
+    public final class Editor {
+        private final Map<String, Object> changes = new HashMap<>();
+        private boolean clear;
+
+        private Editor() {
+        }
+
+        public Editor putBoolean(String key, boolean value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        public Editor putInt(String key, int value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        public Editor putLong(String key, long value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        public Editor putFloat(String key, float value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        public Editor putString(String key, String value) {
+            changes.put(key, value != null ? value : REMOVED);
+            return this;
+        }
+
+        public Editor remove(String key) {
+            changes.put(key, REMOVED);
+            return this;
+        }
+
+        /**
+         * Remove all settings before the other changes of this editor are applied
+         */
+        public Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        /**
+         * Apply the changes to the snapshot now and write them to disk shortly after
+         */
+        public void apply() {
+            synchronized (lock) {
+                merge(this);
+                if (!writeScheduled) {
+                    writeScheduled = true;
+                    writer.schedule(SettingsStore.this::writeScheduled, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        /**
+         * Apply the changes and write them to disk before returning.
+         * Does disk I/O, do not call on the main thread.
+         */
+        public boolean commit() {
+            synchronized (lock) {
+                merge(this);
+            }
+            return flush();
+        }
+    }
+
+    // Called with lock held
+    private void merge(Editor editor) {
+        Map<String, Object> next = editor.clear ? new HashMap<>() : new HashMap<>(snapshot);
+        applyChanges(next, editor.changes);
+        snapshot = Collections.unmodifiableMap(next);
+        if (editor.clear) {
+            pendingClear = true;
+            pendingChanges.clear();
+        }
+        pendingChanges.putAll(editor.changes);
+        pendingEdits++;
+    }
+
+    private static void applyChanges(Map<String, Object> values, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == REMOVED) {
+                values.remove(change.getKey());
+            } else {
+                values.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    private void writeScheduled() {
+        synchronized (lock) {
+            if (!writeScheduled) {
+                return; // Already written by flush() or commit()
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Replay changes over the file as it is now and write the result, holding the file lock
+     * so the other process can't write in between. Called with fileLock held.
+     */
+    private boolean writeChanges(Map<String, Object> changes, boolean clear, int edits) {
+        long start = SystemClock.elapsedRealtime();
+        try (RandomAccessFile lockAccess = new RandomAccessFile(lockFile, "rw");
+             FileLock processLock = lockAccess.getChannel().lock()) {
+            if (isFileChanged()) {
+                // Written by the other process since we last looked
+                Map<String, Object> loaded = read();
+                if (loaded != null) {
+                    diskValues = loaded;
+                }
+            }
+            Map<String, Object> values = clear ? new HashMap<>() : new HashMap<>(diskValues);
+            applyChanges(values, changes);
+            if (!write(values)) {
+                return false;
+            }
+            synchronized (lock) {
+                // Shows what the other process wrote, under edits made since the changes were taken
+                snapshot = withPendingChanges(values);
+            }
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not lock settings file", e);
+            return false;
+        }
+        long duration = SystemClock.elapsedRealtime() - start;
+        PerformanceMonitor.recordMetric(METRIC_WRITE_TIME, duration);
+        Logger.d(TAG, "Wrote " + edits + " settings edits in one write (" + duration + "ms)");
+        return true;
+    }
+
+    // Called with fileLock and the file lock held
+    private boolean write(Map<String, Object> values) {
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(encode(values));
+            out.getFD().sync();
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not write settings", e);
+            return false;
+        }
+        if (!tempFile.renameTo(file)) {
+            Logger.e(TAG, "Could not replace settings file");
+            return false;
+        }
+        diskValues = Collections.unmodifiableMap(values);
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+        return true;
+    }
+
+    // Called with lock held
+    private Map<String, Object> withPendingChanges(Map<String, Object> values) {
+        Map<String, Object> next = pendingClear ? new HashMap<>() : new HashMap<>(values);
+        applyChanges(next, pendingChanges);
+        return Collections.unmodifiableMap(next);
+    }
+
+    // Called with fileLock held
+    private boolean isFileChanged() {
+        return file.lastModified() != loadedModified || file.length() != loadedLength;
+    }
+
+    /**
+     * Replace the snapshot with the file contents and the pending edits, returning false if
+     * there is no usable file. Called with fileLock held, or before the store is published.
+     */
+    private boolean reload() {
+        Map<String, Object> loaded = read();
+        if (loaded == null) {
+            return false;
+        }
+        diskValues = loaded;
+        synchronized (lock) {
+            snapshot = withPendingChanges(loaded);
+        }
+        return true;
+    }
+
+    /**
+     * Read the file, or return null if there is no usable file. Called with fileLock held.
+     */
+    private Map<String, Object> read() {
+        // Taken before reading: a write in between shows up as a change next time
+        long modified = file.lastModified();
+        long length = file.length();
+        if (length <= 0 || length > MAX_FILE_BYTES) {
+            return null;
+        }
+        byte[] data = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    return null;
+                }
+                read += n;
+            }
+            Map<String, Object> loaded = decode(data);
+            if (loaded == null) {
+                return null;
+            }
+            loadedModified = modified;
+            loadedLength = length;
+            return Collections.unmodifiableMap(loaded);
+        } catch (IOException e) {
+            Logger.w(TAG, "Discarding unreadable settings file", e);
+            return null;
+        }
+    }
+
+    /**
+     * Import the SharedPreferences settings unless the other process got there first,
+     * then clear them so they are never imported again
+     */
+    private void importSharedPreferences(SharedPreferences preferences) {
+        Map<String, Object> imported = new HashMap<>();
+        for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                    || value instanceof Float || value instanceof String) {
+                imported.put(entry.getKey(), value);
+            }
+        }
+        synchronized (fileLock) {
+            try (RandomAccessFile lockAccess = new RandomAccessFile(lockFile, "rw");
+                 FileLock processLock = lockAccess.getChannel().lock()) {
+                if (reload()) {
+                    Logger.d(TAG, "Settings already imported by the other process");
+                    return;
+                }
+                if (!write(imported)) {
+                    return;
+                }
+                snapshot = diskValues;
+            } catch (IOException e) {
+                Logger.e(TAG, "Could not lock settings file for import", e);
+                return;
+            }
+        }
+        preferences.edit().clear().commit();
+        Logger.d(TAG, "Imported " + imported.size() + " settings from SharedPreferences");
+    }
+
+    static byte[] encode(Map<String, Object> values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeUTF(entry.getKey());
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(TYPE_INT);
+                out.writeUTF(entry.getKey());
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeUTF(entry.getKey());
+                out.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                out.writeByte(TYPE_FLOAT);
+                out.writeUTF(entry.getKey());
+                out.writeFloat((Float) value);
+            } else {
+                out.writeByte(TYPE_STRING);
+                out.writeUTF(entry.getKey());
+                out.writeUTF(String.valueOf(value));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse a settings file, or return null if the magic or version does not match
+     */
+    static Map<String, Object> decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return null;
+        }
+        int count = in.readInt();
+        if (count < 0 || count > data.length) {
+            throw new IOException("Bad entry count " + count);
+        }
+        Map<String, Object> values = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            String key = in.readUTF();
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    values.put(key, in.readBoolean());
+                    break;
+                case TYPE_INT:
+                    values.put(key, in.readInt());
+                    break;
+                case TYPE_LONG:
+                    values.put(key, in.readLong());
+                    break;
+                case TYPE_FLOAT:
+                    values.put(key, in.readFloat());
+                    break;
+                case TYPE_STRING:
+                    values.put(key, in.readUTF());
+                    break;
+                default:
+                    throw new IOException("Bad entry type " + type);
+            }
+        }
+        return values;
+    }
+}
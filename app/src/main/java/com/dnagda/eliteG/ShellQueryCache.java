@@ -0,0 +1,203 @@
+package com.dnagda.eliteG;
+
+import android.os.SystemClock;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares the output of read-only shell commands. Identical queries running at the same time
+ * wait for one process instead of each starting their own, and successful results of slowly
+ * changing state (properties, display size, package state) are kept for a short time.
+ *
+ * A shared run is only cancelled once every caller waiting for it was cancelled.
+ *
+ * A command that changes state drops the cached results it may affect, so e.g. "wm size"
+ * is read again after a resolution change. Released with the PRIORITY_LOW tier of CacheManager.
+ */
+final class ShellQueryCache {
+
+    static final long PROPERTY_TTL_MS = 60_000;
+    static final long DISPLAY_TTL_MS = 5_000;
+    static final long PACKAGE_TTL_MS = 2_000;
+
+    private static final class Cached {
+        final ExecuteADBCommands.CommandResult result;
+        final long expiresAt;
+
+        Cached(ExecuteADBCommands.CommandResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * One run of a query and the callers waiting for it
+     */
+    private static final class Flight {
+        final CompletableFuture<ExecuteADBCommands.CommandResult> result = new CompletableFuture<>();
+        final ExecuteADBCommands.ProcessHandle handle = new ExecuteADBCommands.ProcessHandle();
+        private int waiters;
+        private boolean abandoned;
+
+        /**
+         * Count a caller until {@code caller} is cancelled. False if every earlier caller
+         * was cancelled already, so the run is being stopped.
+         */
+        boolean join(ExecuteADBCommands.ProcessHandle caller) {
+            synchronized (this) {
+                if (abandoned) {
+                    return false;
+                }
+                waiters++;
+            }
+            if (caller != null && !caller.whenCancelled(this::leave)) {
+                leave();
+            }
+            return true;
+        }
+
+        synchronized int getWaiters() {
+            return waiters;
+        }
+
+        private void leave() {
+            synchronized (this) {
+                if (--waiters > 0) {
+                    return;
+                }
+                abandoned = true;
+            }
+            handle.cancel();
+        }
+    }
+
+    private final LongSupplier clock;
+    private final Map<Cmd, Cached> cache = new ConcurrentHashMap<>();
+    private final Map<Cmd, Flight> inFlight = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a query that overlapped a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    ShellQueryCache() {
+        this(SystemClock::elapsedRealtime);
+    }
+
+    ShellQueryCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Get the result of a read-only command from the cache, from an identical run in
+     * progress, or by running it with {@code runner}
+     */
+    ExecuteADBCommands.CommandResult query(Cmd command, Function<Cmd, ExecuteADBCommands.CommandResult> runner) {
+        return query(command, null, (query, handle) -> runner.apply(query));
+    }
+
+    /**
+     * Like {@link #query(Cmd, Function)} for a caller that may be cancelled through
+     * {@code caller}. The run is given its own handle, which is cancelled once no caller
+     * waits for it anymore; a caller cancelled earlier just stops counting.
+     */
+    ExecuteADBCommands.CommandResult query(Cmd command, ExecuteADBCommands.ProcessHandle caller,
+                                           BiFunction<Cmd, ExecuteADBCommands.ProcessHandle, ExecuteADBCommands.CommandResult> runner) {
+        Cached cached = cache.get(command);
+        if (cached != null && clock.getAsLong() < cached.expiresAt) {
+            return cached.result;
+        }
+
+        Flight mine = new Flight();
+        Flight running = inFlight.putIfAbsent(command, mine);
+        if (running != null) {
+            if (running.join(caller)) {
+                return await(running.result);
+            }
+            // Everyone else gave up on that run, so it is no use waiting for it
+            return runner.apply(command, caller);
+        }
+
+        mine.join(caller);
+        long startGeneration = generation.get();
+        try {
+            ExecuteADBCommands.CommandResult result = runner.apply(command, mine.handle);
+            long ttl = getTtlMs(command);
+            if (result.success && ttl > 0 && generation.get() == startGeneration) {
+                cache.put(command, new Cached(result, clock.getAsLong() + ttl));
+            }
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(command, mine);
+        }
+    }
+
+    /**
+     * Number of callers waiting for the run of {@code command} in progress, 0 if none
+     */
+    int getWaiters(Cmd command) {
+        Flight running = inFlight.get(command);
+        return running != null ? running.getWaiters() : 0;
+    }
+
+    /**
+     * Drop cached results that a state-changing command may have made stale
+     */
+    void invalidate(Cmd write) {
+        generation.incrementAndGet();
+        String program = write.getArgv()[0];
+        // Display changes only affect wm queries; package and process changes show in dumpsys
+        String affected = "wm".equals(program) ? "wm" : "dumpsys";
+        cache.keySet().removeIf(query -> affected.equals(query.getArgv()[0]));
+    }
+
+    /**
+     * Drop every cached result, returning the estimated number of bytes freed
+     */
+    long trim() {
+        long bytes = 0;
+        for (Cached cached : cache.values()) {
+            bytes += 2L * (cached.result.output.length() + cached.result.error.length());
+        }
+        generation.incrementAndGet();
+        cache.clear();
+        return bytes;
+    }
+
+    /**
+     * How long a successful result of the command stays valid; 0 to only share concurrent runs
+     */
+    static long getTtlMs(Cmd command) {
+        String[] argv = command.getArgv();
+        switch (argv[0]) {
+            case "getprop":
+                return PROPERTY_TTL_MS;
+            case "wm":
+                return DISPLAY_TTL_MS;
+            case "dumpsys":
+                return argv.length > 1 && "package".equals(argv[1]) ? PACKAGE_TTL_MS : 0;
+            default:
+                return 0; // e.g. settings get, which the journal needs fresh
+        }
+    }
+
+    private static ExecuteADBCommands.CommandResult await(CompletableFuture<ExecuteADBCommands.CommandResult> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExecuteADBCommands.CommandResult(false, -1, "", e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new ExecuteADBCommands.CommandResult(false, -1, "", String.valueOf(cause.getMessage()));
+        }
+    }
+}
@@ -1,58 +1,73 @@
 package com.dnagda.eliteG;
 
-import android.animation.ObjectAnimator;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import android.view.View;
+import android.os.SystemClock;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.dnagda.eliteG.utils.Constants;
 import com.dnagda.eliteG.utils.Logger;
 
 /**
  * Enhanced splash screen activity for EliteG.
- * Provides smooth app initialization and permission checking.
+ * Keeps the system splash screen up only while StartupPreloader runs, then opens MainActivity.
  */
 public class SplashScreen extends AppCompatActivity {
     private static final String TAG = "SplashScreen";
-    private static final long SPLASH_DELAY_MS = 2000; // 2 seconds
+    // Upper bound in case preloading hangs (e.g. a stuck shell command)
+    private static final long MAX_SPLASH_MS = 3000;
 
     private Handler splashHandler;
     private Runnable splashRunnable;
+    // Kept so it can be removed from StartupPreloader once the splash stops waiting
+    private final Runnable preloadCallback = this::onPreloadReady;
+    private volatile boolean ready;
+    private boolean proceeded;
+    private long createdAt;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
+        androidx.core.splashscreen.SplashScreen splashScreen =
+                androidx.core.splashscreen.SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
         Logger.d(TAG, "SplashScreen onCreate started");
+        createdAt = SystemClock.elapsedRealtime();
 
         try {
-            // Set the splash screen theme (handled by manifest)
-            // No need to set content view as background is handled by theme
-            
-            initializeSplashTimer();
-            
+            splashScreen.setKeepOnScreenCondition(() -> !ready);
+            initializeSplashTimeout();
+            StartupPreloader.start(this, preloadCallback);
         } catch (Exception e) {
             Logger.e(TAG, "Error in splash screen onCreate", e);
             // If there's an error, proceed immediately
-            proceedToNextActivity();
+            onPreloadReady();
         }
     }
 
     /**
-     * Initialize splash screen timer
+     * Dismiss the splash after the timeout even if preloading has not finished
      */
-    private void initializeSplashTimer() {
+    private void initializeSplashTimeout() {
         splashHandler = new Handler(Looper.getMainLooper());
-        splashRunnable = this::proceedToNextActivity;
-        
-        // Show splash for specified duration
-        splashHandler.postDelayed(splashRunnable, SPLASH_DELAY_MS);
-        
-        Logger.d(TAG, "Splash timer initialized for " + SPLASH_DELAY_MS + "ms");
+        splashRunnable = () -> {
+            Logger.w(TAG, "Startup preload not done after " + MAX_SPLASH_MS + "ms, continuing");
+            StartupPreloader.removeCallback(preloadCallback);
+            onPreloadReady();
+        };
+        splashHandler.postDelayed(splashRunnable, MAX_SPLASH_MS);
+    }
+
+    private void onPreloadReady() {
+        if (proceeded || isFinishing()) {
+            return;
+        }
+        proceeded = true;
+        ready = true;
+        Logger.d(TAG, "Splash shown for " + (SystemClock.elapsedRealtime() - createdAt) + "ms");
+        proceedToNextActivity();
     }
 
     /**
@@ -60,7 +75,7 @@ public class SplashScreen extends AppCompatActivity {
      */
     private void proceedToNextActivity() {
         Logger.d(TAG, "Proceeding to next activity");
-        
+
         try {
             Intent nextIntent = new Intent(this, MainActivity.class);
             // Add flags to prevent returning to splash screen
@@ -80,12 +95,13 @@ public class SplashScreen extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        
+
         // Clean up handler to prevent memory leaks
         if (splashHandler != null && splashRunnable != null) {
             splashHandler.removeCallbacks(splashRunnable);
         }
-        
+        StartupPreloader.removeCallback(preloadCallback);
+
         Logger.d(TAG, "SplashScreen destroyed");
     }
 
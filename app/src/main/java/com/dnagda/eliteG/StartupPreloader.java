@@ -0,0 +1,141 @@
+package com.dnagda.eliteG;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+import com.dnagda.eliteG.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads what MainActivity needs for its first frame while the splash screen is shown:
+ * settings, the top ranked games with icons and the ADB permission state.
+ * The splash screen is dismissed as soon as this finishes.
+ */
+public final class StartupPreloader {
+    private static final String TAG = "StartupPreloader";
+
+    static final String METRIC_PRELOAD_TIME = "startup.preload_ms";
+
+    private static final Object LOCK = new Object();
+    private static boolean started;
+    private static Result result;
+    // Bumped when a load is started or given up on, so a late result of an abandoned load is dropped
+    private static int generation;
+    private static final List<Runnable> readyCallbacks = new ArrayList<>();
+
+    /**
+     * Preloaded startup state
+     */
+    public static final class Result {
+        public final GameApp[] recentGames;
+        public final boolean hasAdbPermissions;
+        public final long durationMs;
+
+        Result(GameApp[] recentGames, boolean hasAdbPermissions, long durationMs) {
+            this.recentGames = recentGames;
+            this.hasAdbPermissions = hasAdbPermissions;
+            this.durationMs = durationMs;
+        }
+    }
+
+    // Prevent instantiation
+    private StartupPreloader() {
+        throw new AssertionError("StartupPreloader class should not be instantiated");
+    }
+
+    /**
+     * Start preloading in the background if not already started.
+     * {@code onReady} runs on the main thread once the result is available.
+     */
+    public static void start(Context context, Runnable onReady) {
+        Context appContext = context.getApplicationContext();
+        final int loadGeneration;
+        synchronized (LOCK) {
+            if (result != null) {
+                ThreadUtils.executeOnMainThread(onReady);
+                return;
+            }
+            readyCallbacks.add(onReady);
+            if (started) {
+                return;
+            }
+            started = true;
+            loadGeneration = ++generation;
+        }
+        ThreadUtils.executeIoTask(() -> finish(loadGeneration, load(appContext)));
+    }
+
+    /**
+     * Stop waiting for the result; {@code onReady} will not be run
+     */
+    public static void removeCallback(Runnable onReady) {
+        synchronized (LOCK) {
+            readyCallbacks.remove(onReady);
+        }
+    }
+
+    /**
+     * Take the preloaded state, or null if preloading has not finished.
+     * Each result is handed out once so later activity instances probe live state.
+     * Taking before the load finished abandons it: its result is dropped when it arrives.
+     */
+    public static Result takeResult() {
+        synchronized (LOCK) {
+            Result taken = result;
+            if (taken == null && started) {
+                generation++;
+                readyCallbacks.clear();
+                Logger.d(TAG, "Startup preload abandoned, its result will be dropped");
+            }
+            result = null;
+            started = false;
+            return taken;
+        }
+    }
+
+    private static Result load(Context context) {
+        long start = SystemClock.elapsedRealtime();
+        GameApp[] recentGames = new GameApp[Constants.MAX_RECENT_GAMES];
+        boolean hasAdbPermissions = false;
+        try {
+            // Loads the settings file and the slot model off the main thread
+            RecentGameSlots slots = RecentGameSlots.getInstance(context);
+            slots.sync(GameLibrary.getInstance(context).getTop(Constants.MAX_RECENT_GAMES));
+            for (int i = 0; i < Constants.MAX_RECENT_GAMES; i++) {
+                String packageName = slots.getPackageName(i);
+                if (!packageName.isEmpty()) {
+                    // Also warms the icon cache
+                    recentGames[i] = GameAppManager.getGameApp(context, packageName);
+                }
+            }
+            hasAdbPermissions = ExecuteADBCommands.hasADBPermissions();
+        } catch (Exception e) {
+            Logger.e(TAG, "Error preloading startup state", e);
+        }
+        long durationMs = SystemClock.elapsedRealtime() - start;
+        PerformanceMonitor.recordMetric(METRIC_PRELOAD_TIME, durationMs);
+        Logger.d(TAG, "Startup preload finished in " + durationMs + "ms");
+        return new Result(recentGames, hasAdbPermissions, durationMs);
+    }
+
+    private static void finish(int loadGeneration, Result loaded) {
+        List<Runnable> callbacks;
+        synchronized (LOCK) {
+            if (loadGeneration != generation) {
+                Logger.d(TAG, "Dropping startup preload result nobody is waiting for");
+                return;
+            }
+            result = loaded;
+            callbacks = new ArrayList<>(readyCallbacks);
+            readyCallbacks.clear();
+        }
+        for (Runnable callback : callbacks) {
+            ThreadUtils.executeOnMainThread(callback);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.dnagda.eliteG.session;
+
+/**
+ * Closed-loop resolution controller for a running game.
+ * Steps the resolution scale (0 = native, higher = lower resolution) within user bounds
+ * from frame pacing samples. Thermal throttling is left to {@link ThermalPolicy}, whose offset
+ * the caller adds on top. Pure Java state machine: the caller supplies timestamps, so
+ * recorded traces can be replayed in tests.
+ */
+public final class AdaptiveResolutionController {
+
+    // Mirrors PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_STATUS_NONE = 0;
+    public static final int THERMAL_STATUS_LIGHT = 1;
+    public static final int THERMAL_STATUS_MODERATE = 2;
+    public static final int THERMAL_STATUS_SEVERE = 3;
+
+    static final int SCALE_STEP = 10;
+
+    // Hysteresis: consecutive samples needed before a step
+    static final int LOWER_AFTER_SAMPLES = 3;
+    static final int RAISE_AFTER_SAMPLES = 5;
+
+    // Minimum time between two reconfigurations
+    static final long MIN_DWELL_MS = 20_000;
+    // Raising quality is riskier, so it waits longer and backs off when it gets reverted
+    static final long RAISE_DWELL_MS = 2 * MIN_DWELL_MS;
+    static final long MAX_RAISE_DWELL_MS = 8 * MIN_DWELL_MS;
+
+    static final float LOW_FPS_RATIO = 0.90f;
+    static final float HIGH_FPS_RATIO = 0.97f;
+    static final float HIGH_JANK_PERCENT = 10f;
+    static final float LOW_JANK_PERCENT = 3f;
+
+    // Without a target, hold the best rate of the last 30 s at the default sample interval
+    static final int PEAK_WINDOW_SAMPLES = 15;
+
+    private final int minScale;
+    private final int maxScale;
+    private final float targetFps;
+
+    private int scale;
+    private final float[] recentFps = new float[PEAK_WINDOW_SAMPLES];
+    private int recentCount;
+    private int recentNext;
+    private int strugglingSamples;
+    private int comfortableSamples;
+    private long lastChangeMs = Long.MIN_VALUE;
+    private boolean lastChangeWasRaise;
+    private long raiseDwellMs = RAISE_DWELL_MS;
+
+    /**
+     * @param initialScale scale the game was launched with
+     * @param minScale     lowest scale (best quality) the user allows
+     * @param maxScale     highest scale (lowest resolution) the user allows
+     * @param targetFps    frame rate to hold, or 0 to track the best recent rate
+     */
+    public AdaptiveResolutionController(int initialScale, int minScale, int maxScale, float targetFps) {
+        this.minScale = Math.min(minScale, maxScale);
+        this.maxScale = Math.max(minScale, maxScale);
+        this.targetFps = targetFps;
+        this.scale = Math.max(this.minScale, Math.min(this.maxScale, initialScale));
+    }
+
+    /**
+     * Feed one sample and return the scale that should be applied.
+     * Samples without frame data are ignored.
+     */
+    public int onSample(long nowMs, float fps, float jankPercent) {
+        if (lastChangeMs == Long.MIN_VALUE) {
+            // Session start (loading screens) counts as a reconfiguration
+            lastChangeMs = nowMs;
+        }
+        if (!(fps > 0)) {
+            return scale;
+        }
+        recentFps[recentNext] = fps;
+        recentNext = (recentNext + 1) % PEAK_WINDOW_SAMPLES;
+        recentCount = Math.min(recentCount + 1, PEAK_WINDOW_SAMPLES);
+        float target = getTargetFps();
+
+        boolean struggling = fps < target * LOW_FPS_RATIO || jankPercent > HIGH_JANK_PERCENT;
+        boolean comfortable = fps >= target * HIGH_FPS_RATIO && jankPercent <= LOW_JANK_PERCENT;
+
+        if (struggling) {
+            strugglingSamples++;
+            comfortableSamples = 0;
+        } else if (comfortable) {
+            comfortableSamples++;
+            strugglingSamples = 0;
+        } else {
+            strugglingSamples = 0;
+            comfortableSamples = 0;
+        }
+
+        long sinceChange = nowMs - lastChangeMs;
+        if (struggling && scale < maxScale && sinceChange >= MIN_DWELL_MS
+                && strugglingSamples >= LOWER_AFTER_SAMPLES) {
+            if (lastChangeWasRaise && sinceChange < raiseDwellMs * 2) {
+                // The last raise did not hold up, wait longer before trying again
+                raiseDwellMs = Math.min(MAX_RAISE_DWELL_MS, raiseDwellMs * 2);
+            }
+            changeScale(Math.min(maxScale, scale + SCALE_STEP), nowMs, false);
+        } else if (comfortable && scale > minScale && sinceChange >= raiseDwellMs
+                && comfortableSamples >= RAISE_AFTER_SAMPLES) {
+            changeScale(Math.max(minScale, scale - SCALE_STEP), nowMs, true);
+        }
+        return scale;
+    }
+
+    private void changeScale(int newScale, long nowMs, boolean raise) {
+        scale = newScale;
+        lastChangeMs = nowMs;
+        lastChangeWasRaise = raise;
+        strugglingSamples = 0;
+        comfortableSamples = 0;
+    }
+
+    /**
+     * Get the scale currently requested by the controller
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Get the frame rate the controller is holding. Without a fixed target this is the second
+     * best rate of the recent window, so a lone spike (a menu, a loading screen) doesn't raise it.
+     */
+    public float getTargetFps() {
+        if (targetFps > 0) {
+            return targetFps;
+        }
+        float best = 0;
+        float second = 0;
+        for (int i = 0; i < recentCount; i++) {
+            float fps = recentFps[i];
+            if (fps > best) {
+                second = best;
+                best = fps;
+            } else if (fps > second) {
+                second = fps;
+            }
+        }
+        return recentCount > 1 ? second : best;
+    }
+
+    public int getMinScale() {
+        return minScale;
+    }
+
+    public int getMaxScale() {
+        return maxScale;
+    }
+}
@@ -0,0 +1,84 @@
+package com.dnagda.eliteG.session;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.Cmd;
+import com.dnagda.eliteG.ExecuteADBCommands;
+import com.dnagda.eliteG.SettingsStore;
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.ResolutionLadder;
+
+import java.util.Collections;
+
+/**
+ * Applies a resolution scale from the stored original display settings.
+ * Used while a game is running, when no activity (and no SettingsManager) is available.
+ */
+public final class DisplayScaler {
+    private static final String TAG = "DisplayScaler";
+
+    private static final String PEAK_REFRESH_RATE = "peak_refresh_rate";
+    private static final String UNSET_VALUE = "null"; // What "settings get" prints for a missing key
+
+    // Prevent instantiation
+    private DisplayScaler() {
+        throw new AssertionError("DisplayScaler class should not be instantiated");
+    }
+
+    /**
+     * Switch the display from one scale to another. Must not be called on the main thread.
+     */
+    public static boolean applyScale(Context context, int fromScale, int toScale) {
+        SettingsStore preferences = GameSessionLifecycle.getSettings(context);
+        int originalWidth = preferences.getInt(Constants.PREF_ORIGINAL_WIDTH, 0);
+        int originalHeight = preferences.getInt(Constants.PREF_ORIGINAL_HEIGHT, 0);
+        int originalDpi = preferences.getInt(Constants.PREF_ORIGINAL_DPI, 0);
+        if (originalWidth <= 0 || originalHeight <= 0 || originalDpi <= 0) {
+            Logger.w(TAG, "Original display settings unknown, not scaling");
+            return false;
+        }
+
+        // Same aligned sizes as the slider in MainActivity
+        ResolutionLadder ladder = ResolutionLadder.forDisplay(originalWidth, originalHeight, originalDpi);
+        int width = ladder.getWidth(toScale);
+        int height = ladder.getHeight(toScale);
+        int dpi = preferences.getBoolean(Constants.PREF_KEEP_STOCK_DPI, false)
+                ? originalDpi
+                : ladder.getDpi(toScale);
+
+        Logger.d(TAG, "Scale " + fromScale + " -> " + toScale + ": " + width + "x" + height + " @ " + dpi + "dpi");
+        return ExecuteADBCommands.changeDisplay(width, height, dpi, toScale > fromScale);
+    }
+
+    /**
+     * Cap the peak refresh rate, journaling the previous setting so it is put back by
+     * {@link #restoreRefreshRate(Context)} or, if the session dies, by the next restore.
+     * Returns false if nothing was changed.
+     */
+    public static boolean capRefreshRate(Context context, int maxHz) {
+        ExecuteADBCommands.CommandResult current = ExecuteADBCommands.executeWithResult(
+                Cmd.settingsGet("system", PEAK_REFRESH_RATE));
+        if (!current.success) {
+            return false;
+        }
+        String previous = current.output.trim();
+        try {
+            if (!UNSET_VALUE.equals(previous) && Float.parseFloat(previous) <= maxHz) {
+                return false; // Already at or below the cap
+            }
+        } catch (NumberFormatException e) {
+            Logger.w(TAG, "Unexpected " + PEAK_REFRESH_RATE + " value: " + previous);
+            return false;
+        }
+        return SessionJournal.apply(context, Collections.singletonList(
+                new SessionJournal.Setting("system", PEAK_REFRESH_RATE, maxHz + ".0")));
+    }
+
+    /**
+     * Put back the peak refresh rate capped by {@link #capRefreshRate(Context, int)}
+     */
+    public static void restoreRefreshRate(Context context) {
+        SessionJournal.restore(context, "system", PEAK_REFRESH_RATE);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dnagda.eliteG.session;
+
+import java.util.Set;
+
+/**
+ * Turns activity resume/pause events into game enter/leave transitions.
+ * A game only counts as left after it stayed in the background for a grace period,
+ * so dialogs, permission prompts and quick app switches do not restore settings mid-game.
+ * Pure Java so event sequences can be replayed in tests.
+ */
+final class ForegroundTracker {
+
+    // Same values as UsageEvents.Event.ACTIVITY_RESUMED / ACTIVITY_PAUSED
+    static final int EVENT_RESUMED = 1;
+    static final int EVENT_PAUSED = 2;
+
+    static final long EXIT_GRACE_MS = 5000;
+
+    /**
+     * Receives game transitions
+     */
+    interface Listener {
+        void onGameEntered(String packageName);
+
+        void onGameLeft(String packageName);
+    }
+
+    private final Listener listener;
+    private String activeGame;
+    private long backgroundSinceMs = -1;
+
+    ForegroundTracker(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Feed one usage event; packages in {@code games} are tracked
+     */
+    void onEvent(String packageName, int type, long timestampMs, Set<String> games) {
+        if (packageName == null) {
+            return;
+        }
+        boolean isGame = games.contains(packageName);
+
+        if (type == EVENT_RESUMED) {
+            if (isGame) {
+                if (packageName.equals(activeGame)) {
+                    backgroundSinceMs = -1; // Came back within the grace period
+                    return;
+                }
+                if (activeGame != null) {
+                    leave();
+                }
+                activeGame = packageName;
+                backgroundSinceMs = -1;
+                listener.onGameEntered(packageName);
+            } else if (activeGame != null && backgroundSinceMs < 0) {
+                backgroundSinceMs = timestampMs;
+            }
+        } else if (type == EVENT_PAUSED && packageName.equals(activeGame) && backgroundSinceMs < 0) {
+            backgroundSinceMs = timestampMs;
+        }
+    }
+
+    /**
+     * Advance time; reports the active game as left once its grace period has expired
+     */
+    void onTick(long nowMs) {
+        if (activeGame != null && backgroundSinceMs >= 0 && nowMs - backgroundSinceMs >= EXIT_GRACE_MS) {
+            leave();
+        }
+    }
+
+    private void leave() {
+        String game = activeGame;
+        activeGame = null;
+        backgroundSinceMs = -1;
+        listener.onGameLeft(game);
+    }
+
+    String getActiveGame() {
+        return activeGame;
+    }
+}
@@ -0,0 +1,186 @@
+package com.dnagda.eliteG.session;
+
+import java.util.Locale;
+
+/**
+ * Per-game frame rate statistics bucketed by resolution scale.
+ * Each bucket keeps a running mean and variance (Welford), so the measured gain of a
+ * scale over native resolution can be reported together with its uncertainty.
+ */
+public final class FpsGainStats {
+
+    static final int BUCKET_WIDTH = 10;
+    static final int BUCKET_COUNT = 100 / BUCKET_WIDTH + 1;
+
+    // A bucket is trusted once it has this much data
+    static final int MIN_SAMPLES = 30;
+    static final int MIN_SESSIONS = 2;
+
+    // Relative 95% confidence half-width thresholds
+    private static final double HIGH_CONFIDENCE_WIDTH = 0.05;
+    private static final double MEDIUM_CONFIDENCE_WIDTH = 0.15;
+    private static final int HIGH_CONFIDENCE_SESSIONS = 5;
+    private static final double Z_95 = 1.96;
+
+    /**
+     * How much the measured gain can be trusted
+     */
+    public enum Confidence {
+        LOW, MEDIUM, HIGH
+    }
+
+    /**
+     * Measured FPS gain of a scale over native resolution
+     */
+    public static final class Gain {
+        public final int percent;
+        public final int marginPercent; // 95% confidence half-width
+        public final Confidence confidence;
+
+        Gain(int percent, int marginPercent, Confidence confidence) {
+            this.percent = percent;
+            this.marginPercent = marginPercent;
+            this.confidence = confidence;
+        }
+    }
+
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+    private final boolean[] touchedThisSession = new boolean[BUCKET_COUNT];
+
+    public FpsGainStats() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Map a resolution scale (0 = native, 100 = maximum reduction) to its bucket
+     */
+    static int bucketOf(int resolutionScale) {
+        int clamped = Math.max(0, Math.min(100, resolutionScale));
+        return (clamped + BUCKET_WIDTH / 2) / BUCKET_WIDTH;
+    }
+
+    /**
+     * Record one frame rate sample taken at the given scale
+     */
+    public synchronized void record(int resolutionScale, float fps) {
+        if (fps <= 0 || Float.isNaN(fps)) {
+            return;
+        }
+        int bucket = bucketOf(resolutionScale);
+        buckets[bucket].add(fps);
+        touchedThisSession[bucket] = true;
+    }
+
+    /**
+     * Close the current session so per-bucket session counts advance
+     */
+    public synchronized void endSession() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (touchedThisSession[i]) {
+                buckets[i].sessions++;
+                touchedThisSession[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Get the measured gain of the given scale over native resolution,
+     * or null while there is not enough data for either of them.
+     */
+    public synchronized Gain getGain(int resolutionScale) {
+        Bucket baseline = buckets[0];
+        Bucket target = buckets[bucketOf(resolutionScale)];
+        if (!baseline.isTrusted() || !target.isTrusted()) {
+            return null;
+        }
+        if (target == baseline) {
+            return new Gain(0, 0, baseline.sessions >= HIGH_CONFIDENCE_SESSIONS ? Confidence.HIGH : Confidence.MEDIUM);
+        }
+
+        double ratio = target.mean / baseline.mean;
+        // Delta method for the standard error of a ratio of independent means
+        double relativeError = Math.sqrt(
+                target.variance() / (target.count * target.mean * target.mean)
+                        + baseline.variance() / (baseline.count * baseline.mean * baseline.mean));
+        double margin = Z_95 * relativeError * ratio;
+
+        Confidence confidence;
+        if (margin <= HIGH_CONFIDENCE_WIDTH
+                && Math.min(target.sessions, baseline.sessions) >= HIGH_CONFIDENCE_SESSIONS) {
+            confidence = Confidence.HIGH;
+        } else if (margin <= MEDIUM_CONFIDENCE_WIDTH) {
+            confidence = Confidence.MEDIUM;
+        } else {
+            confidence = Confidence.LOW;
+        }
+
+        return new Gain((int) Math.round((ratio - 1) * 100), (int) Math.ceil(margin * 100), confidence);
+    }
+
+    /**
+     * Number of samples held for the bucket of a scale
+     */
+    public synchronized long getSampleCount(int resolutionScale) {
+        return buckets[bucketOf(resolutionScale)].count;
+    }
+
+    /**
+     * Serialize a bucket as "count;sessions;mean;m2", or null if it is empty
+     */
+    synchronized String encodeBucket(int bucket) {
+        Bucket b = buckets[bucket];
+        if (b.count == 0) {
+            return null;
+        }
+        return String.format(Locale.US, "%d;%d;%.4f;%.4f", b.count, b.sessions, b.mean, b.m2);
+    }
+
+    /**
+     * Restore a bucket written by {@link #encodeBucket(int)}; malformed data is ignored
+     */
+    synchronized void decodeBucket(int bucket, String encoded) {
+        if (encoded == null || bucket < 0 || bucket >= BUCKET_COUNT) {
+            return;
+        }
+        String[] parts = encoded.split(";");
+        if (parts.length != 4) {
+            return;
+        }
+        try {
+            Bucket b = buckets[bucket];
+            b.count = Long.parseLong(parts[0]);
+            b.sessions = Integer.parseInt(parts[1]);
+            b.mean = Double.parseDouble(parts[2]);
+            b.m2 = Double.parseDouble(parts[3]);
+        } catch (NumberFormatException e) {
+            buckets[bucket] = new Bucket();
+        }
+    }
+
+    /**
+     * Running statistics for one scale bucket
+     */
+    private static final class Bucket {
+        long count;
+        int sessions;
+        double mean;
+        double m2;
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        double variance() {
+            return count > 1 ? m2 / (count - 1) : 0;
+        }
+
+        boolean isTrusted() {
+            return count >= MIN_SAMPLES && sessions >= MIN_SESSIONS && mean > 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.dnagda.eliteG.session;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.SettingsStore;
+import com.dnagda.eliteG.utils.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps measured frame rate statistics per game and resolution scale.
+ * Fed by the session recorder in the :agent process, persisted once per session
+ * and read back from disk by the UI process.
+ *
+ * Stored in a {@link SettingsStore} file, which both processes can share. Only the
+ * statistics of sessions in progress are kept in memory; everything else is read from
+ * the file as it is now.
+ */
+public final class FpsGainTracker {
+    private static final String TAG = "FpsGainTracker";
+
+    static final String FILE_NAME = "fps_stats.bin";
+    // Where the statistics were kept before, imported once
+    static final String PREFS_NAME = "FPS_STATS";
+    private static final String KEY_LAST_GAME = "lastGame";
+    private static final String BUCKET_SEPARATOR = "#";
+
+    // Games with a session in progress in this process
+    private static final Map<String, FpsGainStats> statsByPackage = new ConcurrentHashMap<>();
+
+    // Prevent instantiation
+    private FpsGainTracker() {
+        throw new AssertionError("FpsGainTracker class should not be instantiated");
+    }
+
+    /**
+     * Record a frame rate sample for a game running at the given scale
+     */
+    public static void record(Context context, String packageName, int resolutionScale, float fps) {
+        getStats(context, packageName).record(resolutionScale, fps);
+    }
+
+    /**
+     * Finish a session for a game and persist its statistics.
+     * Writes to disk, do not call on the main thread.
+     */
+    public static void endSession(Context context, String packageName) {
+        FpsGainStats stats = getStats(context, packageName);
+        statsByPackage.remove(packageName);
+        stats.endSession();
+
+        SettingsStore.Editor editor = getStore(context).edit();
+        for (int bucket = 0; bucket < FpsGainStats.BUCKET_COUNT; bucket++) {
+            String encoded = stats.encodeBucket(bucket);
+            if (encoded != null) {
+                editor.putString(packageName + BUCKET_SEPARATOR + bucket, encoded);
+            }
+        }
+        editor.putString(KEY_LAST_GAME, packageName);
+        if (editor.commit()) {
+            Logger.d(TAG, "FPS statistics saved for " + packageName);
+        } else {
+            Logger.w(TAG, "Could not save FPS statistics for " + packageName);
+        }
+    }
+
+    /**
+     * Load the statistics of the most recently recorded game, or null if none was recorded.
+     * Reads from disk: call off the main thread and keep the result.
+     */
+    public static FpsGainStats loadLastGameStats(Context context) {
+        String lastGame = getLastGame(context);
+        return lastGame != null && !lastGame.isEmpty() ? load(context, lastGame) : null;
+    }
+
+    /**
+     * Get the package of the most recently recorded game, or null
+     */
+    public static String getLastGame(Context context) {
+        return getStore(context).refresh().getString(KEY_LAST_GAME, null);
+    }
+
+    private static FpsGainStats getStats(Context context, String packageName) {
+        FpsGainStats stats = statsByPackage.get(packageName);
+        if (stats == null) {
+            stats = load(context, packageName);
+            FpsGainStats existing = statsByPackage.putIfAbsent(packageName, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    private static FpsGainStats load(Context context, String packageName) {
+        // Picks up sessions the other process saved since the last read
+        SettingsStore store = getStore(context).refresh();
+        FpsGainStats stats = new FpsGainStats();
+        for (int bucket = 0; bucket < FpsGainStats.BUCKET_COUNT; bucket++) {
+            stats.decodeBucket(bucket, store.getString(packageName + BUCKET_SEPARATOR + bucket, null));
+        }
+        return stats;
+    }
+
+    private static SettingsStore getStore(Context context) {
+        return SettingsStore.getInstance(context, FILE_NAME, PREFS_NAME);
+    }
+}
@@ -0,0 +1,198 @@
+package com.dnagda.eliteG.session;
+
+import java.util.Arrays;
+
+/**
+ * Parsers for frame statistics reported by dumpsys.
+ * Pure Java so they can be exercised with recorded output.
+ */
+public final class FrameStatsParser {
+
+    static final String GFXINFO_TOTAL_FRAMES = "Total frames rendered:";
+    static final String GFXINFO_JANKY_FRAMES = "Janky frames:";
+    static final int SURFACEFLINGER_MAX_FRAMES = 128;
+
+    // Prevent instantiation
+    private FrameStatsParser() {
+        throw new AssertionError("FrameStatsParser class should not be instantiated");
+    }
+
+    /**
+     * Parse {@code dumpsys gfxinfo <package>} output.
+     * Writes total frames to {@code out[0]} and janky frames to {@code out[1]}.
+     * Returns false if the output has no frame statistics.
+     */
+    public static boolean parseGfxInfo(String output, long[] out) {
+        if (output == null) {
+            return false;
+        }
+        long total = parseLongAfter(output, GFXINFO_TOTAL_FRAMES);
+        if (total < 0) {
+            return false;
+        }
+        long janky = parseLongAfter(output, GFXINFO_JANKY_FRAMES);
+        out[0] = total;
+        out[1] = Math.max(0, janky);
+        return true;
+    }
+
+    /**
+     * Parse {@code dumpsys SurfaceFlinger --latency <layer>} output.
+     * The first line is the refresh period, followed by up to 127 lines of
+     * "desired-present actual-present frame-ready" timestamps in nanoseconds.
+     * Writes frame intervals to {@code out[0]}, janky intervals to {@code out[1]} and
+     * the covered span in nanoseconds to {@code out[2]}. A frame is janky when it arrives
+     * more than one refresh period later than the median interval.
+     * Returns false if fewer than two frames were presented.
+     */
+    public static boolean parseSurfaceFlingerLatency(String output, long[] out) {
+        if (output == null) {
+            return false;
+        }
+        int length = output.length();
+        int lineEnd = output.indexOf('\n');
+        if (lineEnd < 0) {
+            return false;
+        }
+        long refreshPeriod = parseLong(output, 0, lineEnd);
+        if (refreshPeriod <= 0) {
+            return false;
+        }
+
+        long[] presents = new long[SURFACEFLINGER_MAX_FRAMES];
+        int count = 0;
+        int lineStart = lineEnd + 1;
+        while (lineStart < length && count < presents.length) {
+            lineEnd = output.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            // Second column is the actual present time
+            int column = output.indexOf('\t', lineStart);
+            if (column < 0 || column > lineEnd) {
+                column = output.indexOf(' ', lineStart);
+            }
+            if (column > 0 && column < lineEnd) {
+                long present = parseLong(output, column + 1, lineEnd);
+                // 0 means not presented yet, INT64_MAX a pending fence
+                if (present > 0 && present != Long.MAX_VALUE) {
+                    presents[count++] = present;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (count < 2) {
+            return false;
+        }
+
+        Arrays.sort(presents, 0, count);
+        int intervals = count - 1;
+        long[] deltas = new long[intervals];
+        for (int i = 0; i < intervals; i++) {
+            deltas[i] = presents[i + 1] - presents[i];
+        }
+        long[] sorted = Arrays.copyOf(deltas, intervals);
+        Arrays.sort(sorted);
+        long jankThreshold = sorted[intervals / 2] + refreshPeriod;
+
+        long janky = 0;
+        for (long delta : deltas) {
+            if (delta > jankThreshold) {
+                janky++;
+            }
+        }
+        out[0] = intervals;
+        out[1] = janky;
+        out[2] = presents[count - 1] - presents[0];
+        return true;
+    }
+
+    /**
+     * Pick the layer of a game from {@code dumpsys SurfaceFlinger --list} output.
+     * Games usually render into a SurfaceView, which is preferred over the window layer.
+     * Names with whitespace are skipped since they cannot be passed as one shell argument.
+     * Returns null if no usable layer is found.
+     */
+    public static String findGameLayer(String listOutput, String packageName) {
+        if (listOutput == null || packageName == null) {
+            return null;
+        }
+        String fallback = null;
+        for (String line : listOutput.split("\\r?\\n")) {
+            String layer = line.trim();
+            if (!layer.contains(packageName) || layer.isEmpty() || containsWhitespace(layer)) {
+                continue;
+            }
+            if (layer.startsWith("SurfaceView")) {
+                return layer;
+            }
+            if (fallback == null) {
+                fallback = layer;
+            }
+        }
+        return fallback;
+    }
+
+    private static boolean containsWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse the first non-negative integer in {@code text[start, end)}, or -1 if absent
+     */
+    private static long parseLong(String text, int start, int end) {
+        int i = start;
+        while (i < end && (text.charAt(i) < '0' || text.charAt(i) > '9')) {
+            i++;
+        }
+        if (i == end) {
+            return -1;
+        }
+        long value = 0;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return Long.MAX_VALUE;
+            }
+            value = value * 10 + (c - '0');
+            i++;
+        }
+        return value;
+    }
+
+    /**
+     * Parse the first non-negative integer following a label, or -1 if absent
+     */
+    static long parseLongAfter(String text, String label) {
+        int index = text.indexOf(label);
+        if (index < 0) {
+            return -1;
+        }
+        int i = index + label.length();
+        int length = text.length();
+        while (i < length && text.charAt(i) == ' ') {
+            i++;
+        }
+
+        long value = 0;
+        boolean found = false;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            found = true;
+            i++;
+        }
+        return found ? value : -1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.dnagda.eliteG.session;
+
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStatsManager;
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.GameLibrary;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects library games entering and leaving the foreground from usage events.
+ * Applies the game's settings on entry and restores the originals on exit, so games
+ * started from the launcher are boosted too and restore does not wait for EliteG to reopen.
+ * Each poll only reads events since the previous one, within a fixed event budget.
+ */
+public final class GameSessionDetector {
+    private static final String TAG = "GameSessionDetector";
+
+    static final String METRIC_POLL_TIME = "detector.poll_us";
+
+    private static final long POLL_INTERVAL_MS = 2000;
+    // Never look further back than this, even after the process slept
+    private static final long MAX_LOOKBACK_MS = 10_000;
+    private static final int MAX_EVENTS_PER_POLL = 256;
+
+    private static final Object LOCK = new Object();
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> pollTask;
+
+    // Prevent instantiation
+    private GameSessionDetector() {
+        throw new AssertionError("GameSessionDetector class should not be instantiated");
+    }
+
+    /**
+     * Start polling usage events. Does nothing without usage access or if already running.
+     */
+    public static void start(Context context) {
+        Context appContext = context.getApplicationContext();
+        synchronized (LOCK) {
+            if (pollTask != null) {
+                return;
+            }
+            UsageStatsManager usageStats = (UsageStatsManager) appContext.getSystemService(Context.USAGE_STATS_SERVICE);
+            if (usageStats == null) {
+                Logger.w(TAG, "Usage stats unavailable, game detection disabled");
+                return;
+            }
+            pollTask = getExecutor().scheduleWithFixedDelay(new Poller(appContext, usageStats),
+                    0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            Logger.d(TAG, "Game session detection started");
+        }
+    }
+
+    /**
+     * Stop polling usage events
+     */
+    public static void stop() {
+        synchronized (LOCK) {
+            if (pollTask != null) {
+                pollTask.cancel(false);
+                pollTask = null;
+                Logger.d(TAG, "Game session detection stopped");
+            }
+        }
+    }
+
+    public static boolean isRunning() {
+        synchronized (LOCK) {
+            return pollTask != null;
+        }
+    }
+
+    private static ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "EliteG-SessionDetector");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Incremental usage event reader
+     */
+    private static final class Poller implements Runnable, ForegroundTracker.Listener {
+        private final Context context;
+        private final UsageStatsManager usageStats;
+        private final ForegroundTracker tracker = new ForegroundTracker(this);
+        private final UsageEvents.Event event = new UsageEvents.Event();
+        private final Set<String> games = new HashSet<>();
+        private boolean gamesLoaded;
+        private long gamesToken;
+        private long cursorMs;
+
+        Poller(Context context, UsageStatsManager usageStats) {
+            this.context = context;
+            this.usageStats = usageStats;
+            this.cursorMs = System.currentTimeMillis() - POLL_INTERVAL_MS;
+        }
+
+        @Override
+        public void run() {
+            long startNs = SystemClock.elapsedRealtimeNanos();
+            try {
+                long now = System.currentTimeMillis();
+                long from = Math.max(cursorMs, now - MAX_LOOKBACK_MS);
+                loadGames();
+
+                UsageEvents events = usageStats.queryEvents(from, now);
+                long nextCursor = now;
+                int processed = 0;
+                while (events != null && events.hasNextEvent()) {
+                    if (processed == MAX_EVENTS_PER_POLL) {
+                        // Resume from the last handled event; replaying it is harmless
+                        nextCursor = event.getTimeStamp();
+                        break;
+                    }
+                    events.getNextEvent(event);
+                    processed++;
+                    int type = event.getEventType();
+                    if (type == ForegroundTracker.EVENT_RESUMED || type == ForegroundTracker.EVENT_PAUSED) {
+                        tracker.onEvent(event.getPackageName(), type, event.getTimeStamp(), games);
+                    }
+                }
+                cursorMs = nextCursor;
+                tracker.onTick(now);
+            } catch (Exception e) {
+                Logger.e(TAG, "Error polling usage events", e);
+            }
+            PerformanceMonitor.recordMetric(METRIC_POLL_TIME, (SystemClock.elapsedRealtimeNanos() - startNs) / 1000);
+        }
+
+        /**
+         * Refresh the watched set from the game library when games were added or removed,
+         * in this process or the UI process
+         */
+        private void loadGames() {
+            GameLibrary library = GameLibrary.getInstance(context);
+            long token = library.getChangeToken();
+            if (gamesLoaded && token == gamesToken) {
+                return;
+            }
+            games.clear();
+            games.addAll(library.getAllPackages());
+            gamesLoaded = true;
+            gamesToken = token;
+        }
+
+        @Override
+        public void onGameEntered(String packageName) {
+            if (packageName.equals(GameSessionLifecycle.getActivePackage())) {
+                Logger.d(TAG, packageName + " entered, already boosted by launcher");
+                return;
+            }
+            Logger.d(TAG, packageName + " entered foreground, applying settings");
+            GameSessionLifecycle.applyAndBegin(context, packageName);
+        }
+
+        @Override
+        public void onGameLeft(String packageName) {
+            if (!packageName.equals(GameSessionLifecycle.getActivePackage())) {
+                return;
+            }
+            Logger.d(TAG, packageName + " left foreground, restoring settings");
+            GameSessionLifecycle.restore(context);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dnagda.eliteG.session;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.ExecuteADBCommands;
+import com.dnagda.eliteG.GameLibrary;
+import com.dnagda.eliteG.SettingsStore;
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+/**
+ * Begins and ends boosted game sessions without needing an activity.
+ * Runs in the :agent process, driven by SessionAgentService for the launcher flow
+ * and by GameSessionDetector for games started from outside EliteG.
+ */
+public final class GameSessionLifecycle {
+    private static final String TAG = "GameSessionLifecycle";
+
+    private static final Object LOCK = new Object();
+    private static String activePackage;
+    private static int activeScale;
+
+    // Prevent instantiation
+    private GameSessionLifecycle() {
+        throw new AssertionError("GameSessionLifecycle class should not be instantiated");
+    }
+
+    /**
+     * Begin a session for a game whose settings have already been applied
+     */
+    public static void begin(Context context, String packageName, int resolutionScale) {
+        synchronized (LOCK) {
+            SessionJournal.beginSession(context, packageName);
+            PerformanceMonitor.recordProcessRss(context, PerformanceMonitor.PROCESS_AGENT);
+            SessionRecorder.start(context, packageName, resolutionScale,
+                    createController(getSettings(context), resolutionScale));
+            activePackage = packageName;
+            activeScale = resolutionScale;
+        }
+        GameLibrary library = GameLibrary.getInstance(context);
+        library.execute(() -> library.recordLaunch(packageName));
+    }
+
+    /**
+     * Apply the stored settings for a game that was started outside EliteG, then begin its session
+     */
+    public static void applyAndBegin(Context context, String packageName) {
+        SettingsStore settings = getSettings(context);
+        int resolutionScale = settings.getInt(Constants.PREF_LAST_RESOLUTION_SCALE, Constants.DEFAULT_RESOLUTION_SCALE);
+
+        synchronized (LOCK) {
+            Logger.d(TAG, "Applying scale " + resolutionScale + " for " + packageName);
+            if (!DisplayScaler.applyScale(context, 0, resolutionScale)) {
+                Logger.w(TAG, "Failed to apply resolution for " + packageName);
+            }
+            if (settings.getBoolean(Constants.PREF_AGGRESSIVE_LMK, false)) {
+                ExecuteADBCommands.applyPerformanceOptimizations(context);
+            }
+            begin(context, packageName, resolutionScale);
+        }
+    }
+
+    /**
+     * Restore the original display and performance settings after a game left the foreground
+     */
+    public static void restore(Context context) {
+        synchronized (LOCK) {
+            String packageName = activePackage;
+            end(context);
+            ExecuteADBCommands.restorePerformanceSettings(context);
+            if (!DisplayScaler.applyScale(context, activeScale, 0)) {
+                Logger.w(TAG, "Failed to restore resolution after " + packageName);
+            }
+            Logger.d(TAG, "Original settings restored after " + packageName);
+        }
+    }
+
+    /**
+     * End the current session without touching display settings
+     */
+    public static void end(Context context) {
+        synchronized (LOCK) {
+            SessionRecorder.stop();
+            activePackage = null;
+            PerformanceMonitor.recordProcessRss(context, PerformanceMonitor.PROCESS_AGENT);
+            SessionJournal.endSession(context);
+        }
+    }
+
+    /**
+     * Get the package of the game in the current session, or null
+     */
+    public static String getActivePackage() {
+        synchronized (LOCK) {
+            return activePackage;
+        }
+    }
+
+    private static AdaptiveResolutionController createController(SettingsStore settings, int resolutionScale) {
+        if (!settings.getBoolean(Constants.PREF_ADAPTIVE_RESOLUTION, false)) {
+            return null;
+        }
+        return new AdaptiveResolutionController(resolutionScale,
+                settings.getInt(Constants.PREF_ADAPTIVE_MIN_SCALE, Constants.DEFAULT_ADAPTIVE_MIN_SCALE),
+                settings.getInt(Constants.PREF_ADAPTIVE_MAX_SCALE, Constants.DEFAULT_ADAPTIVE_MAX_SCALE),
+                settings.getInt(Constants.PREF_ADAPTIVE_TARGET_FPS, 0));
+    }
+
+    /**
+     * Get the settings written by the UI process. Reloaded from disk when the file changed,
+     * since the agent process keeps its own snapshot.
+     */
+    static SettingsStore getSettings(Context context) {
+        return SettingsStore.getInstance(context).refresh();
+    }
+}
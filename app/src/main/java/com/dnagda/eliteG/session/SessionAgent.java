@@ -0,0 +1,126 @@
+package com.dnagda.eliteG.session;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.core.content.ContextCompat;
+
+import com.dnagda.eliteG.SettingsStore;
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PermissionUtils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UI-side entry point to the :agent process. Every call is a one-way intent to
+ * SessionAgentService, so nothing here keeps session state in the UI process.
+ */
+public final class SessionAgent {
+    private static final String TAG = "SessionAgent";
+
+    private static final String AGENT_PROCESS_SUFFIX = ":agent";
+
+    // Prevent instantiation
+    private SessionAgent() {
+        throw new AssertionError("SessionAgent class should not be instantiated");
+    }
+
+    /**
+     * Begin a session for a game whose settings have already been applied.
+     * Must be called while EliteG is in the foreground.
+     */
+    public static void begin(Context context, String packageName, int resolutionScale) {
+        Intent intent = createIntent(context, SessionAgentService.ACTION_BEGIN)
+                .putExtra(SessionAgentService.EXTRA_PACKAGE, packageName)
+                .putExtra(SessionAgentService.EXTRA_SCALE, resolutionScale);
+        ContextCompat.startForegroundService(context, intent);
+    }
+
+    /**
+     * End the current session without touching display settings
+     */
+    public static void end(Context context) {
+        send(context, createIntent(context, SessionAgentService.ACTION_END));
+    }
+
+    /**
+     * Start watching for games if the user turned detection on and usage access is granted.
+     * Must be called while EliteG is in the foreground.
+     */
+    public static void startDetection(Context context) {
+        boolean enabled = isDetectionEnabled(context);
+        if (enabled && PermissionUtils.isUsageAccessGranted(context)) {
+            ContextCompat.startForegroundService(context,
+                    createIntent(context, SessionAgentService.ACTION_START_DETECTION));
+        } else {
+            Logger.d(TAG, "Game session detection not started (enabled: " + enabled + ")");
+        }
+    }
+
+    /**
+     * Whether games started outside EliteG are boosted. Off until the user turns it on,
+     * since watching keeps a foreground notification and a usage stats poll alive.
+     */
+    public static boolean isDetectionEnabled(Context context) {
+        return SettingsStore.getInstance(context).getBoolean(Constants.PREF_AUTO_SESSION_DETECTION, false);
+    }
+
+    /**
+     * Turn detection on or off. Turning it on starts watching right away if usage access
+     * is granted; turning it off stops the agent once no session is running.
+     */
+    public static void setDetectionEnabled(Context context, boolean enabled) {
+        SettingsStore.getInstance(context).edit()
+                .putBoolean(Constants.PREF_AUTO_SESSION_DETECTION, enabled)
+                .apply();
+        if (enabled) {
+            startDetection(context);
+        } else {
+            send(context, createIntent(context, SessionAgentService.ACTION_STOP_DETECTION));
+        }
+    }
+
+    /**
+     * Check whether the current process is the :agent process
+     */
+    public static boolean isAgentProcess() {
+        String processName = getProcessName();
+        return processName != null && processName.endsWith(AGENT_PROCESS_SUFFIX);
+    }
+
+    private static Intent createIntent(Context context, String action) {
+        return new Intent(context, SessionAgentService.class).setAction(action);
+    }
+
+    private static void send(Context context, Intent intent) {
+        try {
+            context.startService(intent);
+        } catch (IllegalStateException e) {
+            // Background start not allowed; the agent is not running anyway
+            Logger.w(TAG, "Could not reach session agent: " + intent.getAction(), e);
+        }
+    }
+
+    private static String getProcessName() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return Application.getProcessName();
+        }
+        try (FileInputStream input = new FileInputStream("/proc/self/cmdline")) {
+            byte[] buffer = new byte[256];
+            int length = input.read(buffer);
+            int end = 0;
+            while (end < length && buffer[end] != 0) {
+                end++;
+            }
+            return length > 0 ? new String(buffer, 0, end, StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            Logger.w(TAG, "Could not read process name", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.dnagda.eliteG.session;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.Service;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.os.IBinder;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+
+import com.dnagda.eliteG.R;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts the in-session work (recording, thermal and adaptive scaling, restore, game detection)
+ * in the small :agent process. Has no UI dependencies, so the UI process can be trimmed or
+ * killed while a game runs. Driven by intents from SessionAgent.
+ */
+public class SessionAgentService extends Service {
+    private static final String TAG = "SessionAgentService";
+
+    static final String ACTION_BEGIN = "com.dnagda.eliteG.agent.BEGIN";
+    static final String ACTION_END = "com.dnagda.eliteG.agent.END";
+    static final String ACTION_START_DETECTION = "com.dnagda.eliteG.agent.START_DETECTION";
+    static final String ACTION_STOP_DETECTION = "com.dnagda.eliteG.agent.STOP_DETECTION";
+    static final String EXTRA_PACKAGE = "packageName";
+    static final String EXTRA_SCALE = "resolutionScale";
+
+    private static final String CHANNEL_ID = "agent";
+    private static final int NOTIFICATION_ID = 1;
+
+    // Commands touch the shell, keep them off the main thread and in order
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "EliteG-Agent");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile int lastStartId;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Logger.d(TAG, "Session agent created");
+        PerformanceMonitor.recordProcessRss(this, PerformanceMonitor.PROCESS_AGENT);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        lastStartId = startId;
+        String action = intent != null ? intent.getAction() : null;
+        if (ACTION_BEGIN.equals(action)) {
+            String packageName = intent.getStringExtra(EXTRA_PACKAGE);
+            int resolutionScale = intent.getIntExtra(EXTRA_SCALE, 0);
+            startForeground(getString(R.string.agent_notification_session, packageName));
+            executor.execute(() -> GameSessionLifecycle.begin(this, packageName, resolutionScale));
+        } else if (ACTION_END.equals(action)) {
+            executor.execute(() -> {
+                GameSessionLifecycle.end(this);
+                stopIfIdle();
+            });
+        } else if (ACTION_START_DETECTION.equals(action)) {
+            startForeground(getString(R.string.agent_notification_watching));
+            executor.execute(() -> GameSessionDetector.start(this));
+        } else if (ACTION_STOP_DETECTION.equals(action)) {
+            executor.execute(() -> {
+                GameSessionDetector.stop();
+                stopIfIdle();
+            });
+        } else {
+            // Restarted by the system after the agent process died: nothing to resume
+            Logger.d(TAG, "Ignoring start without a known action: " + action);
+            executor.execute(this::stopIfIdle);
+        }
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        GameSessionDetector.stop();
+        executor.shutdown();
+        Logger.d(TAG, "Session agent destroyed\n" + PerformanceMonitor.getPerformanceReport());
+    }
+
+    /**
+     * Stop the service once there is neither a session nor detection to keep alive
+     */
+    private void stopIfIdle() {
+        if (GameSessionLifecycle.getActivePackage() == null && !GameSessionDetector.isRunning()) {
+            Logger.d(TAG, "Session agent idle, stopping");
+            ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+            // Keeps running if another command arrived in the meantime
+            stopSelf(lastStartId);
+        }
+    }
+
+    private void startForeground(String text) {
+        createChannel();
+        Notification notification = new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_notification_agent)
+                .setContentTitle(getString(R.string.app_name))
+                .setContentText(text)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOngoing(true)
+                .build();
+        int type = Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE
+                ? ServiceInfo.FOREGROUND_SERVICE_TYPE_SPECIAL_USE : 0;
+        ServiceCompat.startForeground(this, NOTIFICATION_ID, notification, type);
+    }
+
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        NotificationManager manager = getSystemService(NotificationManager.class);
+        if (manager != null && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                    getString(R.string.agent_channel_name), NotificationManager.IMPORTANCE_LOW);
+            channel.setDescription(getString(R.string.agent_channel_description));
+            manager.createNotificationChannel(channel);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.dnagda.eliteG.session;
+
+import android.content.Context;
+
+import com.dnagda.eliteG.Cmd;
+import com.dnagda.eliteG.CommandPlan;
+import com.dnagda.eliteG.ExecuteADBCommands;
+import com.dnagda.eliteG.utils.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Append-only journal of the system settings changed for a game, so they can be put back.
+ *
+ * Before a setting is changed its current value is appended and synced to disk, so the
+ * journal survives a crash or process death between applying and restoring. Restoring
+ * writes back, newest first and in one batch, only the settings whose value differs from
+ * the journaled one. The journal also records whether a game session is open, which tells
+ * MainActivity that the display was changed for a game.
+ *
+ * Layout: a sequence of records, each a type byte followed by its fields. A record cut
+ * short by a crash while appending is ignored.
+ */
+public final class SessionJournal {
+    private static final String TAG = "SessionJournal";
+
+    static final String FILE_NAME = "session.journal";
+    private static final String LOCK_SUFFIX = ".lock";
+    static final String UNSET_VALUE = "null"; // What "settings get" prints for a missing key
+    // Larger files are not a journal written by this class
+    private static final int MAX_FILE_BYTES = 64 * 1024;
+
+    static final byte RECORD_SETTING = 1;
+    static final byte RECORD_SESSION_BEGIN = 2;
+    static final byte RECORD_SESSION_END = 3;
+
+    private static final Object LOCK = new Object();
+
+    // Prevent instantiation
+    private SessionJournal() {
+        throw new AssertionError("SessionJournal class should not be instantiated");
+    }
+
+    /**
+     * A system setting and a value for it; a null value means the setting is not set
+     */
+    public static final class Setting {
+        public final String namespace;
+        public final String key;
+        public final String value;
+
+        public Setting(String namespace, String key, String value) {
+            this.namespace = namespace;
+            this.key = key;
+            this.value = value;
+        }
+
+        String getName() {
+            return namespace + " " + key;
+        }
+    }
+
+    /**
+     * Journal contents: the first journaled value of every setting in append order,
+     * and the package of the open session or null
+     */
+    static final class State {
+        final List<Setting> settings = new ArrayList<>();
+        String sessionPackage;
+    }
+
+    /**
+     * Change settings, journaling the current value of each one first. Settings already
+     * journaled keep their older value, and settings that already have the wanted value
+     * are not written. Runs shell commands, do not call on the main thread.
+     */
+    public static boolean apply(Context context, List<Setting> changes) {
+        return withFileLock(context, file -> {
+            State state = read(file);
+            Set<String> journaled = new HashSet<>();
+            for (Setting setting : state.settings) {
+                journaled.add(setting.getName());
+            }
+
+            List<Setting> previous = new ArrayList<>();
+            CommandPlan writes = new CommandPlan();
+            String[] currentValues = readValues(changes);
+            boolean success = true;
+            for (int i = 0; i < changes.size(); i++) {
+                Setting change = changes.get(i);
+                String current = currentValues[i];
+                if (current == null) {
+                    // Can't be put back without knowing the current value
+                    success = false;
+                    continue;
+                }
+                if (journaled.add(change.getName())) {
+                    previous.add(new Setting(change.namespace, change.key, toValue(current)));
+                }
+                if (!current.equals(toOutput(change.value))) {
+                    // Different settings, so the writes don't need an order
+                    writes.add(change.getName(), toCommand(change));
+                }
+            }
+
+            if (!previous.isEmpty() && !append(file, encodeSettings(previous))) {
+                return false; // Never change what could not be journaled
+            }
+            int changed = 0;
+            if (!writes.isEmpty()) {
+                CommandPlan.Report report = writes.execute();
+                success &= report.isSuccess();
+                changed = report.nodes.size();
+            }
+            Logger.d(TAG, "Journaled " + previous.size() + " settings, changed " + changed);
+            return success;
+        });
+    }
+
+    /**
+     * Put back every journaled setting whose value changed, then drop them from the journal.
+     * Settings that failed to restore stay journaled for the next attempt.
+     * Runs shell commands, do not call on the main thread.
+     */
+    public static boolean restore(Context context) {
+        return restore(context, null);
+    }
+
+    /**
+     * Put back one journaled setting, as {@link #restore(Context)} does for all of them.
+     * Other journaled settings are left changed.
+     */
+    public static boolean restore(Context context, String namespace, String key) {
+        return restore(context, namespace + " " + key);
+    }
+
+    private static boolean restore(Context context, String onlyName) {
+        return withFileLock(context, file -> {
+            State state = read(file);
+            List<Setting> targets = new ArrayList<>();
+            List<Setting> kept = new ArrayList<>();
+            for (Setting setting : state.settings) {
+                if (onlyName == null || onlyName.equals(setting.getName())) {
+                    targets.add(setting);
+                } else {
+                    kept.add(setting);
+                }
+            }
+            if (targets.isEmpty()) {
+                return true;
+            }
+
+            Map<String, String> currentValues = new HashMap<>();
+            List<Setting> readable = new ArrayList<>();
+            String[] values = readValues(targets);
+            for (int i = 0; i < values.length; i++) {
+                Setting previous = targets.get(i);
+                String current = values[i];
+                if (current == null) {
+                    kept.add(previous);
+                } else {
+                    readable.add(previous);
+                    currentValues.put(previous.getName(), current);
+                }
+            }
+
+            List<Cmd> commands = getRestoreCommands(readable, currentValues);
+            if (!commands.isEmpty() && !ExecuteADBCommands.executeAll(commands)) {
+                Logger.w(TAG, "Failed to restore some journaled settings");
+                return false;
+            }
+            state.settings.clear();
+            state.settings.addAll(kept);
+            rewrite(file, state);
+            Logger.d(TAG, "Restored " + commands.size() + " of " + readable.size() + " journaled settings");
+            return readable.size() == targets.size();
+        });
+    }
+
+    /**
+     * Record that a game session began with the display changed for it
+     */
+    public static void beginSession(Context context, String packageName) {
+        withFileLock(context, file -> append(file, encodeSession(RECORD_SESSION_BEGIN, packageName)));
+    }
+
+    /**
+     * Record that the game session ended; journaled settings stay until restored
+     */
+    public static void endSession(Context context) {
+        withFileLock(context, file -> {
+            State state = read(file);
+            if (state.sessionPackage == null) {
+                return false;
+            }
+            if (state.settings.isEmpty()) {
+                state.sessionPackage = null;
+                rewrite(file, state); // Nothing left to keep
+                return true;
+            }
+            return append(file, encodeSession(RECORD_SESSION_END, null));
+        });
+    }
+
+    /**
+     * Whether a game session began and has not ended, possibly in a process that died since.
+     * Only reads the file, so it may be called on the main thread.
+     */
+    public static boolean isSessionOpen(Context context) {
+        // Takes no lock, so it never waits behind an update running its shell commands:
+        // a rewrite replaces the file at once and a torn append is ignored
+        return read(getFile(context)).sessionPackage != null;
+    }
+
+    /**
+     * Commands that put back the journaled settings whose current value differs, newest first.
+     * {@code currentValues} maps each setting's namespace and key to what "settings get" printed.
+     */
+    static List<Cmd> getRestoreCommands(List<Setting> journaled, Map<String, String> currentValues) {
+        List<Cmd> commands = new ArrayList<>();
+        for (int i = journaled.size() - 1; i >= 0; i--) {
+            Setting previous = journaled.get(i);
+            String current = currentValues.get(previous.getName());
+            if (current == null || !current.equals(toOutput(previous.value))) {
+                commands.add(toCommand(previous));
+            }
+        }
+        return commands;
+    }
+
+    static Cmd toCommand(Setting setting) {
+        if (setting.value == null) {
+            return Cmd.settingsDelete(setting.namespace, setting.key);
+        }
+        return Cmd.settingsPut(setting.namespace, setting.key, setting.value);
+    }
+
+    static byte[] encodeSettings(List<Setting> settings) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (Setting setting : settings) {
+                out.writeByte(RECORD_SETTING);
+                out.writeUTF(setting.namespace);
+                out.writeUTF(setting.key);
+                out.writeBoolean(setting.value != null);
+                out.writeUTF(setting.value != null ? setting.value : "");
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by in-memory streams
+        }
+    }
+
+    static byte[] encodeSession(byte type, String packageName) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            if (type == RECORD_SESSION_BEGIN) {
+                out.writeUTF(packageName != null ? packageName : "");
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replay journal records. Stops at a record cut short or an unknown record type,
+     * keeping everything before it.
+     */
+    static State decode(byte[] data) {
+        State state = new State();
+        Set<String> journaled = new HashSet<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            while (in.available() > 0) {
+                byte type = in.readByte();
+                if (type == RECORD_SETTING) {
+                    String namespace = in.readUTF();
+                    String key = in.readUTF();
+                    boolean present = in.readBoolean();
+                    String value = in.readUTF();
+                    Setting setting = new Setting(namespace, key, present ? value : null);
+                    if (journaled.add(setting.getName())) {
+                        state.settings.add(setting);
+                    }
+                } else if (type == RECORD_SESSION_BEGIN) {
+                    state.sessionPackage = in.readUTF();
+                } else if (type == RECORD_SESSION_END) {
+                    state.sessionPackage = null;
+                } else {
+                    Logger.w(TAG, "Unknown journal record " + type + ", ignoring the rest");
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            Logger.w(TAG, "Ignoring journal record cut short");
+        } catch (IOException e) {
+            Logger.w(TAG, "Ignoring unreadable journal record", e);
+        }
+        return state;
+    }
+
+    /**
+     * Read the current values of settings at the same time, null for any that could not be read
+     */
+    private static String[] readValues(List<Setting> settings) {
+        CommandPlan reads = new CommandPlan();
+        for (Setting setting : settings) {
+            reads.add(setting.getName(), Cmd.settingsGet(setting.namespace, setting.key));
+        }
+        CommandPlan.Report report = reads.execute();
+        String[] values = new String[settings.size()];
+        for (int i = 0; i < values.length; i++) {
+            CommandPlan.NodeReport read = report.nodes.get(i);
+            if (read.status == CommandPlan.Status.SUCCEEDED) {
+                values[i] = read.result.output.trim();
+            } else {
+                Logger.w(TAG, "Could not read " + read.name);
+            }
+        }
+        return values;
+    }
+
+    private static String toValue(String output) {
+        return UNSET_VALUE.equals(output) ? null : output;
+    }
+
+    private static String toOutput(String value) {
+        return value != null ? value : UNSET_VALUE;
+    }
+
+    /**
+     * Run a journal update holding both the in-process lock and a file lock, since the UI
+     * and :agent processes both apply and restore settings. If the file lock can't be taken
+     * the update still runs, guarded in this process only.
+     */
+    private static boolean withFileLock(Context context, Predicate<File> update) {
+        synchronized (LOCK) {
+            File file = getFile(context);
+            RandomAccessFile lockAccess = null;
+            FileLock processLock = null;
+            try {
+                lockAccess = new RandomAccessFile(new File(file.getPath() + LOCK_SUFFIX), "rw");
+                processLock = lockAccess.getChannel().lock();
+            } catch (IOException e) {
+                Logger.w(TAG, "Could not lock session journal across processes", e);
+            }
+            try {
+                return update.test(file);
+            } finally {
+                closeQuietly(processLock, lockAccess);
+            }
+        }
+    }
+
+    private static void closeQuietly(FileLock processLock, RandomAccessFile lockAccess) {
+        try {
+            if (processLock != null) {
+                processLock.release();
+            }
+            if (lockAccess != null) {
+                lockAccess.close();
+            }
+        } catch (IOException e) {
+            Logger.w(TAG, "Could not release session journal lock", e);
+        }
+    }
+
+    private static File getFile(Context context) {
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    private static State read(File file) {
+        long length = file.length();
+        if (length <= 0 || length > MAX_FILE_BYTES) {
+            return new State();
+        }
+        byte[] data = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            return decode(read == data.length ? data : Arrays.copyOf(data, read));
+        } catch (IOException e) {
+            Logger.w(TAG, "Could not read session journal", e);
+            return new State();
+        }
+    }
+
+    private static boolean append(File file, byte[] records) {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(records);
+            out.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not append to session journal", e);
+            return false;
+        }
+    }
+
+    /**
+     * Replace the journal with just the given state, or delete it if there is nothing left
+     */
+    private static void rewrite(File file, State state) {
+        if (state.settings.isEmpty() && state.sessionPackage == null) {
+            if (file.exists() && !file.delete()) {
+                Logger.w(TAG, "Could not delete session journal");
+            }
+            return;
+        }
+        byte[] settings = encodeSettings(state.settings);
+        byte[] session = state.sessionPackage != null
+                ? encodeSession(RECORD_SESSION_BEGIN, state.sessionPackage)
+                : new byte[0];
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(settings);
+            out.write(session);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not rewrite session journal", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Logger.e(TAG, "Could not replace session journal");
+        }
+    }
+}
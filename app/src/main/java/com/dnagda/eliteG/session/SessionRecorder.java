@@ -0,0 +1,390 @@
+package com.dnagda.eliteG.session;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+
+import com.dnagda.eliteG.Cmd;
+import com.dnagda.eliteG.ExecuteADBCommands;
+import com.dnagda.eliteG.utils.Constants;
+import com.dnagda.eliteG.utils.GpuTelemetry;
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records boosted game sessions into a memory-mapped ring file.
+ * Samples FPS/jank, CPU/GPU frequency, temperature, available memory and
+ * battery current on a single background thread.
+ */
+public final class SessionRecorder {
+    private static final String TAG = "SessionRecorder";
+
+    static final String RING_FILE_NAME = "session_ring.bin";
+    private static final int RING_CAPACITY = 4096; // ~2.3 hours at the default interval
+    private static final long SAMPLE_INTERVAL_MS = 2000;
+
+    private static final Object LOCK = new Object();
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> samplingTask;
+    private static SessionRingFile ringFile;
+    private static Sampler activeSampler;
+
+    // Prevent instantiation
+    private SessionRecorder() {
+        throw new AssertionError("SessionRecorder class should not be instantiated");
+    }
+
+    /**
+     * Start recording a session for the given game. A running session is stopped first.
+     */
+    public static void start(Context context, String packageName, int resolutionScale) {
+        start(context, packageName, resolutionScale, null);
+    }
+
+    /**
+     * Start recording a session whose resolution scale is driven by the given controller,
+     * or kept fixed when the controller is null
+     */
+    public static void start(Context context, String packageName, int resolutionScale,
+                             AdaptiveResolutionController controller) {
+        Context appContext = context.getApplicationContext();
+        synchronized (LOCK) {
+            if (activeSampler != null) {
+                stopLocked();
+            }
+
+            try {
+                SessionRingFile ring = getRingFile(appContext);
+                Sampler sampler = new Sampler(appContext, ring, packageName, resolutionScale, controller);
+                activeSampler = sampler;
+                // Queued behind the end of a replaced session, which must not end this one
+                getExecutor().execute(() -> {
+                    sampler.sessionId = ring.beginSession(packageName, resolutionScale, System.currentTimeMillis());
+                    sampler.prime();
+                    Logger.d(TAG, "Recording session " + sampler.sessionId + " for " + packageName);
+                });
+                samplingTask = getExecutor().scheduleWithFixedDelay(sampler,
+                        SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (IOException e) {
+                Logger.e(TAG, "Could not open session ring file", e);
+            }
+        }
+    }
+
+    /**
+     * Stop the current session, if any, and log its summary
+     */
+    public static void stop() {
+        synchronized (LOCK) {
+            stopLocked();
+        }
+    }
+
+    private static void stopLocked() {
+        if (activeSampler == null) {
+            return;
+        }
+
+        samplingTask.cancel(false);
+        final Sampler sampler = activeSampler;
+        activeSampler = null;
+        samplingTask = null;
+
+        // Runs after any in-flight sample on the same thread
+        getExecutor().execute(() -> {
+            sampler.close();
+            SessionRingFile ring = sampler.ring;
+            ring.endSession(System.currentTimeMillis());
+            FpsGainTracker.endSession(sampler.context, sampler.packageName);
+            Logger.d(TAG, "Session ended: " + ring.summarize(sampler.sessionId));
+        });
+    }
+
+    /**
+     * Check if a session is being recorded
+     */
+    public static boolean isRecording() {
+        synchronized (LOCK) {
+            return activeSampler != null;
+        }
+    }
+
+    /**
+     * Summarize the most recent session, or return null if none was recorded
+     */
+    public static SessionSummary getLastSessionSummary(Context context) {
+        synchronized (LOCK) {
+            try {
+                SessionRingFile ring = getRingFile(context.getApplicationContext());
+                int sessionId = ring.getCurrentSessionId();
+                return sessionId > 0 ? ring.summarize(sessionId) : null;
+            } catch (IOException e) {
+                Logger.e(TAG, "Could not read session ring file", e);
+                return null;
+            }
+        }
+    }
+
+    private static SessionRingFile getRingFile(Context appContext) throws IOException {
+        if (ringFile == null) {
+            ringFile = SessionRingFile.open(new File(appContext.getFilesDir(), RING_FILE_NAME), RING_CAPACITY);
+        }
+        return ringFile;
+    }
+
+    private static ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "EliteG-SessionRecorder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Periodic sampler. All buffers are allocated once per session.
+     */
+    private static final class Sampler implements Runnable {
+        private static final String CPU_FREQ_NODE_FORMAT = "/sys/devices/system/cpu/cpu%d/cpufreq/scaling_cur_freq";
+        private static final int THERMAL_REFRESH_RATE_CAP_HZ = 60;
+
+        final SessionRingFile ring;
+        final Context context;
+        final String packageName;
+        private final AdaptiveResolutionController controller;
+        private final Cmd gfxInfoCommand;
+        private final ActivityManager activityManager;
+        private final BatteryManager batteryManager;
+        private final ThermalMonitor thermalMonitor;
+        private final ThermalPolicy thermalPolicy = new ThermalPolicy();
+        private final IntentFilter batteryFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+        private final ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
+        private final GpuTelemetry.Sample gpuSample = new GpuTelemetry.Sample();
+        private final long[] frameStats = new long[3];
+        private final byte[] readBuffer = new byte[32];
+        private final File[] cpuFreqNodes;
+        private final int launchScale;
+        private int resolutionScale; // Currently applied
+        private boolean refreshRateCapped;
+        private String surfaceFlingerLayer;
+        private long lastSampleMs;
+        int sessionId; // Set on the sampling thread when the session begins
+
+        Sampler(Context context, SessionRingFile ring, String packageName, int resolutionScale,
+                AdaptiveResolutionController controller) {
+            this.context = context;
+            this.ring = ring;
+            this.packageName = packageName;
+            this.launchScale = resolutionScale;
+            this.resolutionScale = resolutionScale;
+            this.controller = controller;
+            // "reset" makes every dump report the frames since the previous one
+            this.gfxInfoCommand = Cmd.dumpsys("gfxinfo", packageName, "reset");
+            this.activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            this.batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+            this.thermalMonitor = new ThermalMonitor(context);
+            thermalMonitor.start();
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            this.cpuFreqNodes = new File[cores];
+            for (int i = 0; i < cores; i++) {
+                cpuFreqNodes[i] = new File(String.format(CPU_FREQ_NODE_FORMAT, i));
+            }
+            this.lastSampleMs = System.currentTimeMillis();
+        }
+
+        /**
+         * Reset the game's frame counters, so the first sample only counts frames drawn after
+         * this point rather than everything since a game that was already running started
+         */
+        void prime() {
+            ExecuteADBCommands.executeWithResult(gfxInfoCommand);
+            lastSampleMs = System.currentTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+                long elapsedMs = Math.max(1, now - lastSampleMs);
+                lastSampleMs = now;
+
+                int fpsX100 = SessionRingFile.UNAVAILABLE;
+                int jankPermille = SessionRingFile.UNAVAILABLE;
+                ExecuteADBCommands.CommandResult result = ExecuteADBCommands.executeWithResult(gfxInfoCommand);
+                if (result.success && FrameStatsParser.parseGfxInfo(result.output, frameStats)
+                        && frameStats[0] > 0) {
+                    fpsX100 = (int) (frameStats[0] * 100_000L / elapsedMs);
+                    jankPermille = (int) (frameStats[1] * 1000 / frameStats[0]);
+                } else if (sampleSurfaceFlinger()) {
+                    // GL/Vulkan games bypass HWUI, so gfxinfo reports no frames for them
+                    fpsX100 = (int) (frameStats[0] * 100_000_000_000L / Math.max(1, frameStats[2]));
+                    jankPermille = (int) (frameStats[1] * 1000 / frameStats[0]);
+                }
+                if (fpsX100 != SessionRingFile.UNAVAILABLE) {
+                    FpsGainTracker.record(context, packageName, resolutionScale, fpsX100 / 100f);
+                }
+
+                GpuTelemetry.getInstance().sample(gpuSample);
+
+                ring.append(now, fpsX100, jankPermille, readMaxCpuFreqMhz(),
+                        toRingValue(gpuSample.freqMhz), toRingValue(gpuSample.loadPercent),
+                        readBatteryTemperature(), readAvailableMemoryMb(), readBatteryCurrentMa(),
+                        resolutionScale);
+
+                updateResolution(now, fpsX100, jankPermille);
+            } catch (Exception e) {
+                Logger.e(TAG, "Error sampling session", e);
+            }
+        }
+
+        /**
+         * Combine the adaptive scale with the thermal throttle level and apply the result
+         */
+        private void updateResolution(long now, int fpsX100, int jankPermille) {
+            int thermalStatus = thermalMonitor.getThermalStatus();
+            float headroom = thermalMonitor.getThermalHeadroom();
+            int previousLevel = thermalPolicy.getLevel();
+            if (thermalPolicy.update(now, headroom, thermalStatus) != previousLevel) {
+                PerformanceMonitor.recordDecision("thermal", thermalPolicy.getLastTrigger() + " for " + packageName);
+                updateRefreshRateCap();
+            }
+
+            int baseScale = launchScale;
+            if (controller != null) {
+                baseScale = fpsX100 == SessionRingFile.UNAVAILABLE
+                        ? controller.getScale()
+                        : controller.onSample(now, fpsX100 / 100f, jankPermille / 10f);
+            }
+            int requested = Math.min(Constants.MAX_RESOLUTION_SCALE, baseScale + thermalPolicy.getScaleOffset());
+            if (requested == resolutionScale) {
+                return;
+            }
+            if (DisplayScaler.applyScale(context, resolutionScale, requested)) {
+                PerformanceMonitor.recordDecision("resolution", String.format(Locale.US,
+                        "scale %d -> %d (%.1f fps, jank %.1f%%, thermal level %d)", resolutionScale, requested,
+                        fpsX100 / 100f, jankPermille / 10f, thermalPolicy.getLevel()));
+                resolutionScale = requested;
+            }
+        }
+
+        private void updateRefreshRateCap() {
+            if (thermalPolicy.isFpsCapped() && !refreshRateCapped) {
+                refreshRateCapped = DisplayScaler.capRefreshRate(context, THERMAL_REFRESH_RATE_CAP_HZ);
+            } else if (!thermalPolicy.isFpsCapped() && refreshRateCapped) {
+                DisplayScaler.restoreRefreshRate(context);
+                refreshRateCapped = false;
+            }
+        }
+
+        /**
+         * Release thermal listeners and undo the refresh rate cap
+         */
+        void close() {
+            thermalMonitor.stop();
+            if (refreshRateCapped) {
+                DisplayScaler.restoreRefreshRate(context);
+                refreshRateCapped = false;
+            }
+        }
+
+        /**
+         * Read frame pacing of the game's layer into frameStats, false if unavailable
+         */
+        private boolean sampleSurfaceFlinger() {
+            if (surfaceFlingerLayer == null) {
+                ExecuteADBCommands.CommandResult list =
+                        ExecuteADBCommands.executeWithResult(Cmd.dumpsys("SurfaceFlinger", "--list"));
+                surfaceFlingerLayer = list.success ? FrameStatsParser.findGameLayer(list.output, packageName) : null;
+                if (surfaceFlingerLayer == null) {
+                    return false;
+                }
+            }
+            ExecuteADBCommands.CommandResult latency =
+                    ExecuteADBCommands.executeWithResult(
+                            Cmd.dumpsys("SurfaceFlinger", "--latency", surfaceFlingerLayer));
+            if (latency.success && FrameStatsParser.parseSurfaceFlingerLatency(latency.output, frameStats)) {
+                return true;
+            }
+            surfaceFlingerLayer = null; // Layer may have been recreated
+            return false;
+        }
+
+        private static int toRingValue(int telemetryValue) {
+            return telemetryValue == GpuTelemetry.UNAVAILABLE ? SessionRingFile.UNAVAILABLE : telemetryValue;
+        }
+
+        private int readMaxCpuFreqMhz() {
+            long maxKhz = -1;
+            for (File node : cpuFreqNodes) {
+                long khz = readLong(node);
+                if (khz > maxKhz) {
+                    maxKhz = khz;
+                }
+            }
+            return maxKhz >= 0 ? (int) (maxKhz / 1000) : SessionRingFile.UNAVAILABLE;
+        }
+
+        private int readAvailableMemoryMb() {
+            if (activityManager == null) {
+                return SessionRingFile.UNAVAILABLE;
+            }
+            activityManager.getMemoryInfo(memoryInfo);
+            return (int) (memoryInfo.availMem / (1024 * 1024));
+        }
+
+        private int readBatteryCurrentMa() {
+            if (batteryManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+                return SessionRingFile.UNAVAILABLE;
+            }
+            int microAmps = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CURRENT_NOW);
+            return microAmps == Integer.MIN_VALUE ? SessionRingFile.UNAVAILABLE : microAmps / 1000;
+        }
+
+        private int readBatteryTemperature() {
+            // Sticky broadcast, no receiver is registered
+            Intent battery = context.registerReceiver(null, batteryFilter);
+            if (battery == null) {
+                return SessionRingFile.UNAVAILABLE;
+            }
+            return battery.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, SessionRingFile.UNAVAILABLE);
+        }
+
+        /**
+         * Read a single non-negative integer from a sysfs node, -1 on failure
+         */
+        private long readLong(File node) {
+            int length;
+            try (FileInputStream in = new FileInputStream(node)) {
+                length = in.read(readBuffer);
+            } catch (IOException | SecurityException e) {
+                return -1;
+            }
+
+            long value = -1;
+            for (int i = 0; i < length; i++) {
+                byte b = readBuffer[i];
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = (value < 0 ? 0 : value * 10) + (b - '0');
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.dnagda.eliteG.session;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size, memory-mapped binary ring file for game session samples.
+ * Records are fixed width and written with absolute puts, so appending a sample
+ * allocates nothing and survives process death (the pages belong to the kernel).
+ *
+ * Layout: a {@value #HEADER_SIZE}-byte header followed by {@code capacity} records
+ * of {@value #RECORD_SIZE} bytes. The header's write counter is bumped only after
+ * a record is complete, and once the ring is full the record about to be overwritten
+ * is dropped from the readable range before the write starts, so a write torn by
+ * process death is never visible to the reader.
+ */
+public final class SessionRingFile implements Closeable {
+
+    static final int MAGIC = 0x45475352; // "EGSR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 128;
+    static final int RECORD_SIZE = 48;
+    static final int MAX_PACKAGE_BYTES = 64;
+
+    // Header offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_RECORD_SIZE = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_TOTAL_WRITTEN = 16;
+    private static final int H_SESSION_ID = 24;
+    private static final int H_SESSION_SCALE = 28;
+    private static final int H_SESSION_START = 32;
+    private static final int H_SESSION_END = 40;
+    private static final int H_PACKAGE_LENGTH = 48;
+    private static final int H_PACKAGE = 50;
+    // Index of the oldest readable record; 0 in files written before it existed
+    static final int H_OLDEST = 120;
+
+    // Record offsets
+    private static final int R_TIMESTAMP = 0;
+    private static final int R_SESSION_ID = 8;
+    private static final int R_FPS_X100 = 12;
+    private static final int R_JANK_PERMILLE = 16;
+    private static final int R_CPU_FREQ = 20;
+    private static final int R_GPU_FREQ = 24;
+    private static final int R_GPU_LOAD = 28;
+    private static final int R_TEMPERATURE = 32;
+    private static final int R_AVAIL_MEM = 36;
+    private static final int R_BATTERY_CURRENT = 40;
+    private static final int R_SCALE = 44;
+
+    /** Marker for a value that could not be sampled */
+    public static final int UNAVAILABLE = Integer.MIN_VALUE;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private SessionRingFile(RandomAccessFile file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Open or create a ring file. An existing file with a different layout is reset.
+     */
+    public static SessionRingFile open(File path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        RandomAccessFile raf = new RandomAccessFile(path, "rw");
+        try {
+            boolean fresh = raf.length() != size;
+            if (fresh) {
+                raf.setLength(size);
+            }
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (fresh || !isValidHeader(mapped, capacity)) {
+                initializeHeader(mapped, capacity);
+            }
+            return new SessionRingFile(raf, mapped, capacity);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static boolean isValidHeader(MappedByteBuffer mapped, int capacity) {
+        return mapped.getInt(H_MAGIC) == MAGIC
+                && mapped.getInt(H_VERSION) == VERSION
+                && mapped.getInt(H_RECORD_SIZE) == RECORD_SIZE
+                && mapped.getInt(H_CAPACITY) == capacity;
+    }
+
+    private static void initializeHeader(MappedByteBuffer mapped, int capacity) {
+        for (int i = 0; i < HEADER_SIZE; i++) {
+            mapped.put(i, (byte) 0);
+        }
+        mapped.putInt(H_VERSION, VERSION);
+        mapped.putInt(H_RECORD_SIZE, RECORD_SIZE);
+        mapped.putInt(H_CAPACITY, capacity);
+        mapped.putLong(H_TOTAL_WRITTEN, 0);
+        // Magic last: a half-initialized header is rejected on the next open
+        mapped.putInt(H_MAGIC, MAGIC);
+    }
+
+    /**
+     * Start a new session and return its id
+     */
+    public synchronized int beginSession(String packageName, int resolutionScale, long startTimeMs) {
+        int sessionId = buffer.getInt(H_SESSION_ID) + 1;
+
+        byte[] packageBytes = packageName != null
+                ? packageName.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = Math.min(packageBytes.length, MAX_PACKAGE_BYTES);
+        for (int i = 0; i < length; i++) {
+            buffer.put(H_PACKAGE + i, packageBytes[i]);
+        }
+        buffer.putShort(H_PACKAGE_LENGTH, (short) length);
+        buffer.putInt(H_SESSION_SCALE, resolutionScale);
+        buffer.putLong(H_SESSION_START, startTimeMs);
+        buffer.putLong(H_SESSION_END, 0);
+        buffer.putInt(H_SESSION_ID, sessionId);
+        return sessionId;
+    }
+
+    /**
+     * Mark the current session as finished and flush the mapping
+     */
+    public synchronized void endSession(long endTimeMs) {
+        buffer.putLong(H_SESSION_END, endTimeMs);
+        buffer.force();
+    }
+
+    /**
+     * Append one sample to the current session. Allocation free.
+     */
+    public synchronized void append(long timestampMs, int fpsX100, int jankPermille, int cpuFreqMhz,
+                                    int gpuFreqMhz, int gpuLoadPercent, int temperatureDeciC,
+                                    int availMemMb, int batteryCurrentMa, int resolutionScale) {
+        long total = buffer.getLong(H_TOTAL_WRITTEN);
+        int offset = recordOffset(total);
+        if (total >= capacity) {
+            // Stop reading the record this one replaces before touching it
+            buffer.putLong(H_OLDEST, total - capacity + 1);
+        }
+
+        buffer.putLong(offset + R_TIMESTAMP, timestampMs);
+        buffer.putInt(offset + R_SESSION_ID, buffer.getInt(H_SESSION_ID));
+        buffer.putInt(offset + R_FPS_X100, fpsX100);
+        buffer.putInt(offset + R_JANK_PERMILLE, jankPermille);
+        buffer.putInt(offset + R_CPU_FREQ, cpuFreqMhz);
+        buffer.putInt(offset + R_GPU_FREQ, gpuFreqMhz);
+        buffer.putInt(offset + R_GPU_LOAD, gpuLoadPercent);
+        buffer.putInt(offset + R_TEMPERATURE, temperatureDeciC);
+        buffer.putInt(offset + R_AVAIL_MEM, availMemMb);
+        buffer.putInt(offset + R_BATTERY_CURRENT, batteryCurrentMa);
+        buffer.putInt(offset + R_SCALE, resolutionScale);
+
+        // Publish the record only once it is complete
+        buffer.putLong(H_TOTAL_WRITTEN, total + 1);
+    }
+
+    /**
+     * Get the id of the most recent session, or 0 if none was recorded
+     */
+    public synchronized int getCurrentSessionId() {
+        return buffer.getInt(H_SESSION_ID);
+    }
+
+    /**
+     * Check whether the most recent session is still open (e.g. the process died mid-session)
+     */
+    public synchronized boolean isSessionOpen() {
+        return buffer.getInt(H_SESSION_ID) > 0 && buffer.getLong(H_SESSION_END) == 0;
+    }
+
+    /**
+     * Number of records currently held in the ring
+     */
+    public synchronized int getRecordCount() {
+        long total = buffer.getLong(H_TOTAL_WRITTEN);
+        return (int) (total - getOldest(total));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Summarize all retained samples of a session. Package, scale and times are only
+     * known for the most recent session, older ones come back with the sample data only.
+     */
+    public synchronized SessionSummary summarize(int sessionId) {
+        SessionSummary summary = new SessionSummary(sessionId);
+        if (sessionId == buffer.getInt(H_SESSION_ID)) {
+            int length = buffer.getShort(H_PACKAGE_LENGTH);
+            byte[] packageBytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                packageBytes[i] = buffer.get(H_PACKAGE + i);
+            }
+            summary.packageName = new String(packageBytes, StandardCharsets.UTF_8);
+            summary.resolutionScale = buffer.getInt(H_SESSION_SCALE);
+            summary.startTimeMs = buffer.getLong(H_SESSION_START);
+            summary.endTimeMs = buffer.getLong(H_SESSION_END);
+        }
+
+        long total = buffer.getLong(H_TOTAL_WRITTEN);
+        for (long index = getOldest(total); index < total; index++) {
+            int offset = recordOffset(index);
+            if (buffer.getInt(offset + R_SESSION_ID) != sessionId) {
+                continue;
+            }
+            summary.add(
+                    buffer.getLong(offset + R_TIMESTAMP),
+                    buffer.getInt(offset + R_FPS_X100),
+                    buffer.getInt(offset + R_JANK_PERMILLE),
+                    buffer.getInt(offset + R_CPU_FREQ),
+                    buffer.getInt(offset + R_GPU_FREQ),
+                    buffer.getInt(offset + R_GPU_LOAD),
+                    buffer.getInt(offset + R_TEMPERATURE),
+                    buffer.getInt(offset + R_AVAIL_MEM),
+                    buffer.getInt(offset + R_BATTERY_CURRENT));
+        }
+        return summary;
+    }
+
+    // Index of the oldest complete record, given the number of records written
+    private long getOldest(long total) {
+        long oldest = Math.max(0, total - capacity);
+        return Math.min(total, Math.max(oldest, buffer.getLong(H_OLDEST)));
+    }
+
+    private int recordOffset(long index) {
+        return HEADER_SIZE + (int) (index % capacity) * RECORD_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+}
@@ -0,0 +1,163 @@
+package com.dnagda.eliteG.session;
+
+import java.util.Locale;
+
+/**
+ * Aggregated view of one recorded game session.
+ * Values that were never sampled are reported as {@link SessionRingFile#UNAVAILABLE}.
+ */
+public final class SessionSummary {
+    private final int sessionId;
+
+    String packageName = "";
+    int resolutionScale = SessionRingFile.UNAVAILABLE;
+    long startTimeMs;
+    long endTimeMs;
+
+    private int sampleCount;
+    private long firstSampleMs;
+    private long lastSampleMs;
+
+    private final Accumulator fps = new Accumulator();
+    private final Accumulator jank = new Accumulator();
+    private final Accumulator cpuFreq = new Accumulator();
+    private final Accumulator gpuFreq = new Accumulator();
+    private final Accumulator gpuLoad = new Accumulator();
+    private final Accumulator temperature = new Accumulator();
+    private final Accumulator availMem = new Accumulator();
+    private final Accumulator batteryCurrent = new Accumulator();
+
+    SessionSummary(int sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    void add(long timestampMs, int fpsX100, int jankPermille, int cpuFreqMhz, int gpuFreqMhz,
+             int gpuLoadPercent, int temperatureDeciC, int availMemMb, int batteryCurrentMa) {
+        if (sampleCount == 0) {
+            firstSampleMs = timestampMs;
+        }
+        lastSampleMs = timestampMs;
+        sampleCount++;
+
+        fps.add(fpsX100);
+        jank.add(jankPermille);
+        cpuFreq.add(cpuFreqMhz);
+        gpuFreq.add(gpuFreqMhz);
+        gpuLoad.add(gpuLoadPercent);
+        temperature.add(temperatureDeciC);
+        availMem.add(availMemMb);
+        batteryCurrent.add(batteryCurrentMa);
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public int getResolutionScale() {
+        return resolutionScale;
+    }
+
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    public long getEndTimeMs() {
+        return endTimeMs;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Duration covered by the retained samples
+     */
+    public long getSampledDurationMs() {
+        return sampleCount > 1 ? lastSampleMs - firstSampleMs : 0;
+    }
+
+    public float getAverageFps() {
+        return fps.count > 0 ? (float) fps.average() / 100f : SessionRingFile.UNAVAILABLE;
+    }
+
+    public float getMinFps() {
+        return fps.count > 0 ? fps.min / 100f : SessionRingFile.UNAVAILABLE;
+    }
+
+    /**
+     * Average share of janky frames, in percent
+     */
+    public float getJankPercent() {
+        return jank.count > 0 ? (float) jank.average() / 10f : SessionRingFile.UNAVAILABLE;
+    }
+
+    public int getAverageCpuFreqMhz() {
+        return cpuFreq.averageOrUnavailable();
+    }
+
+    public int getAverageGpuFreqMhz() {
+        return gpuFreq.averageOrUnavailable();
+    }
+
+    public int getAverageGpuLoadPercent() {
+        return gpuLoad.averageOrUnavailable();
+    }
+
+    /**
+     * Peak temperature in tenths of a degree Celsius
+     */
+    public int getMaxTemperatureDeciC() {
+        return temperature.count > 0 ? temperature.max : SessionRingFile.UNAVAILABLE;
+    }
+
+    public int getMinAvailableMemoryMb() {
+        return availMem.count > 0 ? availMem.min : SessionRingFile.UNAVAILABLE;
+    }
+
+    public int getAverageBatteryCurrentMa() {
+        return batteryCurrent.averageOrUnavailable();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Session %d (%s @ %d): %d samples over %ds, fps avg %.1f min %.1f, jank %.1f%%, "
+                        + "cpu %d MHz, gpu %d MHz / %d%%, max temp %.1fC, min free %d MB, current %d mA",
+                sessionId, packageName, resolutionScale, sampleCount, getSampledDurationMs() / 1000,
+                getAverageFps(), getMinFps(), getJankPercent(),
+                getAverageCpuFreqMhz(), getAverageGpuFreqMhz(), getAverageGpuLoadPercent(),
+                getMaxTemperatureDeciC() / 10f, getMinAvailableMemoryMb(), getAverageBatteryCurrentMa());
+    }
+
+    /**
+     * Running min/max/mean that ignores unavailable samples
+     */
+    private static final class Accumulator {
+        int count;
+        long total;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        void add(int value) {
+            if (value == SessionRingFile.UNAVAILABLE) {
+                return;
+            }
+            count++;
+            total += value;
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+
+        double average() {
+            return (double) total / count;
+        }
+
+        int averageOrUnavailable() {
+            return count > 0 ? (int) Math.round(average()) : SessionRingFile.UNAVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.dnagda.eliteG.session;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.PowerManager;
+
+import com.dnagda.eliteG.utils.Logger;
+
+/**
+ * Tracks thermal status through {@link PowerManager#addThermalStatusListener} (API 29+)
+ * and reads the thermal headroom forecast on demand (API 30+).
+ */
+final class ThermalMonitor {
+    private static final String TAG = "ThermalMonitor";
+
+    // How far ahead the headroom forecast looks
+    static final int FORECAST_SECONDS = 10;
+
+    private final PowerManager powerManager;
+    private volatile int thermalStatus = AdaptiveResolutionController.THERMAL_STATUS_NONE;
+    private Object statusListener; // PowerManager.OnThermalStatusChangedListener on API 29+
+
+    ThermalMonitor(Context context) {
+        this.powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+    }
+
+    /**
+     * Start listening for thermal status changes
+     */
+    void start() {
+        if (powerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return;
+        }
+        thermalStatus = powerManager.getCurrentThermalStatus();
+        PowerManager.OnThermalStatusChangedListener listener = status -> {
+            if (status != thermalStatus) {
+                Logger.d(TAG, "Thermal status changed to " + status);
+            }
+            thermalStatus = status;
+        };
+        // Status changes are rare, deliver them on the binder thread
+        powerManager.addThermalStatusListener(Runnable::run, listener);
+        statusListener = listener;
+    }
+
+    /**
+     * Stop listening for thermal status changes
+     */
+    void stop() {
+        if (statusListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            powerManager.removeThermalStatusListener((PowerManager.OnThermalStatusChangedListener) statusListener);
+            statusListener = null;
+        }
+    }
+
+    int getThermalStatus() {
+        return thermalStatus;
+    }
+
+    /**
+     * Forecast headroom, or NaN when unsupported or polled more often than once per second
+     */
+    float getThermalHeadroom() {
+        if (powerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+            return Float.NaN;
+        }
+        return powerManager.getThermalHeadroom(FORECAST_SECONDS);
+    }
+}
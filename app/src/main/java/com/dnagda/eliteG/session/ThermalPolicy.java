@@ -0,0 +1,100 @@
+package com.dnagda.eliteG.session;
+
+import java.util.Locale;
+
+/**
+ * Maps thermal headroom forecasts and thermal status to a throttle level.
+ * Throttling is applied pre-emptively as soon as headroom shrinks, and released one level
+ * at a time once headroom has recovered past a margin and the level has been held long enough.
+ * Pure Java so it can be tested with recorded headroom traces.
+ */
+public final class ThermalPolicy {
+
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_REDUCE_SCALE = 1;
+    public static final int LEVEL_CAP_FPS = 2;
+    public static final int LEVEL_REDUCE_MORE = 3;
+
+    // Forecast headroom at which each level is entered; 1.0 is where severe throttling starts
+    static final float[] ENTER_HEADROOM = {0.75f, 0.85f, 0.95f};
+    static final float EXIT_MARGIN = 0.10f;
+    static final long MIN_HOLD_MS = 30_000;
+
+    private static final int SCALE_OFFSET_PER_STEP = AdaptiveResolutionController.SCALE_STEP;
+
+    private int level = LEVEL_NONE;
+    private long lastChangeMs;
+    private float lastHeadroom = Float.NaN;
+    private String lastTrigger = "";
+
+    /**
+     * Feed the latest forecast headroom (NaN when unsupported or rate limited) and
+     * thermal status, and return the throttle level to apply
+     */
+    public int update(long nowMs, float headroom, int thermalStatus) {
+        if (!Float.isNaN(headroom)) {
+            lastHeadroom = headroom;
+        }
+        int statusLevel = Math.min(LEVEL_REDUCE_MORE, Math.max(LEVEL_NONE, thermalStatus));
+        int wanted = Math.max(statusLevel, levelForHeadroom(lastHeadroom, 0f));
+
+        if (wanted > level) {
+            changeLevel(wanted, nowMs, headroom, thermalStatus);
+        } else if (level > LEVEL_NONE && nowMs - lastChangeMs >= MIN_HOLD_MS) {
+            // Release only once headroom is clearly below the current level's entry point
+            int released = Math.max(statusLevel, levelForHeadroom(lastHeadroom, EXIT_MARGIN));
+            if (released < level) {
+                changeLevel(level - 1, nowMs, headroom, thermalStatus);
+            }
+        }
+        return level;
+    }
+
+    private static int levelForHeadroom(float headroom, float margin) {
+        if (Float.isNaN(headroom)) {
+            return LEVEL_NONE;
+        }
+        int result = LEVEL_NONE;
+        for (int i = 0; i < ENTER_HEADROOM.length; i++) {
+            if (headroom >= ENTER_HEADROOM[i] - margin) {
+                result = i + 1;
+            }
+        }
+        return result;
+    }
+
+    private void changeLevel(int newLevel, long nowMs, float headroom, int thermalStatus) {
+        lastTrigger = String.format(Locale.US, "level %d -> %d (headroom %.2f, status %d)",
+                level, newLevel, headroom, thermalStatus);
+        level = newLevel;
+        lastChangeMs = nowMs;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Resolution scale to add on top of the user's or adaptive scale
+     */
+    public int getScaleOffset() {
+        if (level >= LEVEL_REDUCE_MORE) {
+            return 2 * SCALE_OFFSET_PER_STEP;
+        }
+        return level >= LEVEL_REDUCE_SCALE ? SCALE_OFFSET_PER_STEP : 0;
+    }
+
+    /**
+     * Check if the display refresh rate should be capped
+     */
+    public boolean isFpsCapped() {
+        return level >= LEVEL_CAP_FPS;
+    }
+
+    /**
+     * Describe the last level change and the values that triggered it
+     */
+    public String getLastTrigger() {
+        return lastTrigger;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dnagda.eliteG.startup;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import com.dnagda.eliteG.utils.CrashHandler;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Installs the global crash handler. Runs eagerly from InitializationProvider,
+ * before Application.onCreate, so crashes during the rest of startup are caught.
+ */
+public final class CrashHandlerInitializer implements Initializer<Boolean> {
+
+    @NonNull
+    @Override
+    public Boolean create(@NonNull Context context) {
+        StartupTiming.time("CrashHandler", () -> CrashHandler.install(context.getApplicationContext()));
+        return Boolean.TRUE;
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
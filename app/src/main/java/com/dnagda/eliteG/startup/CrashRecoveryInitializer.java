@@ -0,0 +1,38 @@
+package com.dnagda.eliteG.startup;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import com.dnagda.eliteG.utils.CrashHandler;
+import com.dnagda.eliteG.utils.Logger;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports recent crashes recorded by the crash handler. Deferred until after the first frame.
+ */
+public final class CrashRecoveryInitializer implements Initializer<Integer> {
+    private static final String TAG = "CrashRecoveryInitializer";
+
+    @NonNull
+    @Override
+    public Integer create(@NonNull Context context) {
+        int[] crashCount = new int[1];
+        StartupTiming.time("CrashRecovery", () -> {
+            crashCount[0] = CrashHandler.getCrashCount(context);
+            if (crashCount[0] > 0) {
+                Logger.w(TAG, "App recovered from " + crashCount[0] + " recent crashes");
+            }
+        });
+        return crashCount[0];
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.singletonList(CrashHandlerInitializer.class);
+    }
+}
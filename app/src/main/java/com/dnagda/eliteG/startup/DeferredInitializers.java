@@ -0,0 +1,44 @@
+package com.dnagda.eliteG.startup;
+
+import android.content.Context;
+
+import androidx.startup.AppInitializer;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.ThreadUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the non-critical initializers once the first frame has been drawn.
+ * AppInitializer resolves their dependencies and runs each component only once.
+ */
+public final class DeferredInitializers {
+    private static final String TAG = "DeferredInitializers";
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    // Prevent instantiation
+    private DeferredInitializers() {
+        throw new AssertionError("DeferredInitializers class should not be instantiated");
+    }
+
+    /**
+     * Initialize the deferred components on a background thread; later calls do nothing
+     */
+    public static void start(Context context) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            try {
+                AppInitializer initializer = AppInitializer.getInstance(appContext);
+                initializer.initializeComponent(PerformanceMonitorInitializer.class);
+                initializer.initializeComponent(CrashRecoveryInitializer.class);
+            } catch (Exception e) {
+                Logger.e(TAG, "Deferred initialization failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.dnagda.eliteG.startup;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Logs startup memory, checks device capabilities (binder calls) and starts frame rate
+ * monitoring. Deferred until after the first frame.
+ */
+public final class PerformanceMonitorInitializer implements Initializer<Boolean> {
+    private static final String TAG = "PerformanceMonitorInitializer";
+
+    @NonNull
+    @Override
+    public Boolean create(@NonNull Context context) {
+        boolean[] adequate = new boolean[1];
+        StartupTiming.time("PerformanceMonitor", () -> {
+            Logger.logMemoryUsage("Application startup");
+            adequate[0] = PerformanceMonitor.isDevicePerformanceAdequate(context);
+            Logger.d(TAG, "Device performance adequate: " + adequate[0]);
+            PerformanceMonitor.startFrameRateMonitoring();
+        });
+        return adequate[0];
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.singletonList(CrashHandlerInitializer.class);
+    }
+}
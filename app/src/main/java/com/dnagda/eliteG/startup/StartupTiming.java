@@ -0,0 +1,57 @@
+package com.dnagda.eliteG.startup;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.dnagda.eliteG.utils.Logger;
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+/**
+ * Startup timing instrumentation. Records how long each initializer took and how far
+ * into the process lifetime startup milestones were reached, as PerformanceMonitor metrics.
+ */
+public final class StartupTiming {
+    private static final String TAG = "StartupTiming";
+
+    static final String METRIC_INITIALIZER_PREFIX = "startup.init.";
+    static final String METRIC_MILESTONE_PREFIX = "startup.since_process_start.";
+
+    // Fallback origin when the process start time is unavailable (API < 24)
+    private static final long CLASS_LOAD_TIME = SystemClock.elapsedRealtime();
+
+    // Prevent instantiation
+    private StartupTiming() {
+        throw new AssertionError("StartupTiming class should not be instantiated");
+    }
+
+    /**
+     * Run an initializer step and record its duration
+     */
+    static void time(String name, Runnable step) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            step.run();
+        } finally {
+            long elapsed = SystemClock.elapsedRealtime() - start;
+            PerformanceMonitor.recordMetric(METRIC_INITIALIZER_PREFIX + name + "_ms", elapsed);
+            Logger.d(TAG, name + " initialized in " + elapsed + "ms");
+        }
+    }
+
+    /**
+     * Record that a startup milestone (e.g. application created, first frame) was reached
+     */
+    public static void milestone(String name) {
+        long elapsed = SystemClock.elapsedRealtime() - getProcessStart();
+        PerformanceMonitor.recordMetric(METRIC_MILESTONE_PREFIX + name + "_ms", elapsed);
+        Logger.d(TAG, name + " reached " + elapsed + "ms after process start");
+    }
+
+    private static long getProcessStart() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Process.getStartElapsedRealtime();
+        }
+        return CLASS_LOAD_TIME;
+    }
+}
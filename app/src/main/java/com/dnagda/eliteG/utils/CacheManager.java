@@ -0,0 +1,164 @@
+package com.dnagda.eliteG.utils;
+
+import android.content.ComponentCallbacks2;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+/**
+ * Central registry of in-memory caches, released in priority tiers on memory pressure.
+ * Cheap-to-rebuild caches go first so EliteG shrinks itself before the system starts
+ * reclaiming memory from the game.
+ */
+public final class CacheManager {
+    private static final String TAG = "CacheManager";
+
+    // Cheap to rebuild: package lists, parsed tables and command output
+    public static final int PRIORITY_LOW = 0;
+    // Visible UI state: icons
+    public static final int PRIORITY_NORMAL = 1;
+    // Telemetry that cannot be rebuilt once dropped
+    public static final int PRIORITY_HIGH = 2;
+
+    static final int RELEASE_NONE = -1;
+    static final String METRIC_FREED_BYTES = "cache.freed_bytes";
+
+    /**
+     * A cache that can drop its contents on request
+     */
+    public interface Trimmable {
+        /**
+         * Release everything held, returning the estimated number of bytes freed
+         */
+        long trim();
+    }
+
+    private static final class Entry {
+        final String name;
+        final int priority;
+        final Trimmable cache;
+
+        Entry(String name, int priority, Trimmable cache) {
+            this.name = name;
+            this.priority = priority;
+            this.cache = cache;
+        }
+    }
+
+    private static final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    // Prevent instantiation
+    private CacheManager() {
+        throw new AssertionError("CacheManager class should not be instantiated");
+    }
+
+    /**
+     * Register a cache, replacing any cache registered under the same name
+     */
+    public static void register(String name, int priority, Trimmable cache) {
+        unregister(name);
+        entries.add(new Entry(name, priority, cache));
+    }
+
+    /**
+     * Register a cache owned by a short-lived object such as an activity. The registry only
+     * holds the owner weakly, so a missed {@link #unregister} can't leak it; once the owner
+     * is collected the entry frees nothing. {@code trim} must not capture the owner itself.
+     */
+    public static <T> void register(String name, int priority, T owner, ToLongFunction<T> trim) {
+        WeakReference<T> ownerRef = new WeakReference<>(owner);
+        register(name, priority, () -> {
+            T current = ownerRef.get();
+            return current != null ? trim.applyAsLong(current) : 0;
+        });
+    }
+
+    /**
+     * Unregister a cache, e.g. when the activity owning it is destroyed
+     */
+    public static void unregister(String name) {
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) {
+                entries.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Release the cache tiers matching a ComponentCallbacks2 trim level, lowest priority first.
+     * @return estimated bytes freed
+     */
+    public static long onTrimMemory(int level) {
+        int highest = getHighestPriorityToRelease(level);
+        if (highest == RELEASE_NONE) {
+            return 0;
+        }
+        long freed = release(highest);
+        PerformanceMonitor.recordMetric(METRIC_FREED_BYTES, freed);
+        PerformanceMonitor.recordDecision("memory", String.format(Locale.US,
+                "trim level %d released priority <= %d, freed %d kB", level, highest, freed / 1024));
+        return freed;
+    }
+
+    /**
+     * Release every cache
+     * @return estimated bytes freed
+     */
+    public static long onLowMemory() {
+        return onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    /**
+     * Release all caches up to and including a priority, lowest priority first
+     */
+    static long release(int highestPriority) {
+        List<Entry> ordered = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.priority <= highestPriority) {
+                ordered.add(entry);
+            }
+        }
+        Collections.sort(ordered, (a, b) -> Integer.compare(a.priority, b.priority));
+
+        long total = 0;
+        for (Entry entry : ordered) {
+            try {
+                long freed = Math.max(0, entry.cache.trim());
+                total += freed;
+                Logger.d(TAG, "Trimmed " + entry.name + ": " + freed / 1024 + " kB");
+            } catch (Exception e) {
+                Logger.e(TAG, "Error trimming " + entry.name, e);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Map a trim level to the highest cache priority that should be released
+     */
+    static int getHighestPriorityToRelease(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // Next in line to be killed: keep nothing
+            return PRIORITY_HIGH;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            // UI not visible (e.g. a game is running): icons and lists are not needed
+            return PRIORITY_NORMAL;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            return PRIORITY_HIGH;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            return PRIORITY_NORMAL;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return PRIORITY_LOW;
+        }
+        return RELEASE_NONE;
+    }
+}
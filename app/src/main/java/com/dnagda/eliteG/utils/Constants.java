@@ -15,7 +15,6 @@ public final class Constants {
     public static final String APP_PACKAGE_NAME = "com.dnagda.eliteG";
     public static final String PACKAGE_NAME = APP_PACKAGE_NAME; // Alias for tests
     public static final String SETTINGS_FILE_NAME = "SETTINGS";
-    public static final String TEMP_FILE_NAME = "tmp";
     
     // Performance Constants
     public static final float FPS_BOOST_MULTIPLIER = 0.8f;
@@ -24,6 +23,8 @@ public final class Constants {
     public static final int DEFAULT_RESOLUTION_SCALE = 75;
     public static final int MIN_RESOLUTION_SCALE = 50;
     public static final int MAX_RESOLUTION_SCALE = 100;
+    public static final int DEFAULT_ADAPTIVE_MIN_SCALE = 0;
+    public static final int DEFAULT_ADAPTIVE_MAX_SCALE = 60;
     
     // UI Constants
     public static final float DIALOG_WIDTH_RATIO = 0.90f;
@@ -34,18 +35,9 @@ public final class Constants {
     
     // Animation Constants
     public static final float ANIMATION_SCALE_DISABLED = 0.5f;
-    public static final float ANIMATION_SCALE_DEFAULT = 1.0f;
     
     // ADB Commands
     public static final String ADB_GRANT_COMMAND = "adb shell pm grant com.dnagda.eliteG android.permission.WRITE_SECURE_SETTINGS";
-    public static final String ADB_COMMAND_KILL_ALL = "am kill-all";
-    public static final String ADB_COMMAND_WM_SIZE = "wm size";
-    public static final String ADB_COMMAND_WM_DENSITY = "wm density";
-    public static final String ADB_COMMAND_WM_SIZE_RESET = "wm size reset";
-    public static final String ADB_COMMAND_WM_DENSITY_RESET = "wm density reset";
-    public static final String ADB_COMMAND_FORCE_STOP = "am force-stop ";
-    public static final String ADB_COMMAND_SETTINGS_GET = "settings get secure android_id";
-    public static final String ADB_COMMAND_FONT_SCALE = "settings put system font_scale ";
     
     // Settings Keys
     public static final String PREF_FIRST_LAUNCH = "firstLaunch";
@@ -59,13 +51,19 @@ public final class Constants {
     public static final String PREF_LAST_RESOLUTION_SCALE = "lastResolutionScale";
     public static final String PREF_IS_ROOT = "isRoot";
     public static final String PREF_GAME_SUFFIX = "thGame";
+    public static final String PREF_ADAPTIVE_RESOLUTION = "adaptiveResolution";
+    public static final String PREF_ADAPTIVE_MIN_SCALE = "adaptiveMinScale";
+    public static final String PREF_ADAPTIVE_MAX_SCALE = "adaptiveMaxScale";
+    public static final String PREF_ADAPTIVE_TARGET_FPS = "adaptiveTargetFps";
+    public static final String PREF_AUTO_SESSION_DETECTION = "autoSessionDetection";
+    public static final String PREF_LIBRARY_CHANGED = "libraryChanged";
     
-    // Performance Settings
-    public static final String SETTING_WINDOW_ANIMATION_SCALE = "settings put global window_animation_scale ";
-    public static final String SETTING_TRANSITION_ANIMATION_SCALE = "settings put global transition_animation_scale ";
-    public static final String SETTING_ANIMATOR_DURATION_SCALE = "settings put global animator_duration_scale ";
-    public static final String SETTING_LOW_POWER_MODE = "settings put global low_power_mode ";
-    public static final String SETTING_BACKGROUND_APP_REFRESH = "settings put global background_app_refresh_disabled ";
+    // Global settings changed by the performance optimizations
+    public static final String SETTING_WINDOW_ANIMATION_SCALE = "window_animation_scale";
+    public static final String SETTING_TRANSITION_ANIMATION_SCALE = "transition_animation_scale";
+    public static final String SETTING_ANIMATOR_DURATION_SCALE = "animator_duration_scale";
+    public static final String SETTING_LOW_POWER_MODE = "low_power_mode";
+    public static final String SETTING_BACKGROUND_APP_REFRESH = "background_app_refresh_disabled";
     
     // Permissions
     public static final String PERMISSION_WRITE_SECURE_SETTINGS = "android.permission.WRITE_SECURE_SETTINGS";
@@ -89,6 +87,8 @@ public final class Constants {
     // Timeouts
     public static final long ADB_COMMAND_TIMEOUT_MS = 5000;
     public static final long ADB_TIMEOUT_MS = ADB_COMMAND_TIMEOUT_MS; // Alias for tests
+    public static final long ADB_COMMAND_MIN_TIMEOUT_MS = 500; // Floor for learned timeouts
+    public static final long ADB_COMMAND_MAX_TIMEOUT_MS = 20000; // Hard ceiling for learned timeouts
     public static final long UI_TIMEOUT_MS = 3000;
     public static final long PERFORMANCE_CHECK_TIMEOUT_MS = 2000;
     public static final long SPLASH_SCREEN_DELAY_MS = 2000;
@@ -4,6 +4,8 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Build;
 
+import com.dnagda.eliteG.SettingsStore;
+
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
@@ -150,9 +152,8 @@ public class CrashHandler implements Thread.UncaughtExceptionHandler {
      */
     private void clearAppData() {
         try {
-            // Clear SharedPreferences
-            SharedPreferences settingsPrefs = context.getSharedPreferences(Constants.SETTINGS_FILE_NAME, Context.MODE_PRIVATE);
-            settingsPrefs.edit().clear().apply();
+            // Clear settings; written now since the process is about to die
+            SettingsStore.getInstance(context).edit().clear().commit();
             
             Logger.d(TAG, "App data cleared for crash recovery");
         } catch (Exception e) {
@@ -165,12 +166,11 @@ public class CrashHandler implements Thread.UncaughtExceptionHandler {
      */
     private void resetSettingsData() {
         try {
-            SharedPreferences prefs = context.getSharedPreferences(Constants.SETTINGS_FILE_NAME, Context.MODE_PRIVATE);
-            prefs.edit()
+            SettingsStore.getInstance(context).edit()
                 .remove(Constants.PREF_LAST_RESOLUTION_SCALE)
                 .remove(Constants.PREF_AGGRESSIVE_LMK)
                 .remove(Constants.PREF_IS_MURDERER)
-                .apply();
+                .commit();
                 
             Logger.d(TAG, "Settings data reset for crash recovery");
         } catch (Exception e) {
@@ -0,0 +1,349 @@
+package com.dnagda.eliteG.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * GPU load and frequency telemetry for EliteG.
+ * Probes the known vendor sysfs nodes once, caches the working set of paths
+ * and samples them without further directory scans.
+ *
+ * Fallback chain: Adreno (kgsl) -> Mali -> Samsung kernel gpu -> devfreq.
+ */
+public final class GpuTelemetry {
+    private static final String TAG = "GpuTelemetry";
+
+    public static final int UNAVAILABLE = -1;
+
+    // Metric names reported to PerformanceMonitor
+    public static final String METRIC_GPU_LOAD = "gpu.load_percent";
+    public static final String METRIC_GPU_FREQ = "gpu.freq_mhz";
+
+    // Adreno (Qualcomm KGSL)
+    static final String KGSL_DIR = "sys/class/kgsl/kgsl-3d0";
+    static final String KGSL_BUSY_PERCENTAGE = "gpu_busy_percentage";
+    static final String KGSL_GPUBUSY = "gpubusy";
+    static final String KGSL_GPUCLK = "gpuclk";
+    static final String KGSL_DEVFREQ_CUR_FREQ = "devfreq/cur_freq";
+
+    // Mali (ARM) platform devices
+    static final String PLATFORM_DIR = "sys/devices/platform";
+    static final String MALI_UTILIZATION = "utilization";
+    static final String MALI_CLOCK = "clock";
+
+    // Samsung Exynos kernel gpu nodes
+    static final String KERNEL_GPU_DIR = "sys/kernel/gpu";
+    static final String KERNEL_GPU_BUSY = "gpu_busy";
+    static final String KERNEL_GPU_CLOCK = "gpu_clock";
+
+    // Generic devfreq
+    static final String DEVFREQ_DIR = "sys/class/devfreq";
+    static final String DEVFREQ_CUR_FREQ = "cur_freq";
+    static final String DEVFREQ_LOAD = "load";
+    static final String DEVFREQ_GPU_LOAD = "gpu_load";
+    private static final String[] DEVFREQ_GPU_HINTS = {"gpu", "kgsl", "mali", "g3d"};
+
+    private static final long HZ_PER_MHZ = 1_000_000L;
+    private static final int READ_BUFFER_SIZE = 64;
+
+    /**
+     * Telemetry source selected by the probe
+     */
+    public enum Source {
+        ADRENO, MALI, KERNEL_GPU, DEVFREQ, NONE
+    }
+
+    /**
+     * How a load node encodes its value
+     */
+    enum LoadFormat {
+        PERCENT,    // "37" or "37 %" or "37@585000000Hz"
+        BUSY_TOTAL  // "busy total" (kgsl gpubusy)
+    }
+
+    /**
+     * Reusable sample holder to keep the sampling path allocation free
+     */
+    public static final class Sample {
+        public int loadPercent = UNAVAILABLE;
+        public int freqMhz = UNAVAILABLE;
+
+        void clear() {
+            loadPercent = UNAVAILABLE;
+            freqMhz = UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Working set of nodes found by the probe
+     */
+    static final class Probe {
+        final Source source;
+        final File loadNode;
+        final LoadFormat loadFormat;
+        final File freqNode;
+        final long freqDivisor; // raw value / divisor = MHz
+
+        Probe(Source source, File loadNode, LoadFormat loadFormat, File freqNode, long freqDivisor) {
+            this.source = source;
+            this.loadNode = loadNode;
+            this.loadFormat = loadFormat;
+            this.freqNode = freqNode;
+            this.freqDivisor = freqDivisor;
+        }
+    }
+
+    private static final Probe NO_PROBE = new Probe(Source.NONE, null, LoadFormat.PERCENT, null, 1);
+
+    private static volatile GpuTelemetry instance;
+
+    private final File root;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    private final long[] parsed = new long[2];
+    private volatile Probe probe;
+
+    /**
+     * Create telemetry reading from the given filesystem root (a fake sysfs tree in tests)
+     */
+    public GpuTelemetry(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Get the device-wide telemetry instance
+     */
+    public static GpuTelemetry getInstance() {
+        if (instance == null) {
+            synchronized (GpuTelemetry.class) {
+                if (instance == null) {
+                    instance = new GpuTelemetry(new File("/"));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the detected source, probing on first use
+     */
+    public Source getSource() {
+        return getProbe().source;
+    }
+
+    /**
+     * Check if any GPU telemetry node is readable on this device
+     */
+    public boolean isAvailable() {
+        return getProbe().source != Source.NONE;
+    }
+
+    /**
+     * Sample GPU load and frequency into the given holder and feed PerformanceMonitor.
+     * Returns false if neither value could be read.
+     */
+    public boolean sample(Sample out) {
+        out.clear();
+        Probe current = getProbe();
+        if (current.source == Source.NONE) {
+            return false;
+        }
+
+        synchronized (readBuffer) {
+            if (current.loadNode != null) {
+                out.loadPercent = readLoad(current.loadNode, current.loadFormat);
+            }
+            if (current.freqNode != null && readNumbers(current.freqNode) >= 1) {
+                out.freqMhz = (int) (parsed[0] / current.freqDivisor);
+            }
+        }
+
+        if (out.loadPercent != UNAVAILABLE) {
+            PerformanceMonitor.recordMetric(METRIC_GPU_LOAD, out.loadPercent);
+        }
+        if (out.freqMhz != UNAVAILABLE) {
+            PerformanceMonitor.recordMetric(METRIC_GPU_FREQ, out.freqMhz);
+        }
+        return out.loadPercent != UNAVAILABLE || out.freqMhz != UNAVAILABLE;
+    }
+
+    /**
+     * Drop the cached probe so the next sample re-detects the nodes
+     */
+    public void reset() {
+        probe = null;
+    }
+
+    private Probe getProbe() {
+        Probe current = probe;
+        if (current == null) {
+            synchronized (this) {
+                current = probe;
+                if (current == null) {
+                    current = detect();
+                    probe = current;
+                    Logger.d(TAG, "GPU telemetry source: " + current.source
+                            + " (load: " + current.loadNode + ", freq: " + current.freqNode + ")");
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Run the vendor fallback chain once
+     */
+    Probe detect() {
+        Probe found = probeAdreno();
+        if (found == null) found = probeMali();
+        if (found == null) found = probeKernelGpu();
+        if (found == null) found = probeDevfreq();
+        return found != null ? found : NO_PROBE;
+    }
+
+    private Probe probeAdreno() {
+        File dir = new File(root, KGSL_DIR);
+        if (!dir.isDirectory()) {
+            return null;
+        }
+
+        File loadNode = readable(new File(dir, KGSL_BUSY_PERCENTAGE));
+        LoadFormat format = LoadFormat.PERCENT;
+        if (loadNode == null) {
+            loadNode = readable(new File(dir, KGSL_GPUBUSY));
+            format = LoadFormat.BUSY_TOTAL;
+        }
+
+        File freqNode = readable(new File(dir, KGSL_GPUCLK));
+        if (freqNode == null) {
+            freqNode = readable(new File(dir, KGSL_DEVFREQ_CUR_FREQ));
+        }
+
+        return create(Source.ADRENO, loadNode, format, freqNode, HZ_PER_MHZ);
+    }
+
+    private Probe probeMali() {
+        File[] devices = new File(root, PLATFORM_DIR).listFiles();
+        if (devices == null) {
+            return null;
+        }
+
+        for (File device : devices) {
+            if (!device.getName().toLowerCase().contains("mali")) {
+                continue;
+            }
+            File loadNode = readable(new File(device, MALI_UTILIZATION));
+            File freqNode = readable(new File(device, MALI_CLOCK));
+            Probe found = create(Source.MALI, loadNode, LoadFormat.PERCENT, freqNode, 1);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private Probe probeKernelGpu() {
+        File dir = new File(root, KERNEL_GPU_DIR);
+        return create(Source.KERNEL_GPU,
+                readable(new File(dir, KERNEL_GPU_BUSY)), LoadFormat.PERCENT,
+                readable(new File(dir, KERNEL_GPU_CLOCK)), 1);
+    }
+
+    private Probe probeDevfreq() {
+        File[] devices = new File(root, DEVFREQ_DIR).listFiles();
+        if (devices == null) {
+            return null;
+        }
+
+        for (File device : devices) {
+            if (!isGpuDevfreq(device.getName())) {
+                continue;
+            }
+            File loadNode = readable(new File(device, DEVFREQ_GPU_LOAD));
+            if (loadNode == null) {
+                loadNode = readable(new File(device, DEVFREQ_LOAD));
+            }
+            File freqNode = readable(new File(device, DEVFREQ_CUR_FREQ));
+            Probe found = create(Source.DEVFREQ, loadNode, LoadFormat.PERCENT, freqNode, HZ_PER_MHZ);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isGpuDevfreq(String name) {
+        String lower = name.toLowerCase();
+        for (String hint : DEVFREQ_GPU_HINTS) {
+            if (lower.contains(hint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Probe create(Source source, File loadNode, LoadFormat format, File freqNode, long divisor) {
+        if (loadNode == null && freqNode == null) {
+            return null;
+        }
+        return new Probe(source, loadNode, format, freqNode, divisor);
+    }
+
+    /**
+     * Return the node if it exists and can actually be read (SELinux often blocks sysfs reads)
+     */
+    private File readable(File node) {
+        if (!node.isFile() || !node.canRead()) {
+            return null;
+        }
+        synchronized (readBuffer) {
+            return readNumbers(node) >= 1 ? node : null;
+        }
+    }
+
+    private int readLoad(File node, LoadFormat format) {
+        int count = readNumbers(node);
+        if (format == LoadFormat.BUSY_TOTAL) {
+            if (count < 2) {
+                return UNAVAILABLE;
+            }
+            // An idle GPU reports "0 0"
+            return parsed[1] > 0 ? (int) Math.min(100, parsed[0] * 100 / parsed[1]) : 0;
+        }
+        return count >= 1 ? (int) Math.min(100, parsed[0]) : UNAVAILABLE;
+    }
+
+    /**
+     * Read up to two non-negative integers from a sysfs node into {@code parsed}.
+     * Uses the shared buffer, so callers must hold its lock.
+     */
+    private int readNumbers(File node) {
+        int length;
+        try (FileInputStream in = new FileInputStream(node)) {
+            length = in.read(readBuffer);
+        } catch (IOException | SecurityException e) {
+            return 0;
+        }
+
+        int count = 0;
+        long value = 0;
+        boolean inNumber = false;
+        for (int i = 0; i < length && count < parsed.length; i++) {
+            byte b = readBuffer[i];
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                inNumber = true;
+            } else if (inNumber) {
+                parsed[count++] = value;
+                value = 0;
+                inNumber = false;
+                // Ignore whatever follows '@' in "load@freq" style nodes
+                if (b == '@') break;
+            }
+        }
+        if (inNumber && count < parsed.length) {
+            parsed[count++] = value;
+        }
+        return count;
+    }
+}
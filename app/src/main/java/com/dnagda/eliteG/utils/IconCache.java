@@ -0,0 +1,91 @@
+package com.dnagda.eliteG.utils;
+
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+/**
+ * Bounded cache of app icons keyed by package name.
+ * Stores constant states so every caller gets its own drawable sharing one bitmap.
+ * Released with the PRIORITY_NORMAL tier of CacheManager.
+ */
+public final class IconCache {
+    private static final String TAG = "IconCache";
+
+    private static final int MAX_BYTES = (int) Math.min(4L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 32);
+    // Used when a drawable has no intrinsic size (e.g. adaptive icons before layout)
+    private static final int FALLBACK_ICON_BYTES = 192 * 192 * 4;
+
+    private static final class Entry {
+        final Drawable.ConstantState state;
+        final int bytes;
+
+        Entry(Drawable.ConstantState state, int bytes) {
+            this.state = state;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final LruCache<String, Entry> cache = new LruCache<String, Entry>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Entry value) {
+            return value.bytes;
+        }
+    };
+
+    static {
+        CacheManager.register("icons", CacheManager.PRIORITY_NORMAL, IconCache::clear);
+    }
+
+    // Prevent instantiation
+    private IconCache() {
+        throw new AssertionError("IconCache class should not be instantiated");
+    }
+
+    /**
+     * Get a new drawable for a cached icon, or null on a miss
+     */
+    public static Drawable get(String packageName) {
+        Entry entry = cache.get(packageName);
+        return entry != null ? entry.state.newDrawable() : null;
+    }
+
+    /**
+     * Cache an icon; drawables without a constant state are not cached
+     */
+    public static void put(String packageName, Drawable icon) {
+        Drawable.ConstantState state = icon != null ? icon.getConstantState() : null;
+        if (state != null) {
+            cache.put(packageName, new Entry(state, estimateBytes(icon)));
+        }
+    }
+
+    /**
+     * Check whether an icon is cached, i.e. its bitmap stays in memory while the cache holds it
+     */
+    public static boolean contains(String packageName) {
+        return cache.get(packageName) != null;
+    }
+
+    /**
+     * Drop all cached icons
+     * @return estimated bytes freed
+     */
+    public static long clear() {
+        long freed = cache.size();
+        cache.evictAll();
+        Logger.d(TAG, "Icon cache cleared");
+        return freed;
+    }
+
+    /**
+     * Estimate the bitmap memory behind a drawable
+     */
+    public static int estimateBytes(Drawable drawable) {
+        if (drawable == null) {
+            return 0;
+        }
+        int width = drawable.getIntrinsicWidth();
+        int height = drawable.getIntrinsicHeight();
+        return width > 0 && height > 0 ? width * height * 4 : FALLBACK_ICON_BYTES;
+    }
+}
@@ -6,6 +6,16 @@ import android.os.Build;
 import android.os.Debug;
 import android.os.SystemClock;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,6 +32,20 @@ public final class PerformanceMonitor {
     private static final Map<String, AtomicLong> operationCounts = new ConcurrentHashMap<>();
     private static final Map<String, AtomicLong> operationTotalTimes = new ConcurrentHashMap<>();
     
+    // Sampled metrics (telemetry values, counters)
+    private static final Map<String, MetricStats> metrics = new ConcurrentHashMap<>();
+    
+    // Recent automatic decisions (thermal, adaptive) with their trigger values
+    private static final int MAX_DECISIONS = 64;
+    private static final ArrayDeque<String> decisions = new ArrayDeque<>(MAX_DECISIONS);
+    
+    // Process labels for resident set size metrics
+    public static final String PROCESS_UI = "ui";
+    public static final String PROCESS_AGENT = "agent";
+    static final String METRIC_RSS_PREFIX = "rss_kb.";
+    static final String METRIC_RSS_AGENT_PERCENT_OF_UI = "rss_kb.agent_percent_of_ui";
+    private static final String PROC_STATUS = "/proc/self/status";
+    
     // Memory tracking
     private static long lastMemoryCheck = 0;
     private static final long MEMORY_CHECK_INTERVAL = 30000; // 30 seconds
@@ -30,6 +54,13 @@ public final class PerformanceMonitor {
     private static final long SLOW_OPERATION_THRESHOLD_MS = 1000;
     private static final long VERY_SLOW_OPERATION_THRESHOLD_MS = 3000;
     
+    // Rough heap cost of one metric or decision entry
+    private static final int TELEMETRY_ENTRY_BYTES = 128;
+    
+    static {
+        CacheManager.register("telemetry", CacheManager.PRIORITY_HIGH, PerformanceMonitor::trimTelemetry);
+    }
+    
     // Prevent instantiation
     private PerformanceMonitor() {
         throw new AssertionError("PerformanceMonitor class should not be instantiated");
@@ -98,6 +129,48 @@ public final class PerformanceMonitor {
         return (double) totalTime.get() / count.get();
     }
     
+    /**
+     * Record a sampled metric value (e.g. GPU load, frequency)
+     */
+    public static void recordMetric(String metricName, long value) {
+        MetricStats stats = metrics.get(metricName);
+        if (stats == null) {
+            metrics.putIfAbsent(metricName, new MetricStats());
+            stats = metrics.get(metricName);
+        }
+        stats.record(value);
+    }
+    
+    /**
+     * Get statistics for a recorded metric, or null if never recorded
+     */
+    public static MetricStats getMetric(String metricName) {
+        return metrics.get(metricName);
+    }
+    
+    /**
+     * Record an automatic decision together with the values that triggered it
+     */
+    public static void recordDecision(String source, String decision) {
+        String entry = String.format(Locale.US, "%tT %s: %s", System.currentTimeMillis(), source, decision);
+        synchronized (decisions) {
+            if (decisions.size() == MAX_DECISIONS) {
+                decisions.removeFirst();
+            }
+            decisions.addLast(entry);
+        }
+        Logger.d(TAG, "Decision - " + source + ": " + decision);
+    }
+    
+    /**
+     * Get recent decisions, oldest first
+     */
+    public static List<String> getRecentDecisions() {
+        synchronized (decisions) {
+            return new ArrayList<>(decisions);
+        }
+    }
+    
     /**
      * Check and log memory usage if interval has passed
      */
@@ -161,6 +234,101 @@ public final class PerformanceMonitor {
         }
     }
     
+    /**
+     * Record the resident set size of the current process under a process label.
+     * Lets the UI and :agent processes be compared from their performance reports.
+     * Does disk I/O, avoid calling on the main thread in tight loops.
+     */
+    public static long recordProcessRss(String processLabel) {
+        long rssKb = -1;
+        try (BufferedReader reader = new BufferedReader(new FileReader(PROC_STATUS))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rssKb = parseVmRssKb(line);
+                if (rssKb >= 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            Logger.w(TAG, "Could not read process status", e);
+        }
+        if (rssKb >= 0) {
+            recordMetric(METRIC_RSS_PREFIX + processLabel, rssKb);
+            Logger.d(TAG, "RSS (" + processLabel + "): " + rssKb + " kB");
+        }
+        return rssKb;
+    }
+    
+    /**
+     * Record the resident set size like {@link #recordProcessRss(String)} and keep it in a
+     * small per-process file, so each process can read the other's last value. Once both are
+     * known, the :agent RSS as a percentage of the UI RSS is recorded and logged.
+     * The file work runs on an I/O thread.
+     */
+    public static long recordProcessRss(Context context, String processLabel) {
+        long rssKb = recordProcessRss(processLabel);
+        if (rssKb < 0) {
+            return rssKb;
+        }
+        Context appContext = context.getApplicationContext();
+        ThreadUtils.executeIoTask(() -> {
+            File dir = appContext.getFilesDir();
+            writeRssFile(new File(dir, METRIC_RSS_PREFIX + processLabel), rssKb);
+            long agentKb = PROCESS_AGENT.equals(processLabel) ? rssKb : readRssFile(new File(dir, METRIC_RSS_PREFIX + PROCESS_AGENT));
+            long uiKb = PROCESS_UI.equals(processLabel) ? rssKb : readRssFile(new File(dir, METRIC_RSS_PREFIX + PROCESS_UI));
+            long percent = getPercentOf(agentKb, uiKb);
+            if (percent >= 0) {
+                recordMetric(METRIC_RSS_AGENT_PERCENT_OF_UI, percent);
+                Logger.d(TAG, "RSS agent " + agentKb + " kB vs UI " + uiKb + " kB (" + percent + "%)");
+            }
+        });
+        return rssKb;
+    }
+    
+    /**
+     * {@code part} as a whole percentage of {@code whole}, or -1 if either is unknown
+     */
+    static long getPercentOf(long part, long whole) {
+        return part < 0 || whole <= 0 ? -1 : Math.round(part * 100.0 / whole);
+    }
+    
+    private static void writeRssFile(File file, long rssKb) {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(Long.toString(rssKb).getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            Logger.w(TAG, "Could not store RSS in " + file.getName(), e);
+        }
+    }
+    
+    private static long readRssFile(File file) {
+        if (!file.exists()) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            return line != null ? Long.parseLong(line.trim()) : -1;
+        } catch (IOException | NumberFormatException e) {
+            Logger.w(TAG, "Could not read RSS from " + file.getName(), e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Parse a "VmRSS:   123456 kB" status line, or return -1 for any other line
+     */
+    static long parseVmRssKb(String line) {
+        if (line == null || !line.startsWith("VmRSS:")) {
+            return -1;
+        }
+        String value = line.substring("VmRSS:".length()).trim();
+        int space = value.indexOf(' ');
+        try {
+            return Long.parseLong(space > 0 ? value.substring(0, space) : value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
     /**
      * Get performance statistics for all operations
      */
@@ -178,9 +346,31 @@ public final class PerformanceMonitor {
                 operation, count, avgTime));
         }
         
+        for (Map.Entry<String, MetricStats> entry : metrics.entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        
+        for (String decision : getRecentDecisions()) {
+            report.append(decision).append('\n');
+        }
+        
         return report.toString();
     }
     
+    /**
+     * Drop sampled metrics and recent decisions under memory pressure
+     * @return estimated bytes freed
+     */
+    static long trimTelemetry() {
+        long freed = (long) metrics.size() * TELEMETRY_ENTRY_BYTES;
+        metrics.clear();
+        synchronized (decisions) {
+            freed += (long) decisions.size() * TELEMETRY_ENTRY_BYTES;
+            decisions.clear();
+        }
+        return freed;
+    }
+    
     /**
      * Reset all performance statistics
      */
@@ -188,6 +378,10 @@ public final class PerformanceMonitor {
         operationStartTimes.clear();
         operationCounts.clear();
         operationTotalTimes.clear();
+        metrics.clear();
+        synchronized (decisions) {
+            decisions.clear();
+        }
         lastMemoryCheck = 0;
         
         Logger.d(TAG, "Performance statistics reset");
@@ -227,6 +421,51 @@ public final class PerformanceMonitor {
         }
     }
     
+    /**
+     * Running statistics for a sampled metric
+     */
+    public static final class MetricStats {
+        private long count;
+        private long total;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private long last;
+        
+        synchronized void record(long value) {
+            count++;
+            total += value;
+            last = value;
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        
+        public synchronized long getCount() {
+            return count;
+        }
+        
+        public synchronized long getLast() {
+            return last;
+        }
+        
+        public synchronized long getMin() {
+            return count > 0 ? min : 0;
+        }
+        
+        public synchronized long getMax() {
+            return count > 0 ? max : 0;
+        }
+        
+        public synchronized double getAverage() {
+            return count > 0 ? (double) total / count : 0.0;
+        }
+        
+        @Override
+        public synchronized String toString() {
+            return String.format("%d samples, last %d, avg %.1f, min %d, max %d",
+                count, last, getAverage(), getMin(), getMax());
+        }
+    }
+    
     /**
      * Automatic operation timing using try-with-resources pattern
      */
@@ -10,13 +10,17 @@ import android.os.Build;
  */
 public final class PerformanceUtils {
     
+    // Base resolution scale per SoC GPU class, entry to flagship
+    private static final int[] SOC_BASE_SCALE = {30, 25, 15, 10, 0};
+    
     // Prevent instantiation
     private PerformanceUtils() {
         throw new AssertionError("PerformanceUtils class should not be instantiated");
     }
     
     /**
-     * Calculate FPS boost percentage based on resolution scale
+     * Estimate FPS boost percentage based on resolution scale.
+     * Only a fallback until FpsGainTracker has measured data for the game.
      */
     public static int calculateFpsBoost(int resolutionScale) {
         return Math.round(resolutionScale * Constants.FPS_BOOST_MULTIPLIER);
@@ -125,9 +129,22 @@ public final class PerformanceUtils {
     }
     
     /**
-     * Get recommended resolution scale based on device specs
+     * Get recommended resolution scale based on device specs.
+     * Known SoCs are rated by GPU class and sustained tier; others fall back to RAM and resolution only.
      */
     public static int getRecommendedResolutionScale(Context context, int currentWidth, int currentHeight) {
+        return getRecommendedResolutionScale(context, SocDatabase.lookupDevice(context), currentWidth, currentHeight);
+    }
+
+    /**
+     * Get recommended resolution scale for an already looked up SoC, null if it is unknown
+     */
+    public static int getRecommendedResolutionScale(Context context, SocDatabase.SocProfile soc,
+                                                    int currentWidth, int currentHeight) {
+        if (soc != null) {
+            return recommendResolutionScale(soc, getTotalMemoryMB(context), currentWidth * currentHeight);
+        }
+
         if (!isResolutionScalingRecommended(context, currentWidth, currentHeight)) {
             return Constants.DEFAULT_RESOLUTION_SCALE;
         }
@@ -157,6 +174,34 @@ public final class PerformanceUtils {
         }
     }
     
+    /**
+     * Combine a SoC profile with RAM and panel resolution into a resolution scale
+     */
+    static int recommendResolutionScale(SocDatabase.SocProfile soc, long totalMemoryMb, int pixelCount) {
+        // Weaker GPUs need more reduction to reach a playable frame rate
+        int scale = SOC_BASE_SCALE[soc.gpuClass - SocDatabase.GPU_CLASS_ENTRY];
+
+        if (pixelCount > (2560 * 1440)) {
+            scale += 10; // QHD+ panels cost the GPU ~1.8x the pixels of FHD+
+        } else if (pixelCount <= (1600 * 720)) {
+            scale -= 5;
+        }
+
+        if (soc.sustainedTier == SocDatabase.SUSTAINED_TIER_LOW) {
+            scale += 5; // Leave headroom for thermal throttling
+        } else if (soc.sustainedTier == SocDatabase.SUSTAINED_TIER_HIGH) {
+            scale -= 5;
+        }
+
+        if (totalMemoryMb > 0 && totalMemoryMb < 2048) {
+            scale += 10;
+        } else if (totalMemoryMb > 0 && totalMemoryMb < 3072) {
+            scale += 5;
+        }
+
+        return Math.max(0, Math.min(Constants.MAX_RESOLUTION_SCALE, scale));
+    }
+    
     /**
      * Validate resolution scale value
      */
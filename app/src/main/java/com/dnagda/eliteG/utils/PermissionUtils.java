@@ -46,6 +46,34 @@ public class PermissionUtils {
         return false;
     }
 
+    /**
+     * Checks if usage access (PACKAGE_USAGE_STATS) was granted in system settings.
+     *
+     * @param context Application context
+     * @return true if granted, false otherwise
+     */
+    public static boolean isUsageAccessGranted(Context context) {
+        if (context == null) return false;
+        try {
+            AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+            if (appOps != null) {
+                int mode;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    mode = appOps.unsafeCheckOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS,
+                            android.os.Process.myUid(), context.getPackageName());
+                } else {
+                    mode = appOps.checkOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS,
+                            android.os.Process.myUid(), context.getPackageName());
+                }
+                Log.d(TAG, "Usage access AppOpsManager mode: " + mode);
+                return mode == AppOpsManager.MODE_ALLOWED;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error checking usage access via AppOpsManager", e);
+        }
+        return false;
+    }
+
     /**
      * Robust check for WRITE_SECURE_SETTINGS: tries to write a dummy value to Settings.Secure.
      * Returns true if successful, false if SecurityException or any error.
@@ -0,0 +1,123 @@
+package com.dnagda.eliteG.utils;
+
+/**
+ * Every resolution scale step of one display, computed once: the size, the matching DPI
+ * and the formatted label. The slider and the launch path look sizes up here instead of
+ * recomputing them.
+ *
+ * Sizes keep the native aspect ratio and are aligned to 32, 16 or 8 pixels, the coarsest
+ * alignment that keeps the aspect ratio within {@link #MAX_ASPECT_ERROR}. Aligned sizes
+ * scale faster and look sharper than the odd sizes of the plain coefficient formula.
+ */
+public final class ResolutionLadder {
+
+    private static final int[] ALIGNMENTS = {32, 16, 8};
+    static final double MAX_ASPECT_ERROR = 0.005;
+
+    private static ResolutionLadder cached;
+
+    private final int originalWidth;
+    private final int originalHeight;
+    private final int originalDpi;
+    private final int[] widths = new int[Constants.MAX_RESOLUTION_SCALE + 1];
+    private final int[] heights = new int[Constants.MAX_RESOLUTION_SCALE + 1];
+    private final int[] dpis = new int[Constants.MAX_RESOLUTION_SCALE + 1];
+    private final String[] labels = new String[Constants.MAX_RESOLUTION_SCALE + 1];
+
+    ResolutionLadder(int originalWidth, int originalHeight, int originalDpi) {
+        this.originalWidth = originalWidth;
+        this.originalHeight = originalHeight;
+        this.originalDpi = originalDpi;
+        build();
+    }
+
+    /**
+     * Get the ladder for a display, reusing the last one built for the same display
+     */
+    public static synchronized ResolutionLadder forDisplay(int originalWidth, int originalHeight, int originalDpi) {
+        ResolutionLadder ladder = cached;
+        if (ladder == null || ladder.originalWidth != originalWidth
+                || ladder.originalHeight != originalHeight || ladder.originalDpi != originalDpi) {
+            ladder = new ResolutionLadder(originalWidth, originalHeight, originalDpi);
+            cached = ladder;
+        }
+        return ladder;
+    }
+
+    public int getWidth(int scale) {
+        return widths[clampScale(scale)];
+    }
+
+    public int getHeight(int scale) {
+        return heights[clampScale(scale)];
+    }
+
+    /**
+     * DPI that keeps UI elements the same physical size at this step
+     */
+    public int getDpi(int scale) {
+        return dpis[clampScale(scale)];
+    }
+
+    /**
+     * Formatted "WIDTHxHEIGHT" label of this step
+     */
+    public String getLabel(int scale) {
+        return labels[clampScale(scale)];
+    }
+
+    public static int clampScale(int scale) {
+        return Math.max(0, Math.min(Constants.MAX_RESOLUTION_SCALE, scale));
+    }
+
+    private void build() {
+        for (int scale = 0; scale <= Constants.MAX_RESOLUTION_SCALE; scale++) {
+            int width = originalWidth;
+            int height = originalHeight;
+            if (scale > 0 && originalWidth > 0 && originalHeight > 0) {
+                double factor = 1.0 - Constants.RESOLUTION_COEFFICIENT_MULTIPLIER * scale;
+                int[] size = alignedSize(originalWidth * factor);
+                // Rounding must never make a step larger than the one before it
+                boolean larger = size[0] > widths[scale - 1] || size[1] > heights[scale - 1];
+                width = larger ? widths[scale - 1] : size[0];
+                height = larger ? heights[scale - 1] : size[1];
+            }
+            widths[scale] = width;
+            heights[scale] = height;
+            dpis[scale] = originalWidth > 0
+                    ? PerformanceUtils.calculateOptimalDpi(originalDpi, originalWidth, width)
+                    : originalDpi;
+            labels[scale] = UIUtils.formatResolution(width, height);
+        }
+    }
+
+    /**
+     * Size close to {@code targetWidth} with the native aspect ratio, using the coarsest
+     * alignment that keeps the ratio accurate enough; the finest alignment otherwise
+     */
+    private int[] alignedSize(double targetWidth) {
+        int[] best = null;
+        for (int alignment : ALIGNMENTS) {
+            int width = align(targetWidth, alignment, originalWidth);
+            int height = align((double) width * originalHeight / originalWidth, alignment, originalHeight);
+            best = new int[]{width, height};
+            if (getAspectError(width, height) <= MAX_ASPECT_ERROR) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static int align(double value, int alignment, int max) {
+        int aligned = (int) Math.round(value / alignment) * alignment;
+        if (aligned > max) {
+            aligned -= alignment;
+        }
+        return Math.max(alignment, aligned);
+    }
+
+    double getAspectError(int width, int height) {
+        double nativeAspect = (double) originalWidth / originalHeight;
+        return Math.abs((double) width / height - nativeAspect) / nativeAspect;
+    }
+}
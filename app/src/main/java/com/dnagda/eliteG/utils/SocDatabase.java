@@ -0,0 +1,171 @@
+package com.dnagda.eliteG.utils;
+
+import android.content.Context;
+import android.os.Build;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bundled table of known SoCs with their GPU class and sustained performance tier.
+ * Loaded from assets on first lookup, then kept in memory.
+ */
+public final class SocDatabase {
+    private static final String TAG = "SocDatabase";
+
+    static final String ASSET_NAME = "soc_profiles.txt";
+
+    public static final int GPU_CLASS_ENTRY = 1;
+    public static final int GPU_CLASS_FLAGSHIP = 5;
+    public static final int SUSTAINED_TIER_LOW = 1;
+    public static final int SUSTAINED_TIER_HIGH = 3;
+
+    // Rough heap cost of one parsed table entry
+    private static final int ENTRY_BYTES = 96;
+
+    private static volatile Map<String, SocProfile> profiles;
+
+    static {
+        // Only needed around first launch, reloaded from assets on demand
+        CacheManager.register("soc_profiles", CacheManager.PRIORITY_LOW, SocDatabase::clear);
+    }
+
+    // Prevent instantiation
+    private SocDatabase() {
+        throw new AssertionError("SocDatabase class should not be instantiated");
+    }
+
+    /**
+     * Performance profile of a SoC
+     */
+    public static final class SocProfile {
+        public final String key;
+        public final int gpuClass;
+        public final int sustainedTier;
+
+        SocProfile(String key, int gpuClass, int sustainedTier) {
+            this.key = key;
+            this.gpuClass = gpuClass;
+            this.sustainedTier = sustainedTier;
+        }
+
+        @Override
+        public String toString() {
+            return key + " (gpu class " + gpuClass + ", sustained tier " + sustainedTier + ")";
+        }
+    }
+
+    /**
+     * Find the profile of this device's SoC, or null if it is not in the table
+     */
+    public static SocProfile lookupDevice(Context context) {
+        String socModel = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S ? Build.SOC_MODEL : null;
+        return lookup(getProfiles(context), socModel, getSystemProperty("ro.board.platform"),
+                Build.HARDWARE, Build.BOARD);
+    }
+
+    /**
+     * Return the profile of the first key found in the table, most specific key first
+     */
+    static SocProfile lookup(Map<String, SocProfile> table, String... keys) {
+        for (String key : keys) {
+            if (key == null || key.isEmpty()) {
+                continue;
+            }
+            SocProfile profile = table.get(key.trim().toLowerCase(Locale.US));
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drop the parsed table
+     * @return estimated bytes freed
+     */
+    static long clear() {
+        Map<String, SocProfile> table = profiles;
+        profiles = null;
+        return table != null ? (long) table.size() * ENTRY_BYTES : 0;
+    }
+
+    private static Map<String, SocProfile> getProfiles(Context context) {
+        Map<String, SocProfile> table = profiles;
+        if (table == null) {
+            synchronized (SocDatabase.class) {
+                table = profiles;
+                if (table == null) {
+                    table = load(context);
+                    profiles = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static Map<String, SocProfile> load(Context context) {
+        try (InputStream in = context.getApplicationContext().getAssets().open(ASSET_NAME)) {
+            Map<String, SocProfile> table = parse(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            Logger.d(TAG, "Loaded " + table.size() + " SoC profiles");
+            return table;
+        } catch (IOException e) {
+            Logger.e(TAG, "Could not load SoC profiles", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Parse "key gpu_class sustained_tier" lines; comments and malformed lines are skipped
+     */
+    static Map<String, SocProfile> parse(Reader source) throws IOException {
+        Map<String, SocProfile> table = new HashMap<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts.length != 3) {
+                continue;
+            }
+            try {
+                int gpuClass = Integer.parseInt(parts[1]);
+                int sustainedTier = Integer.parseInt(parts[2]);
+                if (gpuClass < GPU_CLASS_ENTRY || gpuClass > GPU_CLASS_FLAGSHIP
+                        || sustainedTier < SUSTAINED_TIER_LOW || sustainedTier > SUSTAINED_TIER_HIGH) {
+                    continue;
+                }
+                String key = parts[0].toLowerCase(Locale.US);
+                table.put(key, new SocProfile(key, gpuClass, sustainedTier));
+            } catch (NumberFormatException ignored) {
+                // Skip malformed entry
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Read a system property without spawning getprop, null if unavailable
+     */
+    private static String getSystemProperty(String name) {
+        try {
+            Class<?> systemProperties = Class.forName("android.os.SystemProperties");
+            Method get = systemProperties.getMethod("get", String.class);
+            return (String) get.invoke(null, name);
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
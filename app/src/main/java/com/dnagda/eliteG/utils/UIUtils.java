@@ -2,8 +2,14 @@ package com.dnagda.eliteG.utils;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
 import android.graphics.Insets;
 import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.DisplayMetrics;
 import android.view.Display;
@@ -12,6 +18,8 @@ import android.view.WindowManager;
 import android.view.WindowMetrics;
 import android.widget.Toast;
 
+import java.io.ByteArrayOutputStream;
+
 /**
  * Utility class for UI-related operations in EliteG.
  * Provides helper methods for display metrics, screen dimensions, and UI feedback.
@@ -237,4 +245,39 @@ public final class UIUtils {
             return Constants.ICON_SIZE - 20;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Render a drawable into a square bitmap of the given size. Call on the main thread
+     * when the drawable is attached to a view.
+     */
+    public static Bitmap drawableToBitmap(Drawable drawable, int size) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Rect bounds = drawable.copyBounds();
+        drawable.setBounds(0, 0, size, size);
+        drawable.draw(canvas);
+        drawable.setBounds(bounds);
+        return bitmap;
+    }
+    
+    /**
+     * Compress a bitmap to PNG and recycle it; safe to call off the main thread
+     */
+    public static byte[] bitmapToPng(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+    
+    /**
+     * Decode a PNG produced by {@link #bitmapToPng}, or return null if it is not decodable
+     */
+    public static Drawable pngToDrawable(Resources resources, byte[] png) {
+        if (png == null || png.length == 0) {
+            return null;
+        }
+        Bitmap bitmap = BitmapFactory.decodeByteArray(png, 0, png.length);
+        return bitmap != null ? new BitmapDrawable(resources, bitmap) : null;
+    }
+}
@@ -15,6 +15,7 @@ import com.dnagda.eliteG.MainActivity;
 import com.dnagda.eliteG.SettingsManager;
 import com.dnagda.eliteG.utils.Logger;
 import com.dnagda.eliteG.utils.PerformanceUtils;
+import com.dnagda.eliteG.utils.ResolutionLadder;
 
 import java.util.List;
 
@@ -194,11 +195,10 @@ public class MainViewModel extends ViewModel {
         int originalWidth = settingsManager.getOriginalWidth();
         int originalHeight = settingsManager.getOriginalHeight();
         
-        float widthCoeff = PerformanceUtils.calculateWidthCoefficient(originalWidth);
-        float heightCoeff = PerformanceUtils.calculateHeightCoefficient(originalHeight);
-        
-        int newWidth = PerformanceUtils.calculateNewWidth(originalWidth, widthCoeff, scale);
-        int newHeight = PerformanceUtils.calculateNewHeight(originalHeight, heightCoeff, scale);
+        ResolutionLadder ladder = ResolutionLadder.forDisplay(originalWidth, originalHeight,
+                settingsManager.getOriginalDensity());
+        int newWidth = ladder.getWidth(scale);
+        int newHeight = ladder.getHeight(scale);
         
         ExecuteADBCommands.changeResolutionAsync(newWidth, newHeight, new ExecuteADBCommands.ADBCallback() {
             @Override
@@ -0,0 +1,60 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for typed shell commands
+ */
+public class CmdTest {
+
+    @Test
+    public void testFactories_BuildArgv() {
+        assertArrayEquals(new String[]{"wm", "size", "1080x2400"}, Cmd.wmSize(1080, 2400).getArgv());
+        assertArrayEquals(new String[]{"wm", "density", "420"}, Cmd.wmDensity(420).getArgv());
+        assertArrayEquals(new String[]{"settings", "put", "global", "window_animation_scale", "0.5"},
+                Cmd.settingsPut("global", "window_animation_scale", "0.5").getArgv());
+        assertEquals("am force-stop com.example.game", Cmd.forceStop("com.example.game").toString());
+    }
+
+    @Test
+    public void testArgumentWithSpacesStaysOneArgument() {
+        Cmd cmd = Cmd.dumpsys("SurfaceFlinger", "--latency", "SurfaceView - com.example.game/.Main#0");
+        assertEquals(4, cmd.getArgv().length);
+        assertEquals("'dumpsys' 'SurfaceFlinger' '--latency' 'SurfaceView - com.example.game/.Main#0'",
+                cmd.toShellLine());
+    }
+
+    @Test
+    public void testToShellLine_QuotesSingleQuotes() {
+        assertEquals("'settings' 'put' 'system' 'name' 'it'\\''s'",
+                Cmd.settingsPut("system", "name", "it's").toShellLine());
+    }
+
+    @Test
+    public void testInvalidArgumentsRejectedAtConstruction() {
+        assertRejected(() -> Cmd.wmSize(0, 2400));
+        assertRejected(() -> Cmd.wmDensity(1001));
+        assertRejected(() -> Cmd.settingsGet("local", "key"));
+        assertRejected(() -> Cmd.settingsGet("global", "key;reboot"));
+        assertRejected(() -> Cmd.forceStop("com.example game"));
+        assertRejected(() -> Cmd.getprop("ro.build; reboot"));
+    }
+
+    @Test
+    public void testEqualCommands() {
+        assertEquals(Cmd.wmSizeReset(), Cmd.wmSizeReset());
+        assertEquals(Cmd.wmSizeReset().hashCode(), Cmd.wmSizeReset().hashCode());
+        assertFalse(Cmd.wmSizeReset().equals(Cmd.wmDensityReset()));
+    }
+
+    private static void assertRejected(Runnable build) {
+        try {
+            build.run();
+            fail("Invalid command should be rejected when built");
+        } catch (IllegalArgumentException expected) {
+            // Rejected before anything runs
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.dnagda.eliteG;
+
+import com.dnagda.eliteG.utils.Constants;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for timeouts learned from command latency
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CommandLatencyTrackerTest {
+
+    private final CommandLatencyTracker tracker = new CommandLatencyTracker();
+
+    @Test
+    public void testDefaultTimeoutUntilEnoughSamples() {
+        Cmd put = Cmd.settingsPut("global", "low_power_mode", "0");
+        for (int i = 0; i < CommandLatencyTracker.MIN_SAMPLES - 1; i++) {
+            tracker.record(put, 40);
+        }
+        assertEquals(Constants.ADB_COMMAND_TIMEOUT_MS, tracker.getTimeoutMs(put));
+        tracker.record(put, 40);
+        assertEquals(Constants.ADB_COMMAND_MIN_TIMEOUT_MS, tracker.getTimeoutMs(put));
+    }
+
+    @Test
+    public void testTimeoutFollowsP99() {
+        Cmd meminfo = Cmd.dumpsys("meminfo", "com.example.game");
+        for (int i = 0; i < CommandLatencyTracker.WINDOW; i++) {
+            tracker.record(meminfo, i == 0 ? 2000 : 1000);
+        }
+        assertEquals(2000 * CommandLatencyTracker.TIMEOUT_FACTOR, tracker.getTimeoutMs(meminfo));
+        // Other types keep their own distribution
+        assertEquals(Constants.ADB_COMMAND_TIMEOUT_MS, tracker.getTimeoutMs(Cmd.dumpsys("gfxinfo", "com.example.game")));
+    }
+
+    @Test
+    public void testTimeoutNeverExceedsCeiling() {
+        Cmd meminfo = Cmd.dumpsys("meminfo");
+        for (int i = 0; i < CommandLatencyTracker.MIN_SAMPLES; i++) {
+            tracker.record(meminfo, Constants.ADB_COMMAND_MAX_TIMEOUT_MS);
+        }
+        assertEquals(Constants.ADB_COMMAND_MAX_TIMEOUT_MS, tracker.getTimeoutMs(meminfo));
+    }
+
+    @Test
+    public void testTimeoutsRaiseTheNextTimeout() {
+        Cmd size = Cmd.wmSize(720, 1600);
+        for (int i = 0; i < CommandLatencyTracker.MIN_SAMPLES; i++) {
+            tracker.record(size, 100);
+        }
+        long first = tracker.getTimeoutMs(size);
+        tracker.recordTimeout(size, first);
+        assertEquals(first * CommandLatencyTracker.TIMEOUT_FACTOR, tracker.getTimeoutMs(size));
+    }
+
+    @Test
+    public void testCommandTypes() {
+        assertEquals("settings put", CommandLatencyTracker.getType(Cmd.settingsPut("system", "font_scale", "1.0")));
+        assertEquals("dumpsys meminfo query", CommandLatencyTracker.getType(Cmd.dumpsys("meminfo")));
+        assertEquals("getprop query", CommandLatencyTracker.getType(Cmd.getprop("ro.product.model")));
+        assertEquals("wm size", CommandLatencyTracker.getType(Cmd.wmSize(720, 1600)));
+        assertEquals("wm size query", CommandLatencyTracker.getType(Cmd.wmSizeQuery()));
+    }
+
+    @Test
+    public void testQueriesDoNotShortenWriteTimeouts() {
+        for (int i = 0; i < CommandLatencyTracker.WINDOW; i++) {
+            tracker.record(Cmd.wmSizeQuery(), 10);
+        }
+        assertEquals(Constants.ADB_COMMAND_MIN_TIMEOUT_MS, tracker.getTimeoutMs(Cmd.wmSizeQuery()));
+        assertEquals(Constants.ADB_COMMAND_TIMEOUT_MS, tracker.getTimeoutMs(Cmd.wmSize(720, 1600)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.dnagda.eliteG;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the dependency-aware command plan
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CommandPlanTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentCommandsRunConcurrently() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Function<Cmd, ExecuteADBCommands.CommandResult> runner = command -> {
+            allStarted.countDown();
+            try {
+                // Only returns true if all three are running at the same time
+                boolean together = allStarted.await(5, TimeUnit.SECONDS);
+                return new ExecuteADBCommands.CommandResult(together, together ? 0 : 1, "", "");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new ExecuteADBCommands.CommandResult(false, -1, "", "");
+            }
+        };
+
+        CommandPlan plan = new CommandPlan();
+        plan.add("window", Cmd.settingsPut("global", "window_animation_scale", "0.5"));
+        plan.add("transition", Cmd.settingsPut("global", "transition_animation_scale", "0.5"));
+        plan.add("animator", Cmd.settingsPut("global", "animator_duration_scale", "0.5"));
+
+        assertTrue(plan.execute(runner, executor).isSuccess());
+    }
+
+    @Test
+    public void testDependentRunsAfterItsDependency() {
+        CommandPlan plan = new CommandPlan();
+        CommandPlan.Node density = plan.add("density", Cmd.wmDensity(320));
+        plan.add("size", Cmd.wmSize(720, 1600), density);
+
+        CommandPlan.Report report = plan.execute(recording(null), executor);
+        assertTrue(report.isSuccess());
+        assertEquals(2, report.nodes.size());
+        assertEquals(Arrays.asList("wm density 320", "wm size 720x1600"), ran);
+        CommandPlan.NodeReport size = report.get("size");
+        CommandPlan.NodeReport first = report.get("density");
+        assertTrue(size.startMs >= first.startMs + first.durationMs);
+    }
+
+    @Test
+    public void testFailureCancelsDependentsOnly() {
+        CommandPlan plan = new CommandPlan();
+        CommandPlan.Node density = plan.add("density", Cmd.wmDensity(320));
+        CommandPlan.Node size = plan.add("size", Cmd.wmSize(720, 1600), density);
+        plan.add("after size", Cmd.killAll(), size);
+        plan.add("independent", Cmd.settingsPut("global", "low_power_mode", "0"));
+
+        CommandPlan.Report report = plan.execute(recording(Cmd.wmDensity(320)), executor);
+        assertFalse(report.isSuccess());
+        assertEquals(CommandPlan.Status.FAILED, report.get("density").status);
+        assertEquals(CommandPlan.Status.CANCELLED, report.get("size").status);
+        assertEquals(CommandPlan.Status.CANCELLED, report.get("after size").status);
+        assertEquals(CommandPlan.Status.SUCCEEDED, report.get("independent").status);
+        assertFalse(ran.contains("wm size 720x1600"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDependencyMustBeInThePlan() {
+        CommandPlan other = new CommandPlan();
+        CommandPlan.Node foreign = other.add("density", Cmd.wmDensity(320));
+        new CommandPlan().add("size", Cmd.wmSize(720, 1600), foreign);
+    }
+
+    private Function<Cmd, ExecuteADBCommands.CommandResult> recording(Cmd failing) {
+        return command -> {
+            ran.add(command.toString());
+            boolean success = !command.equals(failing);
+            return new ExecuteADBCommands.CommandResult(success, success ? 0 : 1, "", "");
+        };
+    }
+}
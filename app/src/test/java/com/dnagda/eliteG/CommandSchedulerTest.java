@@ -0,0 +1,77 @@
+package com.dnagda.eliteG;
+
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the priority lanes of the command scheduler
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CommandSchedulerTest {
+
+    private long now = 1000;
+    // Threads handed out by the scheduler, run by the test one at a time
+    private final List<Runnable> started = new ArrayList<>();
+    private final List<String> ran = new ArrayList<>();
+    private final CommandScheduler scheduler = new CommandScheduler(started::add, () -> now);
+
+    @Test
+    public void testBackgroundWorkIsBounded() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(CommandScheduler.Lane.BACKGROUND, task("background " + i));
+        }
+        assertEquals(CommandScheduler.Lane.BACKGROUND.maxRunning, started.size());
+        assertEquals(1, scheduler.getQueued(CommandScheduler.Lane.BACKGROUND));
+    }
+
+    @Test
+    public void testCriticalWorkStartsWhileBackgroundIsBusy() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(CommandScheduler.Lane.BACKGROUND, task("background " + i));
+        }
+        scheduler.submit(CommandScheduler.Lane.CRITICAL, task("launch"));
+        assertEquals(3, started.size());
+        assertEquals(0, scheduler.getQueued(CommandScheduler.Lane.CRITICAL));
+    }
+
+    @Test
+    public void testQueuedCriticalWorkGoesFirst() {
+        scheduler.submit(CommandScheduler.Lane.BACKGROUND, task("background 0"));
+        scheduler.submit(CommandScheduler.Lane.BACKGROUND, task("background 1"));
+        for (int i = 0; i < CommandScheduler.MAX_THREADS - 2; i++) {
+            scheduler.submit(CommandScheduler.Lane.CRITICAL, task("critical " + i));
+        }
+        // Every thread is busy now
+        scheduler.submit(CommandScheduler.Lane.BACKGROUND, task("background 2"));
+        scheduler.submit(CommandScheduler.Lane.CRITICAL, task("launch"));
+        assertEquals(CommandScheduler.MAX_THREADS, started.size());
+
+        // A background thread frees up, but the queued launch takes it
+        now += 40;
+        started.get(0).run();
+        assertEquals(CommandScheduler.MAX_THREADS + 1, started.size());
+        assertEquals(1, scheduler.getQueued(CommandScheduler.Lane.BACKGROUND));
+        started.get(CommandScheduler.MAX_THREADS).run();
+        assertEquals("launch", ran.get(ran.size() - 1));
+        assertEquals(40, PerformanceMonitor.getMetric(CommandScheduler.Lane.CRITICAL.waitMetric).getLast());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectsWorkAfterShutdown() throws InterruptedException {
+        scheduler.shutdown(0);
+        scheduler.lane(CommandScheduler.Lane.CRITICAL).execute(task("late"));
+    }
+
+    private Runnable task(String name) {
+        return () -> ran.add(name);
+    }
+}
@@ -0,0 +1,75 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the known device state used to skip redundant writes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DeviceStateModelTest {
+
+    private static final ExecuteADBCommands.CommandResult OK = new ExecuteADBCommands.CommandResult(true, 0, "", "");
+    private static final ExecuteADBCommands.CommandResult FAILED = new ExecuteADBCommands.CommandResult(false, 1, "", "error");
+
+    private final DeviceStateModel model = new DeviceStateModel();
+
+    @Test
+    public void testUnknownValueIsNotRedundant() {
+        assertFalse(model.isRedundant(Cmd.settingsPut("global", "low_power_mode", "0")));
+        assertFalse(model.isRedundant(Cmd.wmSize(720, 1600)));
+    }
+
+    @Test
+    public void testWriteOfKnownValueIsRedundant() {
+        model.onResult(Cmd.settingsPut("global", "window_animation_scale", "0.5"), OK);
+        assertTrue(model.isRedundant(Cmd.settingsPut("global", "window_animation_scale", "0.5")));
+        assertFalse(model.isRedundant(Cmd.settingsPut("global", "window_animation_scale", "1.0")));
+        // Same key in another namespace is a different setting
+        assertFalse(model.isRedundant(Cmd.settingsPut("system", "window_animation_scale", "0.5")));
+    }
+
+    @Test
+    public void testReadsSeedTheModel() {
+        model.onResult(Cmd.settingsGet("system", "font_scale"), new ExecuteADBCommands.CommandResult(true, 0, "1.15\n", ""));
+        assertTrue(model.isRedundant(Cmd.settingsPut("system", "font_scale", "1.15")));
+
+        model.onResult(Cmd.settingsGet("global", "low_power_mode"), new ExecuteADBCommands.CommandResult(true, 0, "null\n", ""));
+        assertTrue(model.isRedundant(Cmd.settingsDelete("global", "low_power_mode")));
+
+        model.onResult(Cmd.wmSizeQuery(), new ExecuteADBCommands.CommandResult(true, 0,
+                "Physical size: 1080x2400\nOverride size: 720x1600\n", ""));
+        assertTrue(model.isRedundant(Cmd.wmSize(720, 1600)));
+
+        model.onResult(Cmd.wmDensityQuery(), new ExecuteADBCommands.CommandResult(true, 0, "Physical density: 420\n", ""));
+        assertTrue(model.isRedundant(Cmd.wmDensityReset()));
+        assertFalse(model.isRedundant(Cmd.wmDensity(320)));
+    }
+
+    @Test
+    public void testFailedWriteForgetsValue() {
+        model.onResult(Cmd.wmDensity(320), OK);
+        model.onResult(Cmd.wmDensity(280), FAILED);
+        assertFalse(model.isRedundant(Cmd.wmDensity(320)));
+        assertFalse(model.isRedundant(Cmd.wmDensity(280)));
+    }
+
+    @Test
+    public void testOtherCommandsAreNeverRedundant() {
+        assertNull(DeviceStateModel.getKey(Cmd.killAll().getArgv()));
+        model.onResult(Cmd.forceStop("com.example.game"), OK);
+        assertFalse(model.isRedundant(Cmd.forceStop("com.example.game")));
+    }
+
+    @Test
+    public void testMatchesSizeInEitherOrientation() {
+        assertTrue(DeviceStateModel.matchesSize("720x1600", 720, 1600));
+        assertTrue(DeviceStateModel.matchesSize("720x1600", 1600, 720));
+        assertFalse(DeviceStateModel.matchesSize("720x1600", 1080, 2400));
+        assertFalse(DeviceStateModel.matchesSize(DeviceStateModel.RESET_VALUE, 1080, 2400));
+        assertFalse(DeviceStateModel.matchesSize(null, 1080, 2400));
+    }
+}
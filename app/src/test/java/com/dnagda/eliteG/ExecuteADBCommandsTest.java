@@ -0,0 +1,144 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for submitting commands as futures
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ExecuteADBCommandsTest {
+
+    // Threads handed out by the scheduler, run by the test
+    private final List<Runnable> started = new ArrayList<>();
+    private final List<Cmd> ran = new ArrayList<>();
+    private final CommandScheduler scheduler = new CommandScheduler(started::add, () -> 0);
+    private final BiFunction<Cmd, ExecuteADBCommands.ProcessHandle, ExecuteADBCommands.CommandResult> runner = (command, handle) -> {
+        ran.add(command);
+        return new ExecuteADBCommands.CommandResult(true, 0, command.toString(), "");
+    };
+
+    @Test
+    public void testSubmitCompletesWhenTheCommandRan() throws Exception {
+        CompletableFuture<ExecuteADBCommands.CommandResult> future = submit(Cmd.wmSizeQuery());
+        assertFalse(future.isDone());
+
+        started.get(0).run();
+        assertTrue(future.get().success);
+        assertEquals(Cmd.wmSizeQuery().toString(), future.get().output);
+    }
+
+    @Test
+    public void testCancelWhileQueuedSkipsTheCommand() {
+        CompletableFuture<ExecuteADBCommands.CommandResult> future = submit(Cmd.wmSizeQuery());
+        assertTrue(future.cancel(true));
+
+        started.get(0).run();
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void testCancelWhileRunningCancelsTheProcess() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<ExecuteADBCommands.ProcessHandle> handle = new AtomicReference<>();
+        CompletableFuture<ExecuteADBCommands.CommandResult> future = ExecuteADBCommands.submit(Cmd.dumpsys("meminfo"),
+                scheduler.lane(CommandScheduler.Lane.CRITICAL), (command, process) -> {
+                    handle.set(process);
+                    running.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ExecuteADBCommands.CommandResult(false, -1, "", "Command cancelled");
+                });
+        Thread thread = new Thread(started.get(0));
+        thread.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        future.cancel(true);
+        assertTrue(handle.get().isCancelled());
+        release.countDown();
+        thread.join(5000);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testSubmitAllKeepsTheGivenOrder() throws Exception {
+        List<Cmd> commands = Arrays.asList(Cmd.wmSizeQuery(), Cmd.wmDensityQuery(), Cmd.getprop("ro.product.model"));
+        CompletableFuture<List<ExecuteADBCommands.CommandResult>> all = ExecuteADBCommands.submitAll(commands, this::submit);
+
+        // Finish them in reverse
+        for (int i = started.size() - 1; i >= 0; i--) {
+            assertFalse(all.isDone());
+            started.get(i).run();
+        }
+        List<ExecuteADBCommands.CommandResult> results = all.get();
+        for (int i = 0; i < commands.size(); i++) {
+            assertEquals(commands.get(i).toString(), results.get(i).output);
+        }
+    }
+
+    @Test
+    public void testCancellingSubmitAllCancelsEveryCommand() {
+        List<CompletableFuture<ExecuteADBCommands.CommandResult>> futures = new ArrayList<>();
+        CompletableFuture<List<ExecuteADBCommands.CommandResult>> all = ExecuteADBCommands.submitAll(
+                Arrays.asList(Cmd.wmSizeQuery(), Cmd.wmDensityQuery()), command -> {
+                    CompletableFuture<ExecuteADBCommands.CommandResult> future = submit(command);
+                    futures.add(future);
+                    return future;
+                });
+        all.cancel(true);
+
+        for (CompletableFuture<ExecuteADBCommands.CommandResult> future : futures) {
+            assertTrue(future.isCancelled());
+        }
+        for (Runnable thread : started) {
+            thread.run();
+        }
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void testOnMainThreadDeliversTheOutcome() throws Exception {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> delivered = ExecuteADBCommands.onMainThread(source);
+        source.complete("done");
+        assertEquals("done", delivered.get());
+
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> failed = ExecuteADBCommands.onMainThread(failing);
+        failing.completeExceptionally(new IllegalStateException("boom"));
+        try {
+            failed.get();
+            fail("Expected the failure to be delivered");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testCancellingOnMainThreadCancelsTheSource() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        ExecuteADBCommands.onMainThread(source).cancel(true);
+        assertTrue(source.isCancelled());
+    }
+
+    private CompletableFuture<ExecuteADBCommands.CommandResult> submit(Cmd command) {
+        return ExecuteADBCommands.submit(command, scheduler.lane(CommandScheduler.Lane.CRITICAL), runner);
+    }
+}
@@ -0,0 +1,49 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the decayed frequency/recency score of the game library
+ */
+public class GameLibraryTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+    private static final double DELTA = 1e-6;
+
+    private static double launches(long... times) {
+        double score = Double.NEGATIVE_INFINITY;
+        for (long time : times) {
+            score = GameLibrary.addLaunch(score, time);
+        }
+        return score;
+    }
+
+    @Test
+    public void testLaunchesHalveEveryHalfLife() {
+        assertEquals(1.0, GameLibrary.getDecayedLaunches(launches(NOW), NOW), DELTA);
+        assertEquals(2.0, GameLibrary.getDecayedLaunches(launches(NOW, NOW), NOW), DELTA);
+        assertEquals(0.5, GameLibrary.getDecayedLaunches(launches(NOW - GameLibrary.HALF_LIFE_MS), NOW), DELTA);
+        assertEquals(0.5, GameLibrary.getDecayedLaunches(launches(NOW), NOW + GameLibrary.HALF_LIFE_MS), DELTA);
+    }
+
+    @Test
+    public void testRecentLaunchOutranksOlderFrequentUse() {
+        long twoWeeksAgo = NOW - 2 * GameLibrary.HALF_LIFE_MS;
+        double frequentOld = launches(twoWeeksAgo, twoWeeksAgo, twoWeeksAgo);
+        double recent = launches(NOW);
+        double frequentRecent = launches(NOW - 1000, NOW - 500);
+        assertTrue(recent > frequentOld);
+        assertTrue(frequentRecent > recent);
+    }
+
+    @Test
+    public void testOrderDoesNotChangeOverTime() {
+        double a = launches(NOW - 3 * GameLibrary.HALF_LIFE_MS, NOW - GameLibrary.HALF_LIFE_MS);
+        double b = launches(NOW - 2 * GameLibrary.HALF_LIFE_MS);
+        long later = NOW + 10 * GameLibrary.HALF_LIFE_MS;
+        assertTrue(a > b);
+        assertTrue(GameLibrary.getDecayedLaunches(a, later) > GameLibrary.getDecayedLaunches(b, later));
+    }
+}
@@ -0,0 +1,57 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the home screen snapshot format
+ */
+public class HomeSnapshotTest {
+
+    private static HomeSnapshot createSnapshot() {
+        HomeSnapshot.Slot[] slots = new HomeSnapshot.Slot[6];
+        slots[0] = new HomeSnapshot.Slot("com.example.game", "Example Game", new byte[]{1, 2, 3});
+        slots[3] = new HomeSnapshot.Slot("com.example.racer", "Racer", null);
+        return new HomeSnapshot(40, "Resolution\n1080x2400p", "Tweaked\n864x1920p", slots);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        HomeSnapshot decoded = HomeSnapshot.decode(createSnapshot().encode());
+        assertNotNull(decoded);
+        assertEquals(40, decoded.lastScale);
+        assertEquals("Resolution\n1080x2400p", decoded.nativeResolution);
+        assertEquals("Tweaked\n864x1920p", decoded.tweakedResolution);
+        assertEquals(6, decoded.slots.length);
+        assertEquals("com.example.game", decoded.slots[0].packageName);
+        assertEquals("Example Game", decoded.slots[0].label);
+        assertTrue(Arrays.equals(new byte[]{1, 2, 3}, decoded.slots[0].iconPng));
+        assertNull(decoded.slots[1]);
+        assertEquals(0, decoded.slots[3].iconPng.length);
+    }
+
+    @Test
+    public void testOtherVersionIsIgnored() throws IOException {
+        byte[] data = createSnapshot().encode();
+        ByteBuffer.wrap(data).putInt(4, HomeSnapshot.VERSION + 1);
+        assertNull(HomeSnapshot.decode(data));
+    }
+
+    @Test
+    public void testWrongMagicIsIgnored() throws IOException {
+        byte[] data = createSnapshot().encode();
+        data[0] ^= 0x7f;
+        assertNull(HomeSnapshot.decode(data));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFileFails() throws IOException {
+        byte[] data = createSnapshot().encode();
+        HomeSnapshot.decode(Arrays.copyOf(data, data.length - 2));
+    }
+}
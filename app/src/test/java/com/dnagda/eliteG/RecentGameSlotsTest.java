@@ -0,0 +1,95 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the in-memory recent game slot model
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RecentGameSlotsTest {
+
+    private static RecentGameSlots createSlots() {
+        return new RecentGameSlots(null, new String[]{"com.example.game", "", "com.example.racer"});
+    }
+
+    @Test
+    public void testEmptinessWithoutLookup() {
+        RecentGameSlots slots = createSlots();
+        assertFalse(slots.isEmpty(0));
+        assertTrue(slots.isEmpty(1));
+        assertTrue(slots.isEmpty(5));
+        assertTrue(slots.isEmpty(-1));
+        assertEquals(1, slots.findFirstEmpty());
+    }
+
+    @Test
+    public void testFullSlotsReturnFirst() {
+        RecentGameSlots slots = new RecentGameSlots(null, new String[]{"a", "b", "c", "d", "e", "f"});
+        assertEquals(0, slots.findFirstEmpty());
+    }
+
+    @Test
+    public void testChangeNotifiesOnlyThatSlot() {
+        RecentGameSlots slots = createSlots();
+        List<Integer> changed = new ArrayList<>();
+        slots.addListener((index, packageName, version) -> changed.add(index));
+
+        slots.set(1, "com.example.puzzle");
+        slots.clear(2);
+        slots.set(0, "com.example.game"); // Unchanged, no event
+
+        assertEquals(2, changed.size());
+        assertEquals(Integer.valueOf(1), changed.get(0));
+        assertEquals(Integer.valueOf(2), changed.get(1));
+        assertEquals(1, slots.getVersion(1));
+        assertEquals(0, slots.getVersion(0));
+        assertEquals("com.example.puzzle", slots.getPackageName(1));
+        assertTrue(slots.isEmpty(2));
+    }
+
+    @Test
+    public void testMissingPackageFreesSlotUnlessChanged() {
+        RecentGameSlots slots = createSlots();
+        int version = slots.getVersion(0);
+        slots.markMissing(0, version);
+        assertTrue(slots.isEmpty(0));
+        assertEquals(0, slots.findFirstEmpty());
+
+        int staleVersion = slots.getVersion(2);
+        slots.set(2, "com.example.other");
+        slots.markMissing(2, staleVersion);
+        assertFalse(slots.isEmpty(2));
+    }
+
+    @Test
+    public void testSyncKeepsPlacedGamesInTheirSlots() {
+        RecentGameSlots slots = createSlots();
+        List<Integer> changed = new ArrayList<>();
+        slots.addListener((index, packageName, version) -> changed.add(index));
+
+        slots.sync(Arrays.asList("com.example.new", "com.example.racer", "com.example.game"));
+
+        assertEquals("com.example.game", slots.getPackageName(0));
+        assertEquals("com.example.new", slots.getPackageName(1));
+        assertEquals("com.example.racer", slots.getPackageName(2));
+        assertEquals(Arrays.asList(1), changed);
+    }
+
+    @Test
+    public void testSyncReplacesGamesThatDroppedOut() {
+        RecentGameSlots slots = createSlots();
+        slots.sync(Arrays.asList("com.example.racer", "com.example.new"));
+
+        assertEquals("com.example.new", slots.getPackageName(0));
+        assertTrue(slots.isEmpty(1));
+        assertEquals("com.example.racer", slots.getPackageName(2));
+    }
+}
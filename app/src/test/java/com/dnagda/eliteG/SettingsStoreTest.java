@@ -0,0 +1,134 @@
+package com.dnagda.eliteG;
+
+import com.dnagda.eliteG.utils.PerformanceMonitor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary settings file format and for writes shared by two processes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SettingsStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, Object> createValues() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("aggressiveLMK", true);
+        values.put("lastResolutionScale", 40);
+        values.put("lastCheck", 1_760_000_000_000L);
+        values.put("ratio", 0.75f);
+        values.put("1thGame", "com.example.game");
+        return values;
+    }
+
+    @Test
+    public void testRoundTripKeepsTypes() throws IOException {
+        Map<String, Object> decoded = SettingsStore.decode(SettingsStore.encode(createValues()));
+        assertEquals(createValues(), decoded);
+        assertTrue(decoded.get("lastResolutionScale") instanceof Integer);
+        assertTrue(decoded.get("lastCheck") instanceof Long);
+    }
+
+    @Test
+    public void testOtherVersionIsIgnored() throws IOException {
+        byte[] data = SettingsStore.encode(createValues());
+        ByteBuffer.wrap(data).putInt(4, SettingsStore.VERSION + 1);
+        assertNull(SettingsStore.decode(data));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFileFails() throws IOException {
+        byte[] data = SettingsStore.encode(createValues());
+        SettingsStore.decode(Arrays.copyOf(data, data.length - 3));
+    }
+
+    @Test
+    public void testAppliedEditsShareOneWrite() {
+        SettingsStore store = new SettingsStore(settingsFile());
+        store.edit().putInt("lastResolutionScale", 40).apply();
+        store.edit().putBoolean("aggressiveLMK", true).apply();
+        store.edit().remove("aggressiveLMK").apply();
+        // Visible before anything is written
+        assertEquals(40, store.getInt("lastResolutionScale", 0));
+        assertFalse(store.contains("aggressiveLMK"));
+
+        long writes = getWriteCount();
+        assertTrue(store.flush());
+        assertEquals(writes + 1, getWriteCount());
+        // Nothing left to write
+        assertTrue(store.flush());
+        assertEquals(writes + 1, getWriteCount());
+    }
+
+    @Test
+    public void testCommitIsOnDiskWhenItReturns() {
+        SettingsStore store = new SettingsStore(settingsFile());
+        assertTrue(store.edit().putString("1thGame", "com.example.game").commit());
+
+        SettingsStore other = new SettingsStore(settingsFile()).refresh();
+        assertEquals("com.example.game", other.getString("1thGame", ""));
+    }
+
+    @Test
+    public void testRefreshKeepsUnwrittenEdits() {
+        SettingsStore ui = new SettingsStore(settingsFile());
+        SettingsStore agent = new SettingsStore(settingsFile());
+        ui.edit().putInt("lastResolutionScale", 40).apply();
+        assertTrue(agent.edit().putBoolean("autoSessionDetection", true).commit());
+
+        ui.refresh();
+        assertTrue(ui.getBoolean("autoSessionDetection", false));
+        assertEquals(40, ui.getInt("lastResolutionScale", 0));
+    }
+
+    @Test
+    public void testWriteKeepsOtherProcessSettings() {
+        SettingsStore ui = new SettingsStore(settingsFile());
+        SettingsStore agent = new SettingsStore(settingsFile());
+        assertTrue(ui.edit().putInt("lastResolutionScale", 40).putBoolean("aggressiveLMK", true).commit());
+        // The agent never refreshed, its snapshot is empty
+        assertTrue(agent.edit().remove("aggressiveLMK").commit());
+
+        SettingsStore fresh = new SettingsStore(settingsFile()).refresh();
+        assertEquals(40, fresh.getInt("lastResolutionScale", 0));
+        assertFalse(fresh.contains("aggressiveLMK"));
+        assertEquals(40, agent.getInt("lastResolutionScale", 0));
+    }
+
+    @Test
+    public void testClearRemovesOtherProcessSettings() {
+        SettingsStore ui = new SettingsStore(settingsFile());
+        SettingsStore agent = new SettingsStore(settingsFile());
+        assertTrue(ui.edit().putInt("lastResolutionScale", 40).commit());
+        assertTrue(agent.edit().clear().putBoolean("firstLaunch", false).commit());
+
+        ui.refresh();
+        assertFalse(ui.contains("lastResolutionScale"));
+        assertFalse(ui.getBoolean("firstLaunch", true));
+    }
+
+    private File settingsFile() {
+        return new File(folder.getRoot(), SettingsStore.FILE_NAME);
+    }
+
+    private static long getWriteCount() {
+        PerformanceMonitor.MetricStats stats = PerformanceMonitor.getMetric(SettingsStore.METRIC_WRITE_TIME);
+        return stats != null ? stats.getCount() : 0;
+    }
+}
@@ -0,0 +1,213 @@
+package com.dnagda.eliteG;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the single-flight cache of read-only shell commands
+ */
+public class ShellQueryCacheTest {
+
+    private long now = 1000;
+    private final ShellQueryCache cache = new ShellQueryCache(() -> now);
+    private final AtomicInteger runs = new AtomicInteger();
+    private final Function<Cmd, ExecuteADBCommands.CommandResult> runner = command ->
+            new ExecuteADBCommands.CommandResult(true, 0, command + " #" + runs.incrementAndGet(), "");
+
+    @Test
+    public void testConcurrentQueriesShareOneRun() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Cmd, ExecuteADBCommands.CommandResult> slowRunner = command -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return runner.apply(command);
+        };
+
+        List<Thread> threads = new ArrayList<>();
+        List<String> outputs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                String output = cache.query(Cmd.dumpsys("SurfaceFlinger", "--list"), slowRunner).output;
+                synchronized (outputs) {
+                    outputs.add(output);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+            }
+        }
+        awaitWaiters(Cmd.dumpsys("SurfaceFlinger", "--list"), 4);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(4, outputs.size());
+        assertEquals("All callers should share one process", 1, runs.get());
+        // Not cached once done: frame stats must be read fresh
+        cache.query(Cmd.dumpsys("SurfaceFlinger", "--list"), runner);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testSharedRunOutlivesOneCancelledCaller() throws Exception {
+        SharedRun run = new SharedRun();
+        ExecuteADBCommands.ProcessHandle first = new ExecuteADBCommands.ProcessHandle();
+        ExecuteADBCommands.ProcessHandle second = new ExecuteADBCommands.ProcessHandle();
+        Thread firstThread = run.query(first);
+        assertTrue(run.started.await(5, TimeUnit.SECONDS));
+        Thread secondThread = run.query(second);
+        awaitWaiters(run.query, 2);
+
+        first.cancel();
+        assertFalse("The second caller still waits for the run", run.handle.get().isCancelled());
+        run.release.countDown();
+        firstThread.join(5000);
+        secondThread.join(5000);
+        assertEquals(1, runs.get());
+        assertEquals(2, run.outputs.size());
+    }
+
+    @Test
+    public void testSharedRunCancelledWithLastCaller() throws Exception {
+        SharedRun run = new SharedRun();
+        ExecuteADBCommands.ProcessHandle first = new ExecuteADBCommands.ProcessHandle();
+        ExecuteADBCommands.ProcessHandle second = new ExecuteADBCommands.ProcessHandle();
+        Thread firstThread = run.query(first);
+        assertTrue(run.started.await(5, TimeUnit.SECONDS));
+        Thread secondThread = run.query(second);
+        awaitWaiters(run.query, 2);
+
+        second.cancel();
+        assertFalse(run.handle.get().isCancelled());
+        first.cancel();
+        assertTrue(run.handle.get().isCancelled());
+        run.release.countDown();
+        firstThread.join(5000);
+        secondThread.join(5000);
+    }
+
+    @Test
+    public void testCancelledCallerDoesNotJoin() {
+        ExecuteADBCommands.ProcessHandle caller = new ExecuteADBCommands.ProcessHandle();
+        caller.cancel();
+        AtomicReference<ExecuteADBCommands.ProcessHandle> shared = new AtomicReference<>();
+        cache.query(Cmd.wmSizeQuery(), caller, (command, handle) -> {
+            shared.set(handle);
+            return runner.apply(command);
+        });
+        assertTrue("No caller waits for the run", shared.get().isCancelled());
+    }
+
+    @Test
+    public void testResultCachedUntilTtlExpires() {
+        Cmd query = Cmd.getprop("ro.build.version.release");
+        String first = cache.query(query, runner).output;
+        now += ShellQueryCache.PROPERTY_TTL_MS - 1;
+        assertEquals(first, cache.query(query, runner).output);
+        assertEquals(1, runs.get());
+
+        now += 1;
+        assertFalse(first.equals(cache.query(query, runner).output));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testWriteInvalidatesAffectedQueries() {
+        cache.query(Cmd.wmSizeQuery(), runner);
+        cache.query(Cmd.getprop("ro.product.model"), runner);
+
+        cache.invalidate(Cmd.wmSize(720, 1600));
+        cache.query(Cmd.wmSizeQuery(), runner);
+        cache.query(Cmd.getprop("ro.product.model"), runner);
+        assertEquals("Only the display query should run again", 3, runs.get());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        Cmd query = Cmd.wmDensityQuery();
+        Function<Cmd, ExecuteADBCommands.CommandResult> failing = command -> {
+            runs.incrementAndGet();
+            return new ExecuteADBCommands.CommandResult(false, 1, "", "error");
+        };
+        cache.query(query, failing);
+        cache.query(query, failing);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testTrimDropsEverything() {
+        cache.query(Cmd.wmSizeQuery(), runner);
+        assertTrue(cache.trim() > 0);
+        cache.query(Cmd.wmSizeQuery(), runner);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testReadOnlyCommands() {
+        assertTrue(Cmd.wmSizeQuery().isReadOnly());
+        assertTrue(Cmd.settingsGet("global", "low_power_mode").isReadOnly());
+        assertFalse(Cmd.wmSize(720, 1600).isReadOnly());
+        assertFalse(Cmd.dumpsys("gfxinfo", "com.example.game", "reset").isReadOnly());
+    }
+
+    /**
+     * Wait until {@code count} callers joined the run of {@code query} in progress
+     */
+    private void awaitWaiters(Cmd query, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getWaiters(query) < count) {
+            assertTrue("Callers did not join the run", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * A slow query run by several callers, each on its own thread
+     */
+    private final class SharedRun {
+        final Cmd query = Cmd.dumpsys("SurfaceFlinger", "--list");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<ExecuteADBCommands.ProcessHandle> handle = new AtomicReference<>();
+        final List<String> outputs = new ArrayList<>();
+        final BiFunction<Cmd, ExecuteADBCommands.ProcessHandle, ExecuteADBCommands.CommandResult> slowRunner = (command, shared) -> {
+            handle.set(shared);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return runner.apply(command);
+        };
+
+        Thread query(ExecuteADBCommands.ProcessHandle caller) {
+            Thread thread = new Thread(() -> {
+                String output = cache.query(query, caller, slowRunner).output;
+                synchronized (outputs) {
+                    outputs.add(output);
+                }
+            });
+            thread.start();
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Test;
+
+import static com.dnagda.eliteG.session.AdaptiveResolutionController.MIN_DWELL_MS;
+import static org.junit.Assert.*;
+
+/**
+ * Replays frame pacing traces through the adaptive resolution controller
+ */
+public class AdaptiveResolutionControllerTest {
+
+    private static final long SAMPLE_MS = 2000;
+
+    @Test
+    public void testHeavySceneStepsResolutionDown() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 60, 60);
+        long now = replay(controller, 0, 60, 5, 30);
+        assertEquals("Steady play should keep the scale", 20, controller.getScale());
+
+        replay(controller, now, 45, 12, 15);
+        assertTrue("Heavy scene should raise the scale", controller.getScale() > 20);
+    }
+
+    @Test
+    public void testDwellTimePreventsThrashing() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 100, 60);
+        long now = SAMPLE_MS;
+        int changes = 0;
+        int lastScale = controller.getScale();
+        // Alternate between heavy and light scenes every sample for five minutes
+        for (int i = 0; i < 150; i++, now += SAMPLE_MS) {
+            boolean heavy = i % 2 == 0;
+            controller.onSample(now, heavy ? 40 : 60, heavy ? 20 : 1);
+            if (controller.getScale() != lastScale) {
+                changes++;
+                lastScale = controller.getScale();
+            }
+        }
+        assertEquals("Noisy signal should never satisfy the hysteresis", 0, changes);
+    }
+
+    @Test
+    public void testChangesAreSpacedByMinimumDwell() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(0, 0, 100, 60);
+        long now = SAMPLE_MS;
+        long lastChange = 0;
+        int lastScale = controller.getScale();
+        for (int i = 0; i < 200; i++, now += SAMPLE_MS) {
+            controller.onSample(now, 30, 25);
+            if (controller.getScale() != lastScale) {
+                assertTrue(now - lastChange >= MIN_DWELL_MS);
+                lastChange = now;
+                lastScale = controller.getScale();
+            }
+        }
+        assertEquals("Bounded by the user maximum", 100, controller.getScale());
+    }
+
+    @Test
+    public void testRecoveryRaisesQualityWithinBounds() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(50, 30, 60, 60);
+        replay(controller, 0, 60, 0, 300);
+        assertEquals("Should stop at the user minimum", 30, controller.getScale());
+    }
+
+    @Test
+    public void testSingleSpikeDoesNotRaiseAutoTarget() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 60, 0);
+        long now = replay(controller, 0, 60, 1, 10);
+        // A menu renders at 120 fps for one sample, then the game goes back to 60
+        controller.onSample(now += SAMPLE_MS, 120, 0);
+        replay(controller, now, 60, 1, 100);
+        assertEquals(60f, controller.getTargetFps(), 0.01f);
+        assertTrue("Steady play after a spike should not lower quality", controller.getScale() <= 20);
+    }
+
+    @Test
+    public void testAutoTargetFollowsLowerRecentRate() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 60, 0);
+        long now = replay(controller, 0, 90, 1, 30);
+        replay(controller, now, 60, 1, AdaptiveResolutionController.PEAK_WINDOW_SAMPLES);
+        assertEquals("Old peaks age out of the window", 60f, controller.getTargetFps(), 0.01f);
+    }
+
+    @Test
+    public void testAutoTargetFollowsFrameRateCap() {
+        // Game capped at 30 fps should be left alone
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 60, 0);
+        replay(controller, 0, 30, 1, 60);
+        assertEquals(30f, controller.getTargetFps(), 0.01f);
+        assertTrue("Steady cap should allow quality to improve", controller.getScale() <= 20);
+    }
+
+    @Test
+    public void testRevertedRaiseBacksOff() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(30, 0, 60, 60);
+        // Quality goes up, then the heavier load immediately pushes it back down
+        long now = replay(controller, 0, 60, 0, 30);
+        assertEquals(20, controller.getScale());
+        now = replay(controller, now, 45, 15, 12);
+        assertEquals(30, controller.getScale());
+
+        // A raise now needs longer than the initial raise dwell
+        now = replay(controller, now, 60, 0, (int) (AdaptiveResolutionController.RAISE_DWELL_MS / SAMPLE_MS));
+        assertEquals(30, controller.getScale());
+        replay(controller, now, 60, 0, 20);
+        assertEquals(20, controller.getScale());
+    }
+
+    @Test
+    public void testMissingFrameDataIsIgnored() {
+        AdaptiveResolutionController controller = new AdaptiveResolutionController(20, 0, 60, 60);
+        long now = SAMPLE_MS;
+        for (int i = 0; i < 100; i++, now += SAMPLE_MS) {
+            controller.onSample(now, Float.NaN, 0);
+            controller.onSample(now, 0, 0);
+        }
+        assertEquals(20, controller.getScale());
+    }
+
+    private static long replay(AdaptiveResolutionController controller, long start,
+                               float fps, float jankPercent, int samples) {
+        long now = start;
+        for (int i = 0; i < samples; i++) {
+            now += SAMPLE_MS;
+            controller.onSample(now, fps, jankPercent);
+        }
+        return now;
+    }
+}
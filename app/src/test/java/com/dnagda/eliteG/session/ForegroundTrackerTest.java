@@ -0,0 +1,97 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.dnagda.eliteG.session.ForegroundTracker.EVENT_PAUSED;
+import static com.dnagda.eliteG.session.ForegroundTracker.EVENT_RESUMED;
+import static com.dnagda.eliteG.session.ForegroundTracker.EXIT_GRACE_MS;
+import static org.junit.Assert.*;
+
+/**
+ * Replays usage event sequences through the foreground tracker
+ */
+public class ForegroundTrackerTest {
+
+    private static final String GAME = "com.example.game";
+    private static final String OTHER_GAME = "com.example.racer";
+    private static final String LAUNCHER = "com.android.launcher3";
+
+    private final Set<String> games = new HashSet<>(Arrays.asList(GAME, OTHER_GAME));
+    private final List<String> transitions = new ArrayList<>();
+    private ForegroundTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new ForegroundTracker(new ForegroundTracker.Listener() {
+            @Override
+            public void onGameEntered(String packageName) {
+                transitions.add("+" + packageName);
+            }
+
+            @Override
+            public void onGameLeft(String packageName) {
+                transitions.add("-" + packageName);
+            }
+        });
+    }
+
+    @Test
+    public void testEnterAndLeaveAfterGracePeriod() {
+        tracker.onEvent(LAUNCHER, EVENT_PAUSED, 900, games);
+        tracker.onEvent(GAME, EVENT_RESUMED, 1000, games);
+        assertEquals(Arrays.asList("+" + GAME), transitions);
+
+        tracker.onEvent(GAME, EVENT_PAUSED, 5000, games);
+        tracker.onEvent(LAUNCHER, EVENT_RESUMED, 5100, games);
+        tracker.onTick(5000 + EXIT_GRACE_MS - 1);
+        assertEquals(1, transitions.size());
+
+        tracker.onTick(5000 + EXIT_GRACE_MS);
+        assertEquals(Arrays.asList("+" + GAME, "-" + GAME), transitions);
+        assertNull(tracker.getActiveGame());
+    }
+
+    @Test
+    public void testQuickReturnDoesNotLeave() {
+        tracker.onEvent(GAME, EVENT_RESUMED, 1000, games);
+        tracker.onEvent(GAME, EVENT_PAUSED, 2000, games);
+        tracker.onEvent("com.android.permissioncontroller", EVENT_RESUMED, 2100, games);
+        tracker.onEvent(GAME, EVENT_RESUMED, 4000, games);
+        tracker.onTick(20_000);
+        assertEquals(Arrays.asList("+" + GAME), transitions);
+        assertEquals(GAME, tracker.getActiveGame());
+    }
+
+    @Test
+    public void testSwitchingGamesLeavesPreviousFirst() {
+        tracker.onEvent(GAME, EVENT_RESUMED, 1000, games);
+        tracker.onEvent(GAME, EVENT_PAUSED, 2000, games);
+        tracker.onEvent(OTHER_GAME, EVENT_RESUMED, 2100, games);
+        assertEquals(Arrays.asList("+" + GAME, "-" + GAME, "+" + OTHER_GAME), transitions);
+    }
+
+    @Test
+    public void testReplayedEventsAreIdempotent() {
+        tracker.onEvent(GAME, EVENT_RESUMED, 1000, games);
+        tracker.onEvent(GAME, EVENT_RESUMED, 1000, games);
+        tracker.onEvent(GAME, EVENT_PAUSED, 3000, games);
+        tracker.onEvent(GAME, EVENT_PAUSED, 3000, games);
+        tracker.onTick(3000 + EXIT_GRACE_MS);
+        assertEquals(Arrays.asList("+" + GAME, "-" + GAME), transitions);
+    }
+
+    @Test
+    public void testUnwatchedAppsAreIgnored() {
+        tracker.onEvent("com.example.browser", EVENT_RESUMED, 1000, games);
+        tracker.onEvent("com.example.browser", EVENT_PAUSED, 2000, games);
+        tracker.onTick(60_000);
+        assertTrue(transitions.isEmpty());
+    }
+}
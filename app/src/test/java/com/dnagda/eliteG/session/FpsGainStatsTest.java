@@ -0,0 +1,111 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for per-game measured FPS gain statistics
+ */
+public class FpsGainStatsTest {
+
+    @Test
+    public void testNoGainWithoutEnoughData() {
+        FpsGainStats stats = new FpsGainStats();
+        recordSession(stats, 0, 40, 10);
+        recordSession(stats, 50, 60, 10);
+        assertNull("Single short sessions should not be trusted", stats.getGain(50));
+    }
+
+    @Test
+    public void testNoGainWithoutNativeBaseline() {
+        FpsGainStats stats = new FpsGainStats();
+        for (int i = 0; i < 3; i++) {
+            recordSession(stats, 50, 60, 40);
+        }
+        assertNull("Gain needs native resolution samples", stats.getGain(50));
+    }
+
+    @Test
+    public void testMeasuredGainOverNative() {
+        FpsGainStats stats = new FpsGainStats();
+        for (int i = 0; i < 6; i++) {
+            recordSession(stats, 0, 40, 40);
+            recordSession(stats, 48, 50, 40);
+        }
+
+        FpsGainStats.Gain gain = stats.getGain(50);
+        assertNotNull(gain);
+        assertEquals(25, gain.percent);
+        assertEquals(FpsGainStats.Confidence.HIGH, gain.confidence);
+    }
+
+    @Test
+    public void testNoisySamplesLowerConfidence() {
+        FpsGainStats stats = new FpsGainStats();
+        for (int session = 0; session < 2; session++) {
+            for (int i = 0; i < 30; i++) {
+                stats.record(0, i % 2 == 0 ? 10 : 70);
+                stats.record(60, i % 2 == 0 ? 15 : 85);
+            }
+            stats.endSession();
+        }
+
+        FpsGainStats.Gain gain = stats.getGain(60);
+        assertNotNull(gain);
+        assertEquals(FpsGainStats.Confidence.LOW, gain.confidence);
+        assertTrue("Noisy data should have a wide margin", gain.marginPercent > 15);
+    }
+
+    @Test
+    public void testInvalidSamplesAreIgnored() {
+        FpsGainStats stats = new FpsGainStats();
+        stats.record(0, 0);
+        stats.record(0, -5);
+        stats.record(0, Float.NaN);
+        assertEquals(0, stats.getSampleCount(0));
+    }
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        FpsGainStats stats = new FpsGainStats();
+        for (int i = 0; i < 3; i++) {
+            recordSession(stats, 0, 30, 40);
+            recordSession(stats, 70, 45, 40);
+        }
+
+        FpsGainStats restored = new FpsGainStats();
+        for (int bucket = 0; bucket < FpsGainStats.BUCKET_COUNT; bucket++) {
+            restored.decodeBucket(bucket, stats.encodeBucket(bucket));
+        }
+        assertEquals(stats.getGain(70).percent, restored.getGain(70).percent);
+        assertEquals(stats.getSampleCount(70), restored.getSampleCount(70));
+    }
+
+    @Test
+    public void testMalformedBucketIsIgnored() {
+        FpsGainStats stats = new FpsGainStats();
+        stats.decodeBucket(0, "not;a;number;x");
+        stats.decodeBucket(1, "garbage");
+        assertEquals(0, stats.getSampleCount(0));
+        assertEquals(0, stats.getSampleCount(10));
+    }
+
+    @Test
+    public void testBucketing() {
+        assertEquals(0, FpsGainStats.bucketOf(0));
+        assertEquals(0, FpsGainStats.bucketOf(4));
+        assertEquals(1, FpsGainStats.bucketOf(5));
+        assertEquals(10, FpsGainStats.bucketOf(100));
+        assertEquals(10, FpsGainStats.bucketOf(150));
+        assertEquals(0, FpsGainStats.bucketOf(-3));
+    }
+
+    private static void recordSession(FpsGainStats stats, int scale, float fps, int samples) {
+        for (int i = 0; i < samples; i++) {
+            // Small deterministic jitter around the mean
+            stats.record(scale, fps + (i % 3) - 1);
+        }
+        stats.endSession();
+    }
+}
@@ -0,0 +1,67 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for SurfaceFlinger frame pacing parsing
+ */
+public class FrameStatsParserTest {
+
+    private static final long PERIOD = 16_666_666;
+
+    @Test
+    public void testLatencyCountsFramesAndSpan() {
+        StringBuilder output = new StringBuilder().append(PERIOD).append('\n');
+        long t = 1_000_000_000L;
+        for (int i = 0; i < 61; i++) {
+            output.append(t - 5).append('\t').append(t).append('\t').append(t - 2).append('\n');
+            t += PERIOD;
+        }
+
+        long[] stats = new long[3];
+        assertTrue(FrameStatsParser.parseSurfaceFlingerLatency(output.toString(), stats));
+        assertEquals(60, stats[0]);
+        assertEquals(0, stats[1]);
+        assertEquals(60 * PERIOD, stats[2]);
+    }
+
+    @Test
+    public void testLatencySkipsPendingFramesAndCountsStutter() {
+        String output = PERIOD + "\n"
+                + "0\t0\t0\n"
+                + "100\t" + (1_000_000_000L) + "\t90\n"
+                + "100\t" + (1_000_000_000L + PERIOD) + "\t90\n"
+                + "100\t" + (1_000_000_000L + 2 * PERIOD) + "\t90\n"
+                + "100\t" + (1_000_000_000L + 5 * PERIOD) + "\t90\n"
+                + "100\t" + (1_000_000_000L + 6 * PERIOD) + "\t90\n"
+                + "100\t9223372036854775807\t90\n";
+
+        long[] stats = new long[3];
+        assertTrue(FrameStatsParser.parseSurfaceFlingerLatency(output, stats));
+        assertEquals(4, stats[0]);
+        assertEquals(1, stats[1]);
+    }
+
+    @Test
+    public void testLatencyWithoutFrames() {
+        long[] stats = new long[3];
+        assertFalse(FrameStatsParser.parseSurfaceFlingerLatency(PERIOD + "\n", stats));
+        assertFalse(FrameStatsParser.parseSurfaceFlingerLatency("", stats));
+        assertFalse(FrameStatsParser.parseSurfaceFlingerLatency(null, stats));
+    }
+
+    @Test
+    public void testFindGameLayerPrefersSurfaceView() {
+        String list = "StatusBar#0\n"
+                + "com.example.game/com.example.game.MainActivity#0\n"
+                + "SurfaceView - com.example.game/com.example.game.MainActivity#0\n"
+                + "SurfaceView[com.example.game/com.example.game.MainActivity](BLAST)#1\n";
+        assertEquals("SurfaceView[com.example.game/com.example.game.MainActivity](BLAST)#1",
+                FrameStatsParser.findGameLayer(list, "com.example.game"));
+        assertEquals("com.example.game/com.example.game.MainActivity#0",
+                FrameStatsParser.findGameLayer("com.example.game/com.example.game.MainActivity#0\n", "com.example.game"));
+        assertNull(FrameStatsParser.findGameLayer(list, "com.other"));
+    }
+}
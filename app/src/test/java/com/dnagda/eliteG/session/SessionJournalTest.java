@@ -0,0 +1,91 @@
+package com.dnagda.eliteG.session;
+
+import com.dnagda.eliteG.Cmd;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the session journal records and the restore diff
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SessionJournalTest {
+
+    @Test
+    public void testDecode_KeepsFirstValueOfEachSetting() throws Exception {
+        ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(SessionJournal.encodeSettings(Arrays.asList(
+                setting("window_animation_scale", "1.0"),
+                setting("low_power_mode", null))));
+        // Journaled again by a later launch while already changed
+        journal.write(SessionJournal.encodeSettings(Arrays.asList(
+                setting("window_animation_scale", "0.5"))));
+
+        SessionJournal.State state = SessionJournal.decode(journal.toByteArray());
+        assertEquals(2, state.settings.size());
+        assertEquals("1.0", state.settings.get(0).value);
+        assertNull("Unset settings stay unset", state.settings.get(1).value);
+        assertNull(state.sessionPackage);
+    }
+
+    @Test
+    public void testDecode_TracksOpenSession() throws Exception {
+        ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(SessionJournal.encodeSession(SessionJournal.RECORD_SESSION_BEGIN, "com.example.game"));
+        assertEquals("com.example.game", SessionJournal.decode(journal.toByteArray()).sessionPackage);
+
+        journal.write(SessionJournal.encodeSession(SessionJournal.RECORD_SESSION_END, null));
+        assertNull(SessionJournal.decode(journal.toByteArray()).sessionPackage);
+    }
+
+    @Test
+    public void testDecode_IgnoresRecordCutShort() throws Exception {
+        ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.write(SessionJournal.encodeSettings(Arrays.asList(setting("animator_duration_scale", "1.0"))));
+        byte[] torn = SessionJournal.encodeSettings(Arrays.asList(setting("low_power_mode", "1")));
+        journal.write(torn, 0, torn.length - 2);
+
+        SessionJournal.State state = SessionJournal.decode(journal.toByteArray());
+        assertEquals(1, state.settings.size());
+        assertEquals("animator_duration_scale", state.settings.get(0).key);
+    }
+
+    @Test
+    public void testGetRestoreCommands_WritesBackChangedSettingsNewestFirst() {
+        List<SessionJournal.Setting> journaled = Arrays.asList(
+                setting("window_animation_scale", "1.0"),
+                setting("low_power_mode", "1"),
+                setting("background_app_refresh_disabled", null));
+        Map<String, String> current = new HashMap<>();
+        current.put("global window_animation_scale", "0.5");
+        current.put("global low_power_mode", "1");
+        current.put("global background_app_refresh_disabled", "1");
+
+        List<Cmd> commands = SessionJournal.getRestoreCommands(journaled, current);
+        assertEquals(Arrays.asList(
+                Cmd.settingsDelete("global", "background_app_refresh_disabled"),
+                Cmd.settingsPut("global", "window_animation_scale", "1.0")), commands);
+    }
+
+    @Test
+    public void testGetRestoreCommands_NothingChanged() {
+        List<SessionJournal.Setting> journaled = Arrays.asList(setting("low_power_mode", null));
+        Map<String, String> current = new HashMap<>();
+        current.put("global low_power_mode", SessionJournal.UNSET_VALUE);
+
+        assertTrue(SessionJournal.getRestoreCommands(journaled, current).isEmpty());
+    }
+
+    private static SessionJournal.Setting setting(String key, String value) {
+        return new SessionJournal.Setting("global", key, value);
+    }
+}
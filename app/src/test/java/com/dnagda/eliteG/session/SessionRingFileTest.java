@@ -0,0 +1,160 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the memory-mapped session ring file
+ */
+public class SessionRingFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSummarize_AggregatesSessionSamples() throws IOException {
+        try (SessionRingFile ring = SessionRingFile.open(new File(folder.getRoot(), "ring.bin"), 16)) {
+            int sessionId = ring.beginSession("com.example.game", 40, 1000);
+            ring.append(2000, 5500, 20, 1800, 500, 70, 350, 1200, -400, 40);
+            ring.append(4000, 6500, 40, 2000, 600, 90, 390, 1100, -600, 40);
+
+            SessionSummary summary = ring.summarize(sessionId);
+            assertEquals("com.example.game", summary.getPackageName());
+            assertEquals(40, summary.getResolutionScale());
+            assertEquals(2, summary.getSampleCount());
+            assertEquals(2000, summary.getSampledDurationMs());
+            assertEquals(60.0f, summary.getAverageFps(), 0.01f);
+            assertEquals(55.0f, summary.getMinFps(), 0.01f);
+            assertEquals(3.0f, summary.getJankPercent(), 0.01f);
+            assertEquals(1900, summary.getAverageCpuFreqMhz());
+            assertEquals(80, summary.getAverageGpuLoadPercent());
+            assertEquals(390, summary.getMaxTemperatureDeciC());
+            assertEquals(1100, summary.getMinAvailableMemoryMb());
+            assertEquals(-500, summary.getAverageBatteryCurrentMa());
+        }
+    }
+
+    @Test
+    public void testUnavailableValuesAreIgnored() throws IOException {
+        try (SessionRingFile ring = SessionRingFile.open(new File(folder.getRoot(), "ring.bin"), 8)) {
+            int sessionId = ring.beginSession("com.example.game", 50, 0);
+            int na = SessionRingFile.UNAVAILABLE;
+            ring.append(10, 3000, 0, na, na, na, 300, 900, na, 50);
+            ring.append(20, na, na, na, na, na, 310, 800, na, 50);
+
+            SessionSummary summary = ring.summarize(sessionId);
+            assertEquals(30.0f, summary.getAverageFps(), 0.01f);
+            assertEquals(na, summary.getAverageGpuFreqMhz());
+            assertEquals(na, summary.getAverageBatteryCurrentMa());
+        }
+    }
+
+    @Test
+    public void testRingWrapsAndKeepsNewestRecords() throws IOException {
+        try (SessionRingFile ring = SessionRingFile.open(new File(folder.getRoot(), "ring.bin"), 4)) {
+            int sessionId = ring.beginSession("com.example.game", 30, 0);
+            for (int i = 1; i <= 10; i++) {
+                ring.append(i, i * 100, 0, 0, 0, 0, 0, 0, 0, 30);
+            }
+
+            assertEquals(4, ring.getRecordCount());
+            SessionSummary summary = ring.summarize(sessionId);
+            assertEquals(4, summary.getSampleCount());
+            // Samples 7..10 remain
+            assertEquals(7.0f, summary.getMinFps(), 0.01f);
+            assertEquals(8.5f, summary.getAverageFps(), 0.01f);
+        }
+    }
+
+    @Test
+    public void testRecordBeingOverwrittenIsNotRead() throws IOException {
+        File path = new File(folder.getRoot(), "ring.bin");
+        int sessionId;
+        try (SessionRingFile ring = SessionRingFile.open(path, 4)) {
+            sessionId = ring.beginSession("com.example.game", 30, 0);
+            for (int i = 1; i <= 4; i++) {
+                ring.append(i, i * 100, 0, 0, 0, 0, 0, 0, 0, 30);
+            }
+        }
+        // The process died while overwriting the oldest record: it was dropped from the
+        // readable range, but the write counter was not bumped yet
+        try (RandomAccessFile raf = new RandomAccessFile(path, "rw")) {
+            raf.seek(SessionRingFile.H_OLDEST);
+            raf.writeLong(1);
+        }
+
+        try (SessionRingFile ring = SessionRingFile.open(path, 4)) {
+            assertEquals(3, ring.getRecordCount());
+            SessionSummary summary = ring.summarize(sessionId);
+            assertEquals(3, summary.getSampleCount());
+            assertEquals(2.0f, summary.getMinFps(), 0.01f);
+        }
+    }
+
+    @Test
+    public void testSessionsAreSeparated() throws IOException {
+        try (SessionRingFile ring = SessionRingFile.open(new File(folder.getRoot(), "ring.bin"), 16)) {
+            int first = ring.beginSession("com.example.first", 20, 0);
+            ring.append(1, 3000, 0, 0, 0, 0, 0, 0, 0, 20);
+            ring.endSession(2);
+            int second = ring.beginSession("com.example.second", 60, 3);
+            ring.append(4, 9000, 0, 0, 0, 0, 0, 0, 0, 60);
+
+            assertEquals(first + 1, second);
+            assertEquals(1, ring.summarize(first).getSampleCount());
+            assertEquals(30.0f, ring.summarize(first).getAverageFps(), 0.01f);
+            assertEquals("com.example.second", ring.summarize(second).getPackageName());
+            assertEquals(90.0f, ring.summarize(second).getAverageFps(), 0.01f);
+        }
+    }
+
+    @Test
+    public void testDataSurvivesReopen() throws IOException {
+        File path = new File(folder.getRoot(), "ring.bin");
+        int sessionId;
+        try (SessionRingFile ring = SessionRingFile.open(path, 16)) {
+            sessionId = ring.beginSession("com.example.game", 45, 100);
+            ring.append(200, 4500, 10, 0, 0, 0, 0, 0, 0, 45);
+        }
+
+        try (SessionRingFile ring = SessionRingFile.open(path, 16)) {
+            assertEquals(sessionId, ring.getCurrentSessionId());
+            assertTrue("Session without end should still be open", ring.isSessionOpen());
+            assertEquals(1, ring.summarize(sessionId).getSampleCount());
+        }
+    }
+
+    @Test
+    public void testCapacityChangeResetsFile() throws IOException {
+        File path = new File(folder.getRoot(), "ring.bin");
+        try (SessionRingFile ring = SessionRingFile.open(path, 16)) {
+            ring.beginSession("com.example.game", 45, 100);
+            ring.append(200, 4500, 10, 0, 0, 0, 0, 0, 0, 45);
+        }
+
+        try (SessionRingFile ring = SessionRingFile.open(path, 32)) {
+            assertEquals(0, ring.getCurrentSessionId());
+            assertEquals(0, ring.getRecordCount());
+        }
+    }
+
+    @Test
+    public void testGfxInfoParsing() {
+        String output = "Applications Graphics Acceleration Info:\n"
+                + "Stats since: 123456ns\n"
+                + "Total frames rendered: 1234\n"
+                + "Janky frames: 56 (4.54%)\n";
+        long[] stats = new long[2];
+        assertTrue(FrameStatsParser.parseGfxInfo(output, stats));
+        assertEquals(1234, stats[0]);
+        assertEquals(56, stats[1]);
+        assertFalse(FrameStatsParser.parseGfxInfo("No process found for: com.example", stats));
+    }
+}
@@ -0,0 +1,67 @@
+package com.dnagda.eliteG.session;
+
+import org.junit.Test;
+
+import static com.dnagda.eliteG.session.ThermalPolicy.MIN_HOLD_MS;
+import static org.junit.Assert.*;
+
+/**
+ * Replays thermal headroom traces through the thermal policy
+ */
+public class ThermalPolicyTest {
+
+    @Test
+    public void testRisingHeadroomThrottlesBeforeSevere() {
+        ThermalPolicy policy = new ThermalPolicy();
+        assertEquals(ThermalPolicy.LEVEL_NONE, policy.update(0, 0.5f, 0));
+        assertEquals(ThermalPolicy.LEVEL_REDUCE_SCALE, policy.update(2000, 0.78f, 0));
+        assertEquals(10, policy.getScaleOffset());
+        assertFalse(policy.isFpsCapped());
+
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, policy.update(4000, 0.88f, 0));
+        assertTrue(policy.isFpsCapped());
+        assertEquals(ThermalPolicy.LEVEL_REDUCE_MORE, policy.update(6000, 0.97f, 0));
+        assertEquals(20, policy.getScaleOffset());
+    }
+
+    @Test
+    public void testThermalStatusSetsMinimumLevel() {
+        ThermalPolicy policy = new ThermalPolicy();
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, policy.update(0, Float.NaN,
+                AdaptiveResolutionController.THERMAL_STATUS_MODERATE));
+        assertEquals(ThermalPolicy.LEVEL_REDUCE_MORE, policy.update(1000, Float.NaN, 5));
+    }
+
+    @Test
+    public void testRecoveryNeedsMarginAndHoldTime() {
+        ThermalPolicy policy = new ThermalPolicy();
+        policy.update(0, 0.88f, 0);
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, policy.getLevel());
+
+        // Inside the hysteresis band: stays throttled
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, policy.update(MIN_HOLD_MS + 1000, 0.80f, 0));
+        // Below the band but too soon after the last change
+        ThermalPolicy fresh = new ThermalPolicy();
+        fresh.update(0, 0.88f, 0);
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, fresh.update(MIN_HOLD_MS - 1000, 0.5f, 0));
+
+        // Released one level at a time
+        assertEquals(ThermalPolicy.LEVEL_REDUCE_SCALE, policy.update(MIN_HOLD_MS + 2000, 0.5f, 0));
+        assertEquals(ThermalPolicy.LEVEL_REDUCE_SCALE, policy.update(MIN_HOLD_MS + 4000, 0.5f, 0));
+        assertEquals(ThermalPolicy.LEVEL_NONE, policy.update(2 * MIN_HOLD_MS + 2000, 0.5f, 0));
+    }
+
+    @Test
+    public void testRateLimitedHeadroomKeepsLastValue() {
+        ThermalPolicy policy = new ThermalPolicy();
+        policy.update(0, 0.9f, 0);
+        assertEquals(ThermalPolicy.LEVEL_CAP_FPS, policy.update(MIN_HOLD_MS * 3, Float.NaN, 0));
+    }
+
+    @Test
+    public void testDecisionRecordsTrigger() {
+        ThermalPolicy policy = new ThermalPolicy();
+        policy.update(0, 0.86f, 1);
+        assertEquals("level 0 -> 2 (headroom 0.86, status 1)", policy.getLastTrigger());
+    }
+}
@@ -0,0 +1,98 @@
+package com.dnagda.eliteG.utils;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for tiered cache release in CacheManager
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CacheManagerTest {
+
+    private final List<String> trimmed = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        CacheManager.unregister("test_low");
+        CacheManager.unregister("test_normal");
+        CacheManager.unregister("test_high");
+    }
+
+    private void registerTestCaches() {
+        CacheManager.register("test_high", CacheManager.PRIORITY_HIGH, () -> trim("test_high", 300));
+        CacheManager.register("test_low", CacheManager.PRIORITY_LOW, () -> trim("test_low", 100));
+        CacheManager.register("test_normal", CacheManager.PRIORITY_NORMAL, () -> trim("test_normal", 200));
+    }
+
+    private long trim(String name, long bytes) {
+        trimmed.add(name);
+        return bytes;
+    }
+
+    @Test
+    public void testTrimLevelsMapToTiers() {
+        assertEquals(CacheManager.RELEASE_NONE, CacheManager.getHighestPriorityToRelease(0));
+        assertEquals(CacheManager.PRIORITY_LOW,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE));
+        assertEquals(CacheManager.PRIORITY_NORMAL,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW));
+        assertEquals(CacheManager.PRIORITY_HIGH,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL));
+        assertEquals(CacheManager.PRIORITY_NORMAL,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN));
+        assertEquals(CacheManager.PRIORITY_NORMAL,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND));
+        assertEquals(CacheManager.PRIORITY_HIGH,
+                CacheManager.getHighestPriorityToRelease(ComponentCallbacks2.TRIM_MEMORY_COMPLETE));
+    }
+
+    @Test
+    public void testReleaseIsOrderedByPriority() {
+        registerTestCaches();
+        long freed = CacheManager.release(CacheManager.PRIORITY_NORMAL);
+        trimmed.retainAll(Arrays.asList("test_low", "test_normal", "test_high"));
+        assertEquals(Arrays.asList("test_low", "test_normal"), trimmed);
+        assertTrue("Freed bytes should include both tiers", freed >= 300);
+    }
+
+    @Test
+    public void testRegisterReplacesSameName() {
+        registerTestCaches();
+        CacheManager.register("test_low", CacheManager.PRIORITY_LOW, () -> trim("test_low_v2", 50));
+        CacheManager.release(CacheManager.PRIORITY_LOW);
+        assertTrue(trimmed.contains("test_low_v2"));
+        assertFalse(trimmed.contains("test_low"));
+    }
+
+    @Test
+    public void testUnregisteredCacheIsNotTrimmed() {
+        registerTestCaches();
+        CacheManager.unregister("test_normal");
+        CacheManager.onLowMemory();
+        assertTrue(trimmed.contains("test_low"));
+        assertTrue(trimmed.contains("test_high"));
+        assertFalse(trimmed.contains("test_normal"));
+    }
+
+    @Test
+    public void testOwnedCacheIsTrimmedThroughItsOwner() {
+        List<String> owner = new ArrayList<>(Arrays.asList("a", "b"));
+        CacheManager.register("test_low", CacheManager.PRIORITY_LOW, owner, list -> {
+            long freed = list.size() * 10L;
+            list.clear();
+            return freed;
+        });
+        assertEquals(20, CacheManager.release(CacheManager.PRIORITY_LOW));
+        assertTrue(owner.isEmpty());
+    }
+}
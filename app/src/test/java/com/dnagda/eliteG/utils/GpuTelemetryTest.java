@@ -0,0 +1,148 @@
+package com.dnagda.eliteG.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for GpuTelemetry against a fake sysfs tree
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GpuTelemetryTest {
+
+    @Rule
+    public TemporaryFolder sysRoot = new TemporaryFolder();
+
+    private GpuTelemetry.Sample sample;
+
+    @Before
+    public void setUp() {
+        sample = new GpuTelemetry.Sample();
+        PerformanceMonitor.resetStatistics();
+    }
+
+    @Test
+    public void testNoNodes_SourceIsNone() {
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertEquals(GpuTelemetry.Source.NONE, telemetry.getSource());
+        assertFalse("Sampling without nodes should fail", telemetry.sample(sample));
+        assertEquals(GpuTelemetry.UNAVAILABLE, sample.loadPercent);
+    }
+
+    @Test
+    public void testAdreno_BusyPercentageAndClock() throws IOException {
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "42 %\n");
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_GPUCLK, "585000000\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(GpuTelemetry.Source.ADRENO, telemetry.getSource());
+        assertEquals(42, sample.loadPercent);
+        assertEquals(585, sample.freqMhz);
+    }
+
+    @Test
+    public void testAdreno_GpuBusyFallback() throws IOException {
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_GPUBUSY, "  25000   100000\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(25, sample.loadPercent);
+        assertEquals("Missing clock node should stay unavailable", GpuTelemetry.UNAVAILABLE, sample.freqMhz);
+    }
+
+    @Test
+    public void testAdreno_IdleGpuBusyIsZero() throws IOException {
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_GPUBUSY, "0 0\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(0, sample.loadPercent);
+    }
+
+    @Test
+    public void testMali_PlatformGlob() throws IOException {
+        write(GpuTelemetry.PLATFORM_DIR + "/13000000.mali/" + GpuTelemetry.MALI_UTILIZATION, "67\n");
+        write(GpuTelemetry.PLATFORM_DIR + "/13000000.mali/" + GpuTelemetry.MALI_CLOCK, "848\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(GpuTelemetry.Source.MALI, telemetry.getSource());
+        assertEquals(67, sample.loadPercent);
+        assertEquals(848, sample.freqMhz);
+    }
+
+    @Test
+    public void testDevfreq_OnlyGpuDevicesAreUsed() throws IOException {
+        write(GpuTelemetry.DEVFREQ_DIR + "/soc:qcom,cpubw/" + GpuTelemetry.DEVFREQ_CUR_FREQ, "762000000\n");
+        write(GpuTelemetry.DEVFREQ_DIR + "/1c00000.gpu/" + GpuTelemetry.DEVFREQ_LOAD, "31@450000000Hz\n");
+        write(GpuTelemetry.DEVFREQ_DIR + "/1c00000.gpu/" + GpuTelemetry.DEVFREQ_CUR_FREQ, "450000000\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(GpuTelemetry.Source.DEVFREQ, telemetry.getSource());
+        assertEquals(31, sample.loadPercent);
+        assertEquals(450, sample.freqMhz);
+    }
+
+    @Test
+    public void testAdrenoPreferredOverDevfreq() throws IOException {
+        write(GpuTelemetry.DEVFREQ_DIR + "/kgsl-3d0/" + GpuTelemetry.DEVFREQ_CUR_FREQ, "300000000\n");
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "12\n");
+
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertEquals(GpuTelemetry.Source.ADRENO, telemetry.getSource());
+    }
+
+    @Test
+    public void testProbeIsCached_ValuesAreResampled() throws IOException {
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "10\n");
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        assertTrue(telemetry.sample(sample));
+        assertEquals(10, sample.loadPercent);
+
+        // A node appearing later is ignored until reset, but known nodes are re-read
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_GPUCLK, "200000000\n");
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "90\n");
+        assertTrue(telemetry.sample(sample));
+        assertEquals(90, sample.loadPercent);
+        assertEquals(GpuTelemetry.UNAVAILABLE, sample.freqMhz);
+
+        telemetry.reset();
+        assertTrue(telemetry.sample(sample));
+        assertEquals(200, sample.freqMhz);
+    }
+
+    @Test
+    public void testSamplesFeedPerformanceMonitor() throws IOException {
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "40\n");
+        GpuTelemetry telemetry = new GpuTelemetry(sysRoot.getRoot());
+        telemetry.sample(sample);
+        write(GpuTelemetry.KGSL_DIR + "/" + GpuTelemetry.KGSL_BUSY_PERCENTAGE, "60\n");
+        telemetry.sample(sample);
+
+        PerformanceMonitor.MetricStats load = PerformanceMonitor.getMetric(GpuTelemetry.METRIC_GPU_LOAD);
+        assertNotNull("GPU load metric should be recorded", load);
+        assertEquals(2, load.getCount());
+        assertEquals(50.0, load.getAverage(), 0.01);
+        assertEquals(60, load.getLast());
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        File file = new File(sysRoot.getRoot(), relativePath);
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
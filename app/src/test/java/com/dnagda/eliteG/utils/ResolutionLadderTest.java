@@ -0,0 +1,54 @@
+package com.dnagda.eliteG.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the precomputed resolution ladder
+ */
+public class ResolutionLadderTest {
+
+    private final ResolutionLadder ladder = new ResolutionLadder(1080, 2400, 420);
+
+    @Test
+    public void testNativeAtScaleZero() {
+        assertEquals(1080, ladder.getWidth(0));
+        assertEquals(2400, ladder.getHeight(0));
+        assertEquals(420, ladder.getDpi(0));
+        assertEquals("1080x2400", ladder.getLabel(0));
+    }
+
+    @Test
+    public void testStepsAreAlignedAndKeepAspect() {
+        for (int scale = 1; scale <= Constants.MAX_RESOLUTION_SCALE; scale++) {
+            int width = ladder.getWidth(scale);
+            int height = ladder.getHeight(scale);
+            assertEquals("Width at " + scale, 0, width % 8);
+            assertEquals("Height at " + scale, 0, height % 8);
+            assertTrue("Aspect at " + scale, ladder.getAspectError(width, height) <= ResolutionLadder.MAX_ASPECT_ERROR);
+        }
+    }
+
+    @Test
+    public void testStepsNeverGrow() {
+        for (int scale = 1; scale <= Constants.MAX_RESOLUTION_SCALE; scale++) {
+            assertTrue(ladder.getWidth(scale) <= ladder.getWidth(scale - 1));
+            assertTrue(ladder.getHeight(scale) <= ladder.getHeight(scale - 1));
+            assertTrue(ladder.getDpi(scale) <= ladder.getDpi(scale - 1));
+        }
+    }
+
+    @Test
+    public void testFollowsCoefficientFormula() {
+        int expected = PerformanceUtils.calculateNewWidth(1080, PerformanceUtils.calculateWidthCoefficient(1080), 50);
+        assertTrue(Math.abs(ladder.getWidth(50) - expected) <= 32);
+        assertEquals(ladder.getWidth(Constants.MAX_RESOLUTION_SCALE), ladder.getWidth(500));
+        assertEquals(1080, ladder.getWidth(-5));
+    }
+
+    @Test
+    public void testSameDisplayReusesLadder() {
+        assertSame(ResolutionLadder.forDisplay(1440, 3200, 560), ResolutionLadder.forDisplay(1440, 3200, 560));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dnagda.eliteG.utils;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the bundled SoC profile table and SoC-aware recommendation
+ */
+public class SocDatabaseTest {
+
+    private static final String TABLE = "# comment\n"
+            + "\n"
+            + "sm8650 5 3\n"
+            + "kalama 5 3\n"
+            + "MT6768 1 2\n"
+            + "broken 9 1\n"
+            + "short 2\n"
+            + "nan x 2\n";
+
+    @Test
+    public void testParseSkipsCommentsAndMalformedLines() throws IOException {
+        Map<String, SocDatabase.SocProfile> table = SocDatabase.parse(new StringReader(TABLE));
+        assertEquals(3, table.size());
+        assertEquals(5, table.get("sm8650").gpuClass);
+        assertEquals(3, table.get("sm8650").sustainedTier);
+        assertNotNull("Keys should be lower case", table.get("mt6768"));
+    }
+
+    @Test
+    public void testLookupPrefersFirstKnownKey() throws IOException {
+        Map<String, SocDatabase.SocProfile> table = SocDatabase.parse(new StringReader(TABLE));
+        assertEquals("sm8650", SocDatabase.lookup(table, "SM8650", "kalama", "qcom").key);
+        assertEquals("kalama", SocDatabase.lookup(table, null, "kalama", "qcom").key);
+        assertEquals("mt6768", SocDatabase.lookup(table, "", null, "mt6768").key);
+        assertNull(SocDatabase.lookup(table, "unknown", "qcom"));
+    }
+
+    @Test
+    public void testBundledTableParses() throws IOException {
+        File asset = new File("src/main/assets/" + SocDatabase.ASSET_NAME);
+        if (!asset.exists()) {
+            return; // Not running from the module directory
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(asset), StandardCharsets.US_ASCII)) {
+            Map<String, SocDatabase.SocProfile> table = SocDatabase.parse(reader);
+            assertTrue(table.size() > 50);
+            assertNotNull(table.get("pineapple"));
+        }
+    }
+
+    @Test
+    public void testFlagshipGetsLessReductionThanBudgetChipWithSameRam() {
+        SocDatabase.SocProfile flagship = new SocDatabase.SocProfile("sm8650", 5, 3);
+        SocDatabase.SocProfile budget = new SocDatabase.SocProfile("mt6765", 1, 1);
+        int pixels = 2400 * 1080;
+
+        int flagshipScale = PerformanceUtils.recommendResolutionScale(flagship, 4096, pixels);
+        int budgetScale = PerformanceUtils.recommendResolutionScale(budget, 4096, pixels);
+        assertEquals(0, flagshipScale);
+        assertEquals(35, budgetScale);
+    }
+
+    @Test
+    public void testPanelAndMemoryAdjustRecommendation() {
+        SocDatabase.SocProfile mid = new SocDatabase.SocProfile("sm7325", 3, 2);
+        assertEquals(15, PerformanceUtils.recommendResolutionScale(mid, 8192, 2400 * 1080));
+        assertEquals(25, PerformanceUtils.recommendResolutionScale(mid, 8192, 3200 * 1440));
+        assertEquals(10, PerformanceUtils.recommendResolutionScale(mid, 8192, 1600 * 720));
+        assertEquals(25, PerformanceUtils.recommendResolutionScale(mid, 1536, 2400 * 1080));
+        assertEquals("Unknown memory should not change the result",
+                15, PerformanceUtils.recommendResolutionScale(mid, 0, 2400 * 1080));
+    }
+}